@@ -0,0 +1,295 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.model.Booking;
+import com.neurofleetx.model.City;
+import com.neurofleetx.model.Route;
+import com.neurofleetx.model.User;
+import com.neurofleetx.model.Vehicle;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Deterministic synthetic data for the benchmarks. Every generator takes a
+ * seed so runs are comparable across commits.
+ */
+public final class BenchmarkData {
+
+    // Bengaluru-sized box around the default pickup point
+    public static final double CENTER_LAT = 12.9716;
+    public static final double CENTER_LNG = 77.5946;
+    private static final double SPREAD_DEG = 0.25;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * {@code count} drivers scattered over the city, 5% without a known
+     * position, loads 0-2 and a mix of vehicle types.
+     */
+    public static DriverSnapshot drivers(int count, long seed) {
+        Random random = new Random(seed);
+        Vehicle.VehicleType[] types = Vehicle.VehicleType.values();
+        DriverSnapshot snapshot = new DriverSnapshot(count);
+        for (int i = 0; i < count; i++) {
+            boolean located = random.nextInt(20) != 0;
+            snapshot.add(i + 1L,
+                    located ? CENTER_LAT + (random.nextDouble() - 0.5) * SPREAD_DEG : Double.NaN,
+                    located ? CENTER_LNG + (random.nextDouble() - 0.5) * SPREAD_DEG : Double.NaN,
+                    random.nextInt(3),
+                    (byte) types[random.nextInt(types.length)].ordinal());
+        }
+        return snapshot;
+    }
+
+    /**
+     * A road-like city graph: a {@code side x side} grid of cities 0.05 deg
+     * apart with jittered edge lengths, plus a few random long highways.
+     */
+    public static CityGraph cityGraph(int side, long seed) {
+        return cityGraph(side, seed, side * side / 10);
+    }
+
+    /**
+     * {@link #cityGraph(int, long)} with {@code highways} random long routes.
+     * Many random highways make the graph expander-like, the worst case for a
+     * {@link ContractionHierarchy}; real networks have far fewer.
+     */
+    public static CityGraph cityGraph(int side, long seed, int highways) {
+        Random random = new Random(seed);
+        List<City> cities = new ArrayList<>(side * side);
+        for (int i = 0; i < side * side; i++) {
+            City city = new City();
+            city.setId(i + 1L);
+            city.setName("City " + (i + 1));
+            city.setLatitude(BigDecimal.valueOf(CENTER_LAT + (i / side) * 0.05));
+            city.setLongitude(BigDecimal.valueOf(CENTER_LNG + (i % side) * 0.05));
+            cities.add(city);
+        }
+
+        List<Route> routes = new ArrayList<>();
+        long routeId = 1;
+        for (int i = 0; i < cities.size(); i++) {
+            int row = i / side;
+            int col = i % side;
+            if (col + 1 < side) {
+                routes.add(route(routeId++, cities.get(i), cities.get(i + 1), 5 + random.nextDouble() * 10));
+            }
+            if (row + 1 < side) {
+                routes.add(route(routeId++, cities.get(i), cities.get(i + side), 5 + random.nextDouble() * 10));
+            }
+        }
+        for (int i = 0; i < highways; i++) {
+            City from = cities.get(random.nextInt(cities.size()));
+            City to = cities.get(random.nextInt(cities.size()));
+            if (from != to) {
+                // Highways: never shorter than the straight line, like real roads
+                double straightKm = DriverScoringKernel.haversine(
+                        from.getLatitude().doubleValue(), from.getLongitude().doubleValue(),
+                        to.getLatitude().doubleValue(), to.getLongitude().doubleValue());
+                routes.add(route(routeId++, from, to, straightKm * (1.05 + random.nextDouble() * 0.25)));
+            }
+        }
+        return new CityGraph(cities, routes);
+    }
+
+    /**
+     * {@code graph} laid out as the backend's cached {@link RoadGraph}.
+     */
+    public static RoadGraph roadGraph(CityGraph graph) {
+        RoadGraph.Builder builder = RoadGraph.builder();
+        for (City city : graph.cities()) {
+            builder.addCity(city.getId(), city.getName(), city.getLatitude().doubleValue(), city.getLongitude().doubleValue());
+        }
+        for (Route route : graph.routes()) {
+            builder.addRoute(route.getSourceCity().getId(), route.getDestinationCity().getId(),
+                    route.getDistanceKm().doubleValue());
+        }
+        return builder.build();
+    }
+
+    /**
+     * A {@link RoadGraphProvider} already holding {@code graph}.
+     */
+    public static RoadGraphProvider roadGraphProvider(CityGraph graph) {
+        RoadGraphProvider provider = bean(RoadGraphProvider.class);
+        provider.publish(roadGraph(graph));
+        return provider;
+    }
+
+    /**
+     * A {@link RouteService} over {@code graph}. With {@code distanceTable} the
+     * all-pairs table is built first (when the graph is within the default
+     * 2,000-city limit), otherwise every lookup searches the graph.
+     */
+    public static RouteService routeService(CityGraph graph, boolean distanceTable) {
+        RoadGraphProvider provider = bean(RoadGraphProvider.class);
+        CityDistanceTable table = new CityDistanceTable(provider, distanceTable, 2000, 0);
+        table.register();
+        provider.publish(roadGraph(graph));
+        if (distanceTable && graph.cities().size() <= 2000) {
+            try {
+                while (!table.getStats().isReady()) {
+                    Thread.sleep(10);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // No contraction hierarchy: searches run as A*, as before it existed
+        ContractionHierarchyProvider hierarchies = new ContractionHierarchyProvider(provider, new RoadGraphStore(""), false, 0);
+        return bean(RouteService.class, provider, table, hierarchies);
+    }
+
+    private static Route route(long id, City from, City to, double km) {
+        Route route = new Route();
+        route.setId(id);
+        route.setSourceCity(from);
+        route.setDestinationCity(to);
+        route.setDistanceKm(BigDecimal.valueOf(km).setScale(2, RoundingMode.HALF_UP));
+        return route;
+    }
+
+    /**
+     * An OSRM {@code route} response in the shape the service requests
+     * ({@code overview=full&geometries=geojson&steps=true}): {@code alternatives}
+     * routes of {@code points} coordinates each, with one leg of steps.
+     */
+    public static String osrmRouteResponse(int alternatives, int points, long seed) {
+        Random random = new Random(seed);
+        StringBuilder json = new StringBuilder(points * alternatives * 48 + 256);
+        json.append("{\"code\":\"Ok\",\"routes\":[");
+        for (int r = 0; r < alternatives; r++) {
+            if (r > 0) {
+                json.append(',');
+            }
+            double distance = 5000 + random.nextDouble() * 20000;
+            double duration = distance / 8.0;
+            json.append("{\"geometry\":{\"type\":\"LineString\",\"coordinates\":[");
+            double lng = CENTER_LNG;
+            double lat = CENTER_LAT;
+            for (int p = 0; p < points; p++) {
+                if (p > 0) {
+                    json.append(',');
+                }
+                lng += (random.nextDouble() - 0.4) * 0.0005;
+                lat += (random.nextDouble() - 0.4) * 0.0005;
+                json.append(String.format(Locale.ROOT, "[%.6f,%.6f]", lng, lat));
+            }
+            json.append("]},\"legs\":[{\"steps\":[");
+            int steps = Math.max(1, points / 20);
+            for (int s = 0; s < steps; s++) {
+                if (s > 0) {
+                    json.append(',');
+                }
+                json.append(String.format(Locale.ROOT,
+                        "{\"distance\":%.1f,\"duration\":%.1f,\"name\":\"Road %d\",\"mode\":\"driving\","
+                                + "\"maneuver\":{\"type\":\"turn\",\"modifier\":\"left\",\"location\":[%.6f,%.6f]}}",
+                        distance / steps, duration / steps, s, lng, lat));
+            }
+            json.append(String.format(Locale.ROOT,
+                    "],\"summary\":\"\",\"weight\":%.1f,\"duration\":%.1f,\"distance\":%.1f}],"
+                            + "\"weight_name\":\"routability\",\"weight\":%.1f,\"duration\":%.1f,\"distance\":%.1f}",
+                    duration, duration, distance, duration, duration, distance));
+        }
+        json.append("],\"waypoints\":[{\"name\":\"Pickup\",\"location\":[")
+                .append(CENTER_LNG).append(',').append(CENTER_LAT)
+                .append("]},{\"name\":\"Drop\",\"location\":[")
+                .append(CENTER_LNG).append(',').append(CENTER_LAT)
+                .append("]}]}");
+        return json.toString();
+    }
+
+    /**
+     * A fully populated ride-hailing booking in ACCEPTED state.
+     */
+    public static Booking acceptedBooking(long id) {
+        User customer = new User();
+        customer.setId(1000 + id);
+        customer.setName("Customer " + id);
+        customer.setEmail("customer" + id + "@example.com");
+
+        User driver = new User();
+        driver.setId(2000 + id);
+        driver.setName("Driver " + id);
+        driver.setEmail("driver" + id + "@example.com");
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(3000 + id);
+        vehicle.setName("Sedan " + id);
+
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 9, 0);
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setBookingCode("BK" + id);
+        booking.setUser(customer);
+        booking.setDriver(driver);
+        booking.setVehicle(vehicle);
+        booking.setPickupTime(now);
+        booking.setTotalCost(new BigDecimal("245.50"));
+        booking.setBaseFare(new BigDecimal("50.00"));
+        booking.setDistanceKm(new BigDecimal("17.75"));
+        booking.setRatePerKm(new BigDecimal("10.00"));
+        booking.setStatus(Booking.BookingStatus.ACCEPTED);
+        booking.setRequestedVehicleType("SEDAN");
+        booking.setPickupAddress("MG Road, Bengaluru");
+        booking.setDropAddress("Whitefield, Bengaluru");
+        booking.setCreatedAt(now.minusMinutes(3));
+        booking.setBroadcastedAt(now.minusMinutes(3));
+        booking.setAcceptedAt(now.minusMinutes(2));
+        return booking;
+    }
+
+    /**
+     * Builds a Spring bean by passing {@code args} to the constructor
+     * parameters of matching type and {@code null} to the rest, so benchmarks
+     * keep compiling as services gain dependencies they do not exercise.
+     */
+    public static <T> T bean(Class<T> type, Object... args) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructors()[0];
+            Class<?>[] parameters = constructor.getParameterTypes();
+            Object[] values = new Object[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                for (Object arg : args) {
+                    if (parameters[i].isInstance(arg)) {
+                        values[i] = arg;
+                    }
+                }
+            }
+            constructor.setAccessible(true);
+            return type.cast(constructor.newInstance(values));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot build " + type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * In-memory stand-in for a Spring Data repository that answers
+     * {@code findAll()} and {@code findById()} from {@code rows}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> R repository(Class<R> type, List<?> rows, Function<Object, Long> id) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, methodArgs) -> switch (method.getName()) {
+                    case "findAll" -> rows;
+                    case "findById" -> rows.stream().filter(row -> id.apply(row).equals(methodArgs[0])).findFirst();
+                    case "count" -> (long) rows.size();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == methodArgs[0];
+                    case "toString" -> type.getSimpleName() + "(in-memory)";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    public record CityGraph(List<City> cities, List<Route> routes) {
+    }
+}
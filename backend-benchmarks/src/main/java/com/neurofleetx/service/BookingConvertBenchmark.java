@@ -0,0 +1,44 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.BookingDTO;
+import com.neurofleetx.model.Booking;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BookingService#convertToDTO}, which runs for every booking in
+ * listings and for every STOMP notification.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingConvertBenchmark {
+
+    private BookingService bookingService;
+    private Booking booking;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bookingService = BenchmarkData.bean(BookingService.class);
+        booking = BenchmarkData.acceptedBooking(1);
+    }
+
+    @Benchmark
+    public BookingDTO convert() {
+        return bookingService.convertToDTO(booking);
+    }
+}
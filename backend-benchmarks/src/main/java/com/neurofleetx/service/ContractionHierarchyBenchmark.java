@@ -0,0 +1,111 @@
+package com.neurofleetx.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ContractionHierarchy} queries against bidirectional Dijkstra, the
+ * best plain search, on grid city graphs with one long highway per grid row
+ * (side 50 and 160, about 2.5k and 25k cities). Also a 16 x 16 distance
+ * matrix, many-to-many against one hierarchy query per pair. Preprocessing
+ * time, shortcut count and average settled nodes are logged at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ContractionHierarchyBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContractionHierarchyBenchmark.class);
+
+    private static final int PAIRS = 256;
+    private static final int MATRIX = 16;
+
+    /** Grid side; the graph has side^2 cities and about 4 * side^2 directed edges. */
+    @Param({ "50", "160" })
+    public int side;
+
+    private RoadGraph graph;
+    private ContractionHierarchy hierarchy;
+    private int[] sources;
+    private int[] targets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = BenchmarkData.roadGraph(BenchmarkData.cityGraph(side, 42, side));
+        long started = System.nanoTime();
+        hierarchy = ContractionHierarchy.build(graph);
+        long buildMillis = (System.nanoTime() - started) / 1_000_000;
+
+        Random random = new Random(7);
+        sources = new int[PAIRS];
+        targets = new int[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            sources[i] = random.nextInt(graph.nodeCount());
+            targets[i] = random.nextInt(graph.nodeCount());
+        }
+
+        long hierarchySettled = 0;
+        long bidirectionalSettled = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            hierarchySettled += hierarchy.search(sources[i], targets[i]).settled();
+            bidirectionalSettled += ShortestPathEngine.search(graph, sources[i], targets[i],
+                    ShortestPathEngine.Algorithm.BIDIRECTIONAL).settled();
+        }
+        logger.info("Preprocessing {} ms, {} shortcuts for {} edges; settled nodes per query: hierarchy={} "
+                + "BIDIRECTIONAL={}", buildMillis, hierarchy.shortcutCount(), graph.edgeCount(),
+                hierarchySettled / PAIRS, bidirectionalSettled / PAIRS);
+    }
+
+    @Benchmark
+    public ShortestPathEngine.SearchResult hierarchy() {
+        int i = next++ & (PAIRS - 1);
+        return hierarchy.search(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public ShortestPathEngine.SearchResult bidirectional() {
+        int i = next++ & (PAIRS - 1);
+        return ShortestPathEngine.search(graph, sources[i], targets[i], ShortestPathEngine.Algorithm.BIDIRECTIONAL);
+    }
+
+    @Benchmark
+    public double[][] matrixManyToMany() {
+        int offset = next++ & (PAIRS - MATRIX);
+        int[] from = new int[MATRIX];
+        int[] to = new int[MATRIX];
+        System.arraycopy(sources, offset, from, 0, MATRIX);
+        System.arraycopy(targets, offset, to, 0, MATRIX);
+        return hierarchy.manyToMany(from, to);
+    }
+
+    @Benchmark
+    public double[][] matrixPairwise() {
+        int offset = next++ & (PAIRS - MATRIX);
+        double[][] result = new double[MATRIX][MATRIX];
+        for (int i = 0; i < MATRIX; i++) {
+            for (int j = 0; j < MATRIX; j++) {
+                result[i][j] = hierarchy.distance(sources[offset + i], targets[offset + j]);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,75 @@
+package com.neurofleetx.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Candidate scoring and top-K selection as run by
+ * {@link DriverLoadOptimizationService}, without the index lookup and the
+ * database re-check of the winners.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriverScoringBenchmark {
+
+    private static final int K = 20;
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int drivers;
+
+    private DriverSnapshot snapshot;
+    private double[] scores;
+    private DriverCandidateScorer sequential;
+    private DriverCandidateScorer automatic;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        snapshot = BenchmarkData.drivers(drivers, 42);
+        scores = new double[drivers];
+        sequential = new DriverCandidateScorer(1, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        // Production defaults: parallel above 20000 candidates
+        automatic = new DriverCandidateScorer(0, 20000, 4096);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sequential.shutdown();
+        automatic.shutdown();
+    }
+
+    @Benchmark
+    public int[] anyTypeSequential() {
+        return sequential.scoreAndSelect(snapshot, BenchmarkData.CENTER_LAT, BenchmarkData.CENTER_LNG,
+                DriverSnapshot.ANY_TYPE, 30, K, Double.NEGATIVE_INFINITY, Long.MIN_VALUE, scores);
+    }
+
+    @Benchmark
+    public int[] anyTypeAutomatic() {
+        return automatic.scoreAndSelect(snapshot, BenchmarkData.CENTER_LAT, BenchmarkData.CENTER_LNG,
+                DriverSnapshot.ANY_TYPE, 30, K, Double.NEGATIVE_INFINITY, Long.MIN_VALUE, scores);
+    }
+
+    @Benchmark
+    public int[] narrowRadiusSequential() {
+        // Most candidates fall to the equirectangular pre-filter
+        return sequential.scoreAndSelect(snapshot, BenchmarkData.CENTER_LAT, BenchmarkData.CENTER_LNG,
+                DriverSnapshot.ANY_TYPE, 2, K, Double.NEGATIVE_INFINITY, Long.MIN_VALUE, scores);
+    }
+}
@@ -0,0 +1,65 @@
+package com.neurofleetx.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link KShortestPaths} for K = 1, 3, 5 and 10 routes within 1.5 times the
+ * shortest (the {@code routing.alternatives.*} defaults), the local
+ * alternatives served while OSRM is down, on grid city graphs of side 50 and
+ * 160 (2,500 and 25,600 cities) over random city pairs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class KShortestPathsBenchmark {
+
+    private static final int PAIRS = 256;
+    private static final double MAX_STRETCH = 1.5;
+
+    @Param({ "50", "160" })
+    public int side;
+
+    @Param({ "1", "3", "5", "10" })
+    public int k;
+
+    private RoadGraph graph;
+    private int[] sources;
+    private int[] targets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = BenchmarkData.roadGraph(BenchmarkData.cityGraph(side, 42));
+        Random random = new Random(7);
+        sources = new int[PAIRS];
+        targets = new int[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            sources[i] = random.nextInt(graph.nodeCount());
+            targets[i] = random.nextInt(graph.nodeCount());
+        }
+    }
+
+    @Benchmark
+    public List<KShortestPaths.Path> find() {
+        int i = next++ & (PAIRS - 1);
+        return KShortestPaths.find(graph, sources[i], targets[i], k, MAX_STRETCH);
+    }
+}
@@ -0,0 +1,91 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.model.City;
+import com.neurofleetx.model.Route;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * The shortest-path search {@link RouteService} used before
+ * {@link ShortestPathEngine}, kept as the comparison baseline for
+ * {@link ShortestPathBenchmark}: boxed ids, {@code BigDecimal} distances, a
+ * {@code PriorityQueue} with stale entries and a visited {@code HashSet}.
+ *
+ * The graph map is built once in the constructor, so only the search itself
+ * is measured (the old service also rebuilt it from the database per call).
+ */
+public final class LegacyDijkstra {
+
+    private final List<City> cities;
+    private final Map<Long, Map<Long, BigDecimal>> graph = new HashMap<>();
+
+    public LegacyDijkstra(BenchmarkData.CityGraph cityGraph) {
+        this.cities = cityGraph.cities();
+        for (Route route : cityGraph.routes()) {
+            Long u = route.getSourceCity().getId();
+            Long v = route.getDestinationCity().getId();
+            BigDecimal dist = route.getDistanceKm();
+            graph.computeIfAbsent(u, k -> new HashMap<>()).put(v, dist);
+            graph.computeIfAbsent(v, k -> new HashMap<>()).put(u, dist);
+        }
+    }
+
+    public BigDecimal getShortestDistance(Long sourceCityId, Long destCityId) {
+        if (sourceCityId.equals(destCityId)) {
+            return BigDecimal.ZERO;
+        }
+
+        PriorityQueue<Node> pq = new PriorityQueue<>(Comparator.comparing(n -> n.distance));
+        Map<Long, BigDecimal> distances = new HashMap<>();
+        Set<Long> visited = new HashSet<>();
+
+        for (City city : cities) {
+            distances.put(city.getId(), null); // null represents infinity
+        }
+
+        distances.put(sourceCityId, BigDecimal.ZERO);
+        pq.add(new Node(sourceCityId, BigDecimal.ZERO));
+
+        while (!pq.isEmpty()) {
+            Node current = pq.poll();
+            Long u = current.id;
+
+            if (visited.contains(u)) continue;
+            visited.add(u);
+
+            if (u.equals(destCityId)) {
+                return distances.get(u);
+            }
+
+            if (graph.containsKey(u)) {
+                for (Map.Entry<Long, BigDecimal> neighbor : graph.get(u).entrySet()) {
+                    Long v = neighbor.getKey();
+                    BigDecimal weight = neighbor.getValue();
+
+                    if (!visited.contains(v)) {
+                        BigDecimal currentDist = distances.get(v);
+                        BigDecimal newDist = distances.get(u).add(weight);
+
+                        if (currentDist == null || newDist.compareTo(currentDist) < 0) {
+                            distances.put(v, newDist);
+                            pq.add(new Node(v, newDist));
+                        }
+                    }
+                }
+            }
+        }
+
+        return null; // unreachable
+    }
+
+    private static class Node {
+        Long id;
+        BigDecimal distance;
+
+        Node(Long id, BigDecimal distance) {
+            this.id = id;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.neurofleetx.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The OSRM route parsing {@link OSRMService} used before its streaming
+ * parser, kept as the comparison baseline for {@link OsrmParseBenchmark}: a
+ * full {@code JsonNode} tree, then one boxed {@code List<Double>} per
+ * geometry point.
+ *
+ * Routes come back as {@link LegacyRoute}, the shape {@code RouteOptionDTO}
+ * had then, so the boxed geometry is built exactly as before.
+ */
+public final class LegacyOsrmParser {
+
+    public record LegacyRoute(BigDecimal distance, BigDecimal duration, BigDecimal score,
+            List<List<Double>> geometry, String summary) {
+    }
+
+    private static final double TRAFFIC_WEIGHT_DEFAULT = 0.0;
+
+    private final ObjectMapper objectMapper;
+
+    public LegacyOsrmParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public List<LegacyRoute> parse(String response) throws Exception {
+        List<LegacyRoute> routes = new ArrayList<>();
+        JsonNode root = objectMapper.readTree(response);
+
+        if (!root.has("routes") || root.get("routes").size() == 0) {
+            throw new RuntimeException("No routes found in OSRM response");
+        }
+
+        JsonNode routesNode = root.get("routes");
+
+        for (int i = 0; i < routesNode.size(); i++) {
+            JsonNode routeNode = routesNode.get(i);
+
+            double distanceMeters = routeNode.get("distance").asDouble();
+            BigDecimal distance = BigDecimal.valueOf(distanceMeters / 1000.0).setScale(2, RoundingMode.HALF_UP);
+
+            double durationSeconds = routeNode.get("duration").asDouble();
+            BigDecimal duration = BigDecimal.valueOf(durationSeconds / 60.0).setScale(2, RoundingMode.HALF_UP);
+
+            List<List<Double>> geometry = null;
+            if (routeNode.has("geometry") && routeNode.get("geometry").has("coordinates")) {
+                JsonNode coordinates = routeNode.get("geometry").get("coordinates");
+                geometry = new ArrayList<>();
+                for (JsonNode coord : coordinates) {
+                    List<Double> point = new ArrayList<>();
+                    point.add(coord.get(0).asDouble()); // longitude
+                    point.add(coord.get(1).asDouble()); // latitude
+                    geometry.add(point);
+                }
+            }
+
+            BigDecimal durationScore = duration.multiply(BigDecimal.valueOf(0.6));
+            BigDecimal distanceScore = distance.multiply(BigDecimal.valueOf(0.3));
+            BigDecimal trafficScore = BigDecimal.valueOf(TRAFFIC_WEIGHT_DEFAULT * 0.1);
+
+            routes.add(new LegacyRoute(distance, duration, durationScore.add(distanceScore).add(trafficScore),
+                    geometry, String.format("%.1f km, %.0f min", distance.doubleValue(), duration.doubleValue())));
+        }
+
+        return routes;
+    }
+}
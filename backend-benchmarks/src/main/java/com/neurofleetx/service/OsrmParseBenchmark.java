@@ -0,0 +1,59 @@
+package com.neurofleetx.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neurofleetx.dto.RouteOptionDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OSRMService#parseOSRMResponse} on route responses of increasing
+ * geometry size (three alternatives each, as requested by the service),
+ * against the tree-based parser it replaced ({@link LegacyOsrmParser}). Run
+ * with {@code -prof gc} to see bytes allocated per parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OsrmParseBenchmark {
+
+    /** Geometry points per route: a short hop, a cross-town trip, an intercity drive. */
+    @Param({ "100", "1000", "10000" })
+    public int points;
+
+    private OSRMService osrmService;
+    private LegacyOsrmParser legacyParser;
+    private String payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        osrmService = BenchmarkData.bean(OSRMService.class, new ObjectMapper());
+        legacyParser = new LegacyOsrmParser(new ObjectMapper());
+        payload = BenchmarkData.osrmRouteResponse(3, points, 42);
+    }
+
+    @Benchmark
+    public List<RouteOptionDTO> parse() throws Exception {
+        return osrmService.parseOSRMResponse(payload);
+    }
+
+    @Benchmark
+    public List<LegacyOsrmParser.LegacyRoute> legacy() throws Exception {
+        return legacyParser.parse(payload);
+    }
+}
@@ -0,0 +1,70 @@
+package com.neurofleetx.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of the road graph: mapping a {@link RoadGraphFile} against
+ * building the graph from city and route rows (the rows are already in
+ * memory here, so the database round trips that the file also saves are not
+ * counted). Grid city graphs of side 160 and 500 (25,600 and 250,000 cities).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RoadGraphFileBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoadGraphFileBenchmark.class);
+
+    private static final long FINGERPRINT = 42L;
+
+    @Param({ "160", "500" })
+    public int side;
+
+    private BenchmarkData.CityGraph cityGraph;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        cityGraph = BenchmarkData.cityGraph(side, 42);
+        file = Files.createTempFile("road-graph", ".bin");
+        RoadGraphFile.write(file, BenchmarkData.roadGraph(cityGraph), null, FINGERPRINT);
+        logger.info("Road graph file: {} KB", Files.size(file) / 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public RoadGraph mapFile() throws IOException {
+        return RoadGraphFile.read(file, FINGERPRINT).graph();
+    }
+
+    @Benchmark
+    public RoadGraph buildFromRows() {
+        return BenchmarkData.roadGraph(cityGraph);
+    }
+}
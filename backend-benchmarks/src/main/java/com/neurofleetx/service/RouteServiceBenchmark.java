@@ -0,0 +1,74 @@
+package com.neurofleetx.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RouteService#getShortestDistance} on synthetic grid-shaped city
+ * graphs, served from a pre-built {@link RoadGraph} and, when it fits,
+ * the {@link CityDistanceTable}, as in the running app.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteServiceBenchmark {
+
+    private static final int PAIRS = 256;
+
+    /** Grid side; the graph has side^2 cities. */
+    @Param({ "10", "32", "100" })
+    public int side;
+
+    /** Answer from the all-pairs table (only fits up to side=44) or search every time. */
+    @Param({ "true", "false" })
+    public boolean distanceTable;
+
+    private RouteService routeService;
+    private long[] sources;
+    private long[] destinations;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkData.CityGraph graph = BenchmarkData.cityGraph(side, 42);
+        routeService = BenchmarkData.routeService(graph, distanceTable);
+
+        Random random = new Random(7);
+        int count = side * side;
+        sources = new long[PAIRS];
+        destinations = new long[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            sources[i] = 1 + random.nextInt(count);
+            destinations[i] = 1 + random.nextInt(count);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal randomPair() {
+        int i = next++ & (PAIRS - 1);
+        return routeService.getShortestDistance(sources[i], destinations[i]);
+    }
+
+    @Benchmark
+    public BigDecimal cornerToCorner() {
+        // Worst case: settles nearly the whole graph
+        return routeService.getShortestDistance(1L, (long) side * side);
+    }
+}
@@ -0,0 +1,110 @@
+package com.neurofleetx.service;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ShortestPathEngine} (Dijkstra, A* and bidirectional) against the
+ * previous {@link LegacyDijkstra} on grid city graphs of roughly 10k, 100k and
+ * 1M directed edges (side 50, 160 and 500), over the same random city pairs.
+ * Settled nodes and queries are reported as the {@code :settled} and
+ * {@code :queries} secondary results; their ratio is the average per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ShortestPathBenchmark {
+
+    private static final int PAIRS = 256;
+
+    /** Grid side; the graph has side^2 cities and about 4 * side^2 directed edges. */
+    @Param({ "50", "160", "500" })
+    public int side;
+
+    private RoadGraph graph;
+    private LegacyDijkstra legacy;
+    private int[] sources;
+    private int[] targets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkData.CityGraph cityGraph = BenchmarkData.cityGraph(side, 42);
+        graph = BenchmarkData.roadGraph(cityGraph);
+        legacy = new LegacyDijkstra(cityGraph);
+
+        Random random = new Random(7);
+        sources = new int[PAIRS];
+        targets = new int[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            sources[i] = random.nextInt(graph.nodeCount());
+            targets[i] = random.nextInt(graph.nodeCount());
+        }
+    }
+
+    /** Nodes settled and queries run by one thread in one iteration. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SearchCounters {
+        public long settled;
+        public long queries;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            settled = 0;
+            queries = 0;
+        }
+
+        ShortestPathEngine.SearchResult record(ShortestPathEngine.SearchResult result) {
+            settled += result.settled();
+            queries++;
+            return result;
+        }
+    }
+
+    /** Plain Dijkstra, as behind {@link ShortestPathEngine#distance}. */
+    @Benchmark
+    public ShortestPathEngine.SearchResult engine(SearchCounters counters) {
+        int i = next++ & (PAIRS - 1);
+        return counters.record(ShortestPathEngine.search(graph, sources[i], targets[i],
+                ShortestPathEngine.Algorithm.DIJKSTRA));
+    }
+
+    @Benchmark
+    public ShortestPathEngine.SearchResult astar(SearchCounters counters) {
+        int i = next++ & (PAIRS - 1);
+        return counters.record(ShortestPathEngine.search(graph, sources[i], targets[i],
+                ShortestPathEngine.Algorithm.ASTAR));
+    }
+
+    @Benchmark
+    public ShortestPathEngine.SearchResult bidirectional(SearchCounters counters) {
+        int i = next++ & (PAIRS - 1);
+        return counters.record(ShortestPathEngine.search(graph, sources[i], targets[i],
+                ShortestPathEngine.Algorithm.BIDIRECTIONAL));
+    }
+
+    @Benchmark
+    public BigDecimal legacy() {
+        int i = next++ & (PAIRS - 1);
+        return legacy.getShortestDistance(graph.cityId(sources[i]), graph.cityId(targets[i]));
+    }
+}
@@ -0,0 +1,181 @@
+package com.neurofleetx.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.neurofleetx.service.DriverScoringKernel;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Local stand-in for an OSRM server, for working offline.
+ *
+ * Answers {@code /route/v1/driving/...} and {@code /table/v1/driving/...} in
+ * OSRM's response format, using straight-line distance times a detour factor
+ * and a fixed city speed. Runs on its own port rather than as a controller so
+ * OSRM's ';'-separated coordinate paths reach it untouched.
+ *
+ * Start the app with {@code --spring.profiles.active=osrm-stub} and point
+ * {@code osrm.api.url} at {@code http://localhost:${osrm.stub.port}}.
+ */
+@Component
+@Profile("osrm-stub")
+public class OsrmStubServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OsrmStubServer.class);
+
+    private static final double DETOUR_FACTOR = 1.3;
+    private static final double SPEED_KMH = 30.0;
+    private static final int GEOMETRY_POINTS = 20;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${osrm.stub.port:5005}")
+    private int port;
+
+    private HttpServer server;
+
+    public OsrmStubServer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/route/v1/driving/", exchange -> respond(exchange, route(exchange)));
+        server.createContext("/table/v1/driving/", exchange -> respond(exchange, table(exchange)));
+        server.start();
+        logger.info("OSRM stub listening on http://localhost:{}", port);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private ObjectNode route(HttpExchange exchange) {
+        double[][] points = coordinates(exchange, "/route/v1/driving/");
+        double[] from = points[0];
+        double[] to = points[points.length - 1];
+
+        double meters = roadKm(from, to) * 1000;
+        ObjectNode route = objectMapper.createObjectNode();
+        route.put("distance", meters);
+        route.put("duration", seconds(meters / 1000));
+        route.put("weight", seconds(meters / 1000));
+        route.put("weight_name", "duration");
+
+        ObjectNode geometry = route.putObject("geometry");
+        geometry.put("type", "LineString");
+        ArrayNode line = geometry.putArray("coordinates");
+        for (int i = 0; i < GEOMETRY_POINTS; i++) {
+            double t = i / (double) (GEOMETRY_POINTS - 1);
+            line.addArray().add(from[0] + (to[0] - from[0]) * t).add(from[1] + (to[1] - from[1]) * t);
+        }
+        route.putArray("legs").addObject()
+                .put("distance", meters)
+                .put("duration", seconds(meters / 1000))
+                .put("summary", "stub")
+                .putArray("steps");
+
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("code", "Ok");
+        body.putArray("routes").add(route);
+        return body;
+    }
+
+    private ObjectNode table(HttpExchange exchange) {
+        double[][] points = coordinates(exchange, "/table/v1/driving/");
+        Map<String, String> query = query(exchange);
+        int[] sources = indexes(query.get("sources"), points.length);
+        int[] destinations = indexes(query.get("destinations"), points.length);
+
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("code", "Ok");
+        ArrayNode durations = body.putArray("durations");
+        for (int source : sources) {
+            ArrayNode row = durations.addArray();
+            for (int destination : destinations) {
+                row.add(seconds(roadKm(points[source], points[destination])));
+            }
+        }
+        return body;
+    }
+
+    private void respond(HttpExchange exchange, ObjectNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static double roadKm(double[] from, double[] to) {
+        return DriverScoringKernel.haversine(from[1], from[0], to[1], to[0]) * DETOUR_FACTOR;
+    }
+
+    private static double seconds(double km) {
+        return Math.round(km / SPEED_KMH * 36000) / 10.0;
+    }
+
+    /** {lng, lat} pairs from the ';'-separated path after {@code prefix}. */
+    private static double[][] coordinates(HttpExchange exchange, String prefix) {
+        String[] pairs = exchange.getRequestURI().getPath().substring(prefix.length()).split(";");
+        double[][] points = new double[pairs.length][];
+        for (int i = 0; i < pairs.length; i++) {
+            String[] lngLat = pairs[i].split(",");
+            points[i] = new double[] { Double.parseDouble(lngLat[0]), Double.parseDouble(lngLat[1]) };
+        }
+        return points;
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw != null) {
+            for (String param : raw.split("&")) {
+                int eq = param.indexOf('=');
+                if (eq > 0) {
+                    params.put(param.substring(0, eq),
+                            URLDecoder.decode(param.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return params;
+    }
+
+    /** OSRM index list ("0;2;5"); absent or "all" means every coordinate. */
+    private static int[] indexes(String value, int count) {
+        if (value == null || value.equals("all")) {
+            int[] all = new int[count];
+            for (int i = 0; i < count; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        String[] parts = value.split(";");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i]);
+        }
+        return result;
+    }
+}
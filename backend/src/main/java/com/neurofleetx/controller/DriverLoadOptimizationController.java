@@ -1,15 +1,17 @@
 package com.neurofleetx.controller;
 
 import com.neurofleetx.dto.DriverAssignmentDTO;
+import com.neurofleetx.dto.DriverPageDTO;
+import com.neurofleetx.service.BatchDispatchEngine;
 import com.neurofleetx.service.DriverLoadOptimizationService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -20,6 +22,7 @@ public class DriverLoadOptimizationController {
 
     private static final Logger logger = LoggerFactory.getLogger(DriverLoadOptimizationController.class);
     private final DriverLoadOptimizationService driverLoadOptimizationService;
+    private final BatchDispatchEngine batchDispatchEngine;
 
     /**
      * Find the optimal driver for a ride
@@ -52,26 +55,42 @@ public class DriverLoadOptimizationController {
     }
 
     /**
-     * Get all available drivers sorted by assignment score
-     * GET /api/driver-optimization/available
+     * Get available drivers sorted by assignment score, one page at a time
+     * GET /api/driver-optimization/available?limit=20&radiusKm=5&cursor=...
      */
     @GetMapping("/available")
-    public ResponseEntity<List<DriverAssignmentDTO>> getAvailableDrivers(
+    public ResponseEntity<?> getAvailableDrivers(
             @RequestParam(required = false) String vehicleType,
             @RequestParam Double pickupLatitude,
-            @RequestParam Double pickupLongitude) {
+            @RequestParam Double pickupLongitude,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) String cursor) {
 
-        logger.info("Getting all available drivers for vehicle type: {} at location ({}, {})",
-                vehicleType, pickupLatitude, pickupLongitude);
+        logger.info("Getting available drivers for vehicle type: {} at location ({}, {}), limit {}, radius {} km",
+                vehicleType, pickupLatitude, pickupLongitude, limit, radiusKm);
 
         try {
-            List<DriverAssignmentDTO> drivers = driverLoadOptimizationService
-                    .getAllAvailableDrivers(vehicleType, pickupLatitude, pickupLongitude);
+            DriverPageDTO page = driverLoadOptimizationService.getAvailableDriversPage(
+                    vehicleType, pickupLatitude, pickupLongitude, limit, radiusKm, cursor);
 
-            return ResponseEntity.ok(drivers);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid available drivers request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error getting available drivers: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to get available drivers: " + e.getMessage());
         }
     }
-}
+
+    /**
+     * Throughput, latency and matching quality of batched dispatch
+     * GET /api/driver-optimization/dispatch-stats
+     */
+    @GetMapping("/dispatch-stats")
+    public ResponseEntity<?> getDispatchStats() {
+        return ResponseEntity.ok(batchDispatchEngine.getStats());
+    }
+}
\ No newline at end of file
@@ -8,6 +8,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashMap;
 import java.util.List;
@@ -58,6 +59,9 @@ public class RideLifecycleController {
 
             RideLifecycleDTO ride = rideLifecycleService.driverAcceptRide(bookingId, driverId);
             return ResponseEntity.ok(ride);
+        } catch (ResponseStatusException e) {
+            log.warn("Failed to accept ride: {}", e.getReason());
+            return errorResponse(e.getStatusCode().value(), e.getReason());
         } catch (RuntimeException e) {
             log.warn("Failed to accept ride: {}", e.getMessage());
             return errorResponse(400, e.getMessage());
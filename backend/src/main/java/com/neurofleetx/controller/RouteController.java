@@ -1,11 +1,27 @@
 package com.neurofleetx.controller;
 
 import com.neurofleetx.dto.FareCalculationResult;
+import com.neurofleetx.dto.MessageResponse;
+import com.neurofleetx.dto.TravelMatrixDTO;
+import com.neurofleetx.dto.TravelMatrixRequest;
+import com.neurofleetx.service.CityDistanceTable;
 import com.neurofleetx.service.RouteService;
+import com.neurofleetx.service.ShortestPathEngine;
+import com.neurofleetx.service.TrafficProfiles;
+import com.neurofleetx.service.TravelMatrixService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/routes")
 @RequiredArgsConstructor
@@ -13,6 +29,12 @@ import org.springframework.web.bind.annotation.*;
 public class RouteController {
     
     private final RouteService routeService;
+    private final CityDistanceTable cityDistanceTable;
+    private final TravelMatrixService travelMatrixService;
+    private final TrafficProfiles trafficProfiles;
+
+    @Value("${routing.matrix.max-cells:250000}")
+    private int maxMatrixCells;
     
     @GetMapping("/fare")
     public ResponseEntity<FareCalculationResult> calculateFare(
@@ -23,4 +45,109 @@ public class RouteController {
         FareCalculationResult result = routeService.calculateFare(sourceCityId, destCityId, vehicleType);
         return ResponseEntity.ok(result);
     }
+
+    /**
+     * Shortest distance found by a chosen search, with the nodes it settled
+     * GET /api/routes/shortest-path?sourceCityId=1&destCityId=2&algorithm=ASTAR
+     * (algorithm: DIJKSTRA, ASTAR, BIDIRECTIONAL or CONTRACTION_HIERARCHY;
+     * departAt=2024-05-06T08:30 adds the drive time with traffic at that time)
+     */
+    @GetMapping("/shortest-path")
+    public ResponseEntity<?> findShortestPath(
+        @RequestParam Long sourceCityId,
+        @RequestParam Long destCityId,
+        @RequestParam(defaultValue = "DIJKSTRA") ShortestPathEngine.Algorithm algorithm,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime departAt
+    ) {
+        return ResponseEntity.ok(routeService.findShortestPath(sourceCityId, destCityId, algorithm, departAt));
+    }
+
+    /**
+     * Search counts and average settled nodes per algorithm
+     * GET /api/routes/search-stats
+     */
+    @GetMapping("/search-stats")
+    public ResponseEntity<?> getSearchStats() {
+        return ResponseEntity.ok(routeService.getSearchStats());
+    }
+
+    /**
+     * Size, memory and build timings of the precomputed city distance table
+     * GET /api/routes/distance-table
+     */
+    @GetMapping("/distance-table")
+    public ResponseEntity<?> getDistanceTableStats() {
+        return ResponseEntity.ok(cityDistanceTable.getStats());
+    }
+
+    /**
+     * Travel time and distance from every source to every destination
+     * POST /api/routes/matrix {"sources": [[lng, lat], ...], "destinations": [[lng, lat], ...]}
+     */
+    @PostMapping("/matrix")
+    @PreAuthorize("hasAnyRole('ADMIN', 'FLEET_MANAGER')")
+    public CompletableFuture<ResponseEntity<?>> getTravelMatrix(@Valid @RequestBody TravelMatrixRequest request) {
+        List<double[]> sources;
+        List<double[]> destinations;
+        try {
+            sources = toPoints(request.getSources());
+            destinations = toPoints(request.getDestinations());
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(new MessageResponse(e.getMessage())));
+        }
+        if ((long) sources.size() * destinations.size() > maxMatrixCells) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(new MessageResponse("Matrix larger than " + maxMatrixCells + " cells")));
+        }
+
+        long started = System.nanoTime();
+        return travelMatrixService.getMatrixAsync(sources, destinations)
+                .thenApply(matrix -> ResponseEntity.ok(TravelMatrixDTO.builder()
+                        .sources(matrix.sources())
+                        .destinations(matrix.destinations())
+                        .provider(matrix.provider())
+                        .durations(withUnreachable(matrix.durations()))
+                        .distances(withUnreachable(matrix.distances()))
+                        .computeMillis((System.nanoTime() - started) / 1_000_000)
+                        .build()));
+    }
+
+    /**
+     * Matrix requests per provider, OSRM chunks and fallbacks
+     * GET /api/routes/matrix/stats
+     */
+    @GetMapping("/matrix/stats")
+    public ResponseEntity<?> getTravelMatrixStats() {
+        return ResponseEntity.ok(travelMatrixService.getStats());
+    }
+
+    /**
+     * Cells, trips learned and current city-wide congestion of the traffic profiles
+     * GET /api/routes/traffic
+     */
+    @GetMapping("/traffic")
+    public ResponseEntity<?> getTrafficProfileStats() {
+        return ResponseEntity.ok(trafficProfiles.getStats());
+    }
+
+    private static List<double[]> toPoints(List<List<Double>> points) {
+        List<double[]> lngLat = new ArrayList<>(points.size());
+        for (List<Double> point : points) {
+            if (point == null || point.size() != 2 || point.get(0) == null || point.get(1) == null) {
+                throw new IllegalArgumentException("Points must be [lng, lat] pairs");
+            }
+            lngLat.add(new double[] { point.get(0), point.get(1) });
+        }
+        return lngLat;
+    }
+
+    // JSON has no NaN; unreachable pairs are sent as -1
+    private static float[] withUnreachable(float[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (Float.isNaN(values[i])) {
+                values[i] = -1f;
+            }
+        }
+        return values;
+    }
 }
@@ -2,14 +2,24 @@ package com.neurofleetx.controller;
 
 import com.neurofleetx.dto.RouteOptimizationResponse;
 import com.neurofleetx.dto.RouteRequest;
+import com.neurofleetx.service.LocalRoutingService;
+import com.neurofleetx.service.OSRMService;
+import com.neurofleetx.service.OsrmClient;
+import com.neurofleetx.service.OsrmRouteCache;
+import com.neurofleetx.service.RouteGeometryFormatter;
 import com.neurofleetx.service.RouteOptimizationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/api/routes")
 @RequiredArgsConstructor
@@ -18,59 +28,137 @@ public class RouteOptimizationController {
 
     private static final Logger logger = LoggerFactory.getLogger(RouteOptimizationController.class);
     private final RouteOptimizationService routeOptimizationService;
+    private final OsrmRouteCache osrmRouteCache;
+    private final OsrmClient osrmClient;
+    private final OSRMService osrmService;
+    private final RouteGeometryFormatter routeGeometryFormatter;
+    private final LocalRoutingService localRoutingService;
 
     /**
      * Get optimized routes with best and alternate options (GET with query params)
      * GET
      * /api/routes/optimize?pickupLat=13.0827&pickupLng=80.2707&dropLat=12.9716&dropLng=77.5946
+     *
+     * Geometry is simplified for the map zoom ({@code zoom}, optional);
+     * {@code raw=true} keeps full resolution and {@code format=polyline}
+     * returns an encoded polyline instead of coordinate arrays.
      */
     @GetMapping("/optimize")
-    public ResponseEntity<RouteOptimizationResponse> getOptimizedRoutesWithParams(
+    public CompletableFuture<ResponseEntity<RouteOptimizationResponse>> getOptimizedRoutesWithParams(
             @RequestParam("pickupLat") Double pickupLat,
             @RequestParam("pickupLng") Double pickupLng,
             @RequestParam("dropLat") Double dropLat,
-            @RequestParam("dropLng") Double dropLng) {
+            @RequestParam("dropLng") Double dropLng,
+            @RequestParam(required = false) Integer zoom,
+            @RequestParam(defaultValue = "false") boolean raw,
+            @RequestParam(defaultValue = "geojson") String format) {
 
         logger.info("Received route optimization request from ({}, {}) to ({}, {})",
                 pickupLat, pickupLng, dropLat, dropLng);
 
-        try {
-            RouteRequest request = new RouteRequest();
-            request.setPickupLatitude(pickupLat);
-            request.setPickupLongitude(pickupLng);
-            request.setDropLatitude(dropLat);
-            request.setDropLongitude(dropLng);
-
-            RouteOptimizationResponse response = routeOptimizationService
-                    .getOptimizedRoutes(request);
+        RouteRequest request = new RouteRequest();
+        request.setPickupLatitude(pickupLat);
+        request.setPickupLongitude(pickupLng);
+        request.setDropLatitude(dropLat);
+        request.setDropLongitude(dropLng);
 
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Error optimizing routes: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to optimize routes: " + e.getMessage());
-        }
+        return optimize(request, zoom, raw, format);
     }
 
     /**
      * Get optimized routes with best and alternate options (POST with JSON body)
-     * POST /api/routes/optimize
+     * POST /api/routes/optimize, with the same optional zoom, raw and format
+     * query params as GET
      */
     @PostMapping("/optimize")
-    public ResponseEntity<RouteOptimizationResponse> getOptimizedRoutes(
-            @Valid @RequestBody RouteRequest request) {
+    public CompletableFuture<ResponseEntity<RouteOptimizationResponse>> getOptimizedRoutes(
+            @Valid @RequestBody RouteRequest request,
+            @RequestParam(required = false) Integer zoom,
+            @RequestParam(defaultValue = "false") boolean raw,
+            @RequestParam(defaultValue = "geojson") String format) {
 
         logger.info("Received route optimization request from ({}, {}) to ({}, {})",
                 request.getPickupLatitude(), request.getPickupLongitude(),
                 request.getDropLatitude(), request.getDropLongitude());
 
-        try {
-            RouteOptimizationResponse response = routeOptimizationService
-                    .getOptimizedRoutes(request);
+        return optimize(request, zoom, raw, format);
+    }
 
-            return ResponseEntity.ok(response);
+    /**
+     * Runs the optimization asynchronously, so the request thread is released
+     * while OSRM answers (Spring MVC completes the response from the future)
+     */
+    private CompletableFuture<ResponseEntity<RouteOptimizationResponse>> optimize(RouteRequest request,
+            Integer zoom, boolean raw, String format) {
+        boolean polyline = "polyline".equalsIgnoreCase(format);
+        CompletableFuture<RouteOptimizationResponse> response;
+        try {
+            response = routeOptimizationService.getOptimizedRoutesAsync(request);
         } catch (Exception e) {
-            logger.error("Error optimizing routes: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to optimize routes: " + e.getMessage());
+            response = CompletableFuture.failedFuture(e);
         }
+        return response
+                .thenApply(optimized -> ResponseEntity.ok(routeGeometryFormatter.format(optimized, zoom, raw, polyline)))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    logger.error("Error optimizing routes: {}", cause.getMessage(), cause);
+                    throw new RuntimeException("Failed to optimize routes: " + cause.getMessage());
+                });
+    }
+
+    /**
+     * OSRM client circuit state, in-flight calls and refusals
+     * GET /api/routes/optimize/client
+     */
+    @GetMapping("/optimize/client")
+    public ResponseEntity<?> getOsrmClientStats() {
+        return ResponseEntity.ok(osrmClient.getStats());
+    }
+
+    /**
+     * Route requests coalesced onto another request's OSRM fetch
+     * GET /api/routes/optimize/coalescing
+     */
+    @GetMapping("/optimize/coalescing")
+    public ResponseEntity<?> getCoalescingStats() {
+        return ResponseEntity.ok(osrmService.getCoalescingStats());
+    }
+
+    /**
+     * Road graph alternatives served while OSRM is down, latency per K
+     * GET /api/routes/optimize/alternatives
+     */
+    @GetMapping("/optimize/alternatives")
+    public ResponseEntity<?> getLocalAlternativesStats() {
+        return ResponseEntity.ok(localRoutingService.getAlternativesStats());
+    }
+
+    /**
+     * OSRM route cache size, hit rate and evictions
+     * GET /api/routes/optimize/cache
+     */
+    @GetMapping("/optimize/cache")
+    public ResponseEntity<?> getRouteCacheStats() {
+        return ResponseEntity.ok(osrmRouteCache.getStats());
+    }
+
+    /**
+     * Drops cached OSRM routes starting or ending in a box (all of them
+     * without a box), e.g. after a road closure
+     * DELETE /api/routes/optimize/cache?minLat=12.9&minLng=77.5&maxLat=13.1&maxLng=77.7
+     */
+    @DeleteMapping("/optimize/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> invalidateRouteCache(
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double minLng,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double maxLng) {
+        boolean box = minLat != null && minLng != null && maxLat != null && maxLng != null;
+        int removed = box
+                ? osrmRouteCache.invalidate(minLat, minLng, maxLat, maxLng)
+                : osrmRouteCache.invalidateAll();
+        logger.info("Invalidated {} cached OSRM route(s){}", removed, box ? " in region" : "");
+        return ResponseEntity.ok(Map.of("message", "Invalidated " + removed + " cached route(s)", "removed", removed));
     }
 }
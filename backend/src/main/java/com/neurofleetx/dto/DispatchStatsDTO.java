@@ -0,0 +1,33 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchStatsDTO {
+    private boolean enabled;
+    private long windowMillis;
+    private int queued; // waiting for the next window
+
+    private long batches;
+    private long bookingsProcessed;
+    private long bookingsAssigned;
+    private double assignedPerSecond; // since the first batch
+
+    private double avgSolveMillis; // matching only
+    private double avgBatchMillis; // candidates + matching + commit
+    private double avgQueueWaitMillis; // enqueue -> commit, per booking
+    private double maxQueueWaitMillis;
+
+    // Same batches, joint matching vs first-come greedy, both as planned
+    // before the commit
+    private long bookingsMatched;
+    private double avgPickupKm;
+    private long greedyAssigned;
+    private double greedyAvgPickupKm;
+}
@@ -0,0 +1,24 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistanceTableStatsDTO {
+    private boolean enabled;
+    private boolean ready; // built for the current road graph
+    private int cities;
+    private int maxCities;
+    private long memoryBytes; // distances + predecessors
+
+    private long fullBuilds;
+    private long incrementalBuilds;
+    private double lastBuildMillis;
+    private int lastRowsRecomputed; // Dijkstra runs in the last build
+    private int lastEdgesApplied; // shortened/added routes patched in place
+}
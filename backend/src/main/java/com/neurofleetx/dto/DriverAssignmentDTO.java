@@ -15,6 +15,7 @@ public class DriverAssignmentDTO {
     private String driverEmail;
     private String driverPhone;
     private BigDecimal distanceToPickup; // in km
+    private BigDecimal etaMinutes; // road drive time to pickup, null if unknown
     private Integer activeRidesCount;
     private BigDecimal assignmentScore;
     private VehicleInfoDTO vehicle;
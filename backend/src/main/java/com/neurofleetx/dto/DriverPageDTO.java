@@ -0,0 +1,17 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DriverPageDTO {
+    private List<DriverAssignmentDTO> drivers; // best score first
+    private String nextCursor; // null on the last page
+    private Integer limit;
+    private Double radiusKm;
+}
@@ -0,0 +1,18 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocalAlternativesStatsDTO {
+    private int k; // routes asked for
+    private long searches;
+    private double avgPathsFound; // fewer than k when no more fit the stretch
+    private double avgSearchMicros;
+    private double maxSearchMicros;
+}
@@ -0,0 +1,34 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OsrmCacheStatsDTO {
+    private boolean enabled;
+    private int entries;
+    private int maxEntries;
+    private double precisionMeters; // coordinates closer than this share an entry
+    private long ttlMillis;
+
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long evictions; // least recently used entries dropped at capacity
+    private long expirations;
+    private long invalidations;
+
+    // Disk tier (osrm.cache.store.*), read on memory misses and kept across restarts
+    private boolean storeEnabled;
+    private int storeEntries;
+    private int storeSegments;
+    private long storeBytes;
+    private long storeHits;
+    private long storeAppends; // records written, tombstones included
+    private long storeCompactions;
+}
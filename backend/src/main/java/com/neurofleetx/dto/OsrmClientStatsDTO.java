@@ -0,0 +1,22 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OsrmClientStatsDTO {
+    private String circuitState; // CLOSED, OPEN or HALF_OPEN
+    private long circuitOpened; // times the breaker tripped
+    private int inFlight;
+    private int maxConcurrent;
+
+    private long calls;
+    private long failures; // timeouts, connection errors and 5xx answers
+    private long rejectedBulkhead; // refused because maxConcurrent calls were in flight
+    private long rejectedCircuitOpen;
+}
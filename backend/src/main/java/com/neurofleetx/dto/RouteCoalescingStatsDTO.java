@@ -0,0 +1,20 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteCoalescingStatsDTO {
+    private boolean enabled;
+    private int inFlight; // trips with an OSRM fetch running now
+
+    private long fetches; // OSRM route fetches started after a cache miss
+    private long coalesced; // requests that waited on another request's fetch
+    private double averageFanIn; // requests served per fetch
+    private long maxFanIn;
+}
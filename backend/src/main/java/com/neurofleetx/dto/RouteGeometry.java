@@ -0,0 +1,179 @@
+package com.neurofleetx.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable route line held as one packed {@code double[]} of interleaved
+ * longitude/latitude pairs, 16 bytes per point instead of a boxed
+ * {@code List<Double>} per point.
+ *
+ * JSON keeps the GeoJSON-style shape clients already read,
+ * {@code [[lng, lat], [lng, lat], ...]}, written and read straight from the
+ * array.
+ */
+@JsonSerialize(using = RouteGeometry.Serializer.class)
+@JsonDeserialize(using = RouteGeometry.Deserializer.class)
+public final class RouteGeometry {
+
+    private final double[] coordinates; // lng0, lat0, lng1, lat1, ...
+
+    private RouteGeometry(double[] coordinates) {
+        this.coordinates = coordinates;
+    }
+
+    /**
+     * Geometry over {@code lngLat} (interleaved pairs), which must not be
+     * modified afterwards.
+     */
+    public static RouteGeometry wrap(double[] lngLat) {
+        if (lngLat.length % 2 != 0) {
+            throw new IllegalArgumentException("Odd number of coordinates: " + lngLat.length);
+        }
+        return new RouteGeometry(lngLat);
+    }
+
+    /**
+     * Geometry from the first {@code points} pairs of {@code lngLat}, copied.
+     */
+    public static RouteGeometry copyOf(double[] lngLat, int points) {
+        return new RouteGeometry(Arrays.copyOf(lngLat, 2 * points));
+    }
+
+    /** Geometry from {@code [[lng, lat], ...]} lists. */
+    public static RouteGeometry of(List<List<Double>> points) {
+        double[] lngLat = new double[2 * points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            lngLat[2 * i] = points.get(i).get(0);
+            lngLat[2 * i + 1] = points.get(i).get(1);
+        }
+        return new RouteGeometry(lngLat);
+    }
+
+    /**
+     * Reads {@code [[lng, lat], ...]} from {@code parser}, positioned on the
+     * opening bracket, without building a tree. Leaves the parser on the
+     * closing bracket. Members after the latitude (elevation) are skipped.
+     *
+     * @throws JsonParseException when a point is not an array of two or more numbers
+     */
+    public static RouteGeometry read(JsonParser parser) throws IOException {
+        double[] lngLat = new double[256];
+        int points = 0;
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            if (token != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a [lng, lat] point, got " + token);
+            }
+            if (2 * points + 2 > lngLat.length) {
+                lngLat = Arrays.copyOf(lngLat, 2 * lngLat.length);
+            }
+            int member = 0;
+            for (token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (member < 2) {
+                    if (!token.isNumeric()) {
+                        throw new JsonParseException(parser, "Expected a coordinate, got " + token);
+                    }
+                    lngLat[2 * points + member] = parser.getDoubleValue();
+                } else {
+                    parser.skipChildren();
+                }
+                member++;
+            }
+            if (member < 2) {
+                throw new JsonParseException(parser, "Point with " + member + " coordinate(s)");
+            }
+            points++;
+        }
+        return copyOf(lngLat, points);
+    }
+
+    public int size() {
+        return coordinates.length / 2;
+    }
+
+    public double longitude(int point) {
+        return coordinates[2 * point];
+    }
+
+    public double latitude(int point) {
+        return coordinates[2 * point + 1];
+    }
+
+    /** Copy of the interleaved longitude/latitude pairs. */
+    public double[] toArray() {
+        return coordinates.clone();
+    }
+
+    /** Boxed {@code [[lng, lat], ...]} form, for callers that need lists. */
+    public List<List<Double>> toList() {
+        List<List<Double>> points = new ArrayList<>(size());
+        for (int i = 0; i < coordinates.length; i += 2) {
+            points.add(List.of(coordinates[i], coordinates[i + 1]));
+        }
+        return points;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof RouteGeometry geometry && Arrays.equals(coordinates, geometry.coordinates);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(coordinates);
+    }
+
+    @Override
+    public String toString() {
+        return "RouteGeometry(" + size() + " points)";
+    }
+
+    static final class Serializer extends StdSerializer<RouteGeometry> {
+
+        Serializer() {
+            super(RouteGeometry.class);
+        }
+
+        @Override
+        public void serialize(RouteGeometry value, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            double[] coordinates = value.coordinates;
+            generator.writeStartArray();
+            for (int i = 0; i < coordinates.length; i += 2) {
+                generator.writeStartArray();
+                generator.writeNumber(coordinates[i]);
+                generator.writeNumber(coordinates[i + 1]);
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    static final class Deserializer extends StdDeserializer<RouteGeometry> {
+
+        Deserializer() {
+            super(RouteGeometry.class);
+        }
+
+        @Override
+        public RouteGeometry deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.isExpectedStartArrayToken()) {
+                return (RouteGeometry) context.handleUnexpectedToken(RouteGeometry.class, parser);
+            }
+            return read(parser);
+        }
+    }
+}
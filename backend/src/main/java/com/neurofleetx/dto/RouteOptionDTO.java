@@ -5,7 +5,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
-import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -14,7 +13,8 @@ public class RouteOptionDTO {
     private BigDecimal distance; // in kilometers
     private BigDecimal duration; // in minutes
     private BigDecimal score;
-    private List<List<Double>> geometry; // [[lng, lat], [lng, lat], ...]
+    private RouteGeometry geometry; // packed; JSON [[lng, lat], [lng, lat], ...]
+    private String polyline; // Google encoded polyline instead of geometry, when asked for
     private String summary;
     private boolean isBestRoute;
 }
@@ -0,0 +1,19 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteSearchStatsDTO {
+    private String algorithm;
+    private long searches;
+    private long settledNodes;
+    private double avgSettledNodes;
+    private double avgSearchMicros;
+    private int graphNodes; // for comparing settled counts to graph size
+}
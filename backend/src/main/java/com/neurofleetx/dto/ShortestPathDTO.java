@@ -0,0 +1,26 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShortestPathDTO {
+    private Long sourceCityId;
+    private Long destCityId;
+    private String algorithm;
+    private BigDecimal distanceKm; // null when unreachable
+    private int settledNodes;
+    private double searchMicros;
+
+    // Only when a departure time was given
+    private LocalDateTime departAt;
+    private BigDecimal travelMinutes; // fastest drive with learned traffic; null when unreachable
+}
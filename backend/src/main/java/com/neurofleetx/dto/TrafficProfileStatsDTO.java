@@ -0,0 +1,24 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrafficProfileStatsDTO {
+    private double cellKm;
+    private int cells; // grid cells with their own profile
+    private int maxCells;
+    private int slotMinutes;
+
+    private long tripsLearned;
+    private long tripsRejected; // implausible duration or speed
+    private double citywideTypicalKmh;
+    private double citywideKmhNow;
+    private double citywideCongestionNow; // travel time now relative to typical
+    private long memoryBytes;
+}
@@ -0,0 +1,19 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TravelMatrixDTO {
+    private int sources;
+    private int destinations;
+    private String provider; // osrm or local
+    private float[] durations; // seconds, row-major [source * destinations + destination], -1 if unreachable
+    private float[] distances; // km, same layout, -1 if unreachable
+    private long computeMillis;
+}
@@ -0,0 +1,19 @@
+package com.neurofleetx.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TravelMatrixRequest {
+    @NotEmpty
+    private List<List<Double>> sources; // [[lng, lat], ...]
+
+    @NotEmpty
+    private List<List<Double>> destinations; // [[lng, lat], ...]
+}
@@ -0,0 +1,21 @@
+package com.neurofleetx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TravelMatrixStatsDTO {
+    private String provider; // tried first: osrm or local
+    private int maxCoordinatesPerRequest;
+
+    private long osrmMatrices;
+    private long localMatrices;
+    private long osrmFallbacks; // matrices recomputed locally after an OSRM block failed
+    private long osrmChunks; // table requests sent
+    private long cells;
+}
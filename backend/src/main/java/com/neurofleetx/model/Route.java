@@ -1,12 +1,15 @@
 package com.neurofleetx.model;
 
+import com.neurofleetx.service.RoadGraphListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(RoadGraphListener.class)
 @Table(name = "routes")
 @Data
 @NoArgsConstructor
@@ -27,6 +30,19 @@ public class Route {
     
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal distanceKm;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
     
     // Optional: could have specific fare logic per route, but we'll stick to distance for now
 }
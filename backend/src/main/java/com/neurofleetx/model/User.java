@@ -1,5 +1,6 @@
 package com.neurofleetx.model;
 
+import com.neurofleetx.service.DriverIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -17,7 +18,7 @@ import java.time.LocalDateTime;
 @Table(name = "users", uniqueConstraints = {
         @UniqueConstraint(columnNames = "email")
 })
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({ AuditingEntityListener.class, DriverIndexListener.class })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
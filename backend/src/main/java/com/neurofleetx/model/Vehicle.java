@@ -1,5 +1,6 @@
 package com.neurofleetx.model;
 
+import com.neurofleetx.service.DriverIndexListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "vehicles")
+@EntityListeners(DriverIndexListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -2,7 +2,10 @@ package com.neurofleetx.repository;
 
 import com.neurofleetx.model.Booking;
 import com.neurofleetx.model.Booking.BookingStatus;
+import com.neurofleetx.model.User;
+import com.neurofleetx.model.Vehicle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -113,6 +116,29 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     // DRIVER RIDE LIFECYCLE QUERIES
     // =========================
 
+    // Claim an open booking for a driver in one conditional update; returns 0
+    // when another driver got there first or the booking is no longer open
+    @Modifying(flushAutomatically = true)
+    @Query("""
+                UPDATE Booking b
+                SET b.driver = :driver,
+                    b.vehicle = :vehicle,
+                    b.status = com.neurofleetx.model.Booking.BookingStatus.ACCEPTED,
+                    b.acceptedAt = :acceptedAt,
+                    b.updatedAt = :acceptedAt,
+                    b.version = COALESCE(b.version, 0) + 1
+                WHERE b.id = :bookingId
+                AND b.status IN :claimable
+                AND b.driver IS NULL
+                AND b.vehicle IS NULL
+            """)
+    int claimForDriver(
+            @Param("bookingId") Long bookingId,
+            @Param("driver") User driver,
+            @Param("vehicle") Vehicle vehicle,
+            @Param("acceptedAt") LocalDateTime acceptedAt,
+            @Param("claimable") List<BookingStatus> claimable);
+
     @Query("""
                 SELECT b FROM Booking b
                 WHERE b.driver.id = :driverId
@@ -123,6 +149,28 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             @Param("driverId") Long driverId,
             @Param("statuses") List<Booking.BookingStatus> statuses);
 
+    // Active ride count per driver in one pass: rows of [driverId, count]
+    @Query("""
+                SELECT b.driver.id, COUNT(b) FROM Booking b
+                WHERE b.driver IS NOT NULL
+                AND b.status IN :statuses
+                GROUP BY b.driver.id
+            """)
+    List<Object[]> countActiveRidesByDriver(@Param("statuses") List<Booking.BookingStatus> statuses);
+
+    // Completed trips for traffic profiles, oldest first: rows of [startedAt,
+    // completedAt, distanceKm, pickupLat, pickupLng, dropLat, dropLng]
+    @Query("""
+                SELECT b.startedAt, b.completedAt, b.distanceKm,
+                       b.pickupLatitude, b.pickupLongitude, b.returnLatitude, b.returnLongitude
+                FROM Booking b
+                WHERE b.status = 'COMPLETED'
+                AND b.startedAt IS NOT NULL
+                AND b.completedAt >= :since
+                ORDER BY b.completedAt
+            """)
+    List<Object[]> findCompletedTrips(@Param("since") LocalDateTime since);
+
     @Query("""
                 SELECT b FROM Booking b
                 WHERE b.driver.id = :driverId
@@ -2,6 +2,7 @@ package com.neurofleetx.repository;
 
 import com.neurofleetx.model.City;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +16,13 @@ public interface CityRepository extends JpaRepository<City, Long> {
     List<City> findByIsActiveTrue();
     
     List<City> findByCountry(String country);
+
+    // Rows of [id, name, latitude, longitude] for building the road graph
+    @Query("SELECT c.id, c.name, c.latitude, c.longitude FROM City c")
+    List<Object[]> findAllNodes();
+
+    // One row of [count, max id, last updatedAt]: moves whenever a city is
+    // added, removed or saved through JPA
+    @Query("SELECT COUNT(c), MAX(c.id), MAX(c.updatedAt) FROM City c")
+    List<Object[]> findGraphMarker();
 }
@@ -2,6 +2,7 @@ package com.neurofleetx.repository;
 
 import com.neurofleetx.model.Route;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +10,13 @@ import java.util.List;
 @Repository
 public interface RouteRepository extends JpaRepository<Route, Long> {
     List<Route> findBySourceCityId(Long sourceCityId);
+
+    // Rows of [sourceCityId, destinationCityId, distanceKm] for building the road graph
+    @Query("SELECT r.sourceCity.id, r.destinationCity.id, r.distanceKm FROM Route r ORDER BY r.id")
+    List<Object[]> findAllEdges();
+
+    // One row of [count, max id, last updatedAt]: moves whenever a route is
+    // added, removed or saved through JPA
+    @Query("SELECT COUNT(r), MAX(r.id), MAX(r.updatedAt) FROM Route r")
+    List<Object[]> findGraphMarker();
 }
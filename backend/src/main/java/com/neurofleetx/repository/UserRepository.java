@@ -64,4 +64,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByRoleAndApprovalStatusWithVehicle(
             @Param("role") User.Role role,
             @Param("status") User.ApprovalStatus status);
+
+    // Batch-load dispatch candidates with their vehicles in one query
+    @Query("""
+                SELECT DISTINCT u FROM User u
+                LEFT JOIN FETCH u.vehicle
+                WHERE u.id IN :ids
+            """)
+    List<User> findByIdInWithVehicle(@Param("ids") List<Long> ids);
 }
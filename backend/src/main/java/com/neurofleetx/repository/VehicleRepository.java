@@ -3,6 +3,7 @@ package com.neurofleetx.repository;
 import com.neurofleetx.model.Vehicle;
 import com.neurofleetx.model.Vehicle.VehicleStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -82,6 +83,30 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     """)
     List<Vehicle> findTopRecommendedVehicles();
 
+    /**
+     * ✅ Claim a vehicle for a ride: AVAILABLE -> BOOKED in one conditional update.
+     * Returns 0 when the vehicle is already booked, in use or offline.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE Vehicle v
+        SET v.status = com.neurofleetx.model.Vehicle.VehicleStatus.BOOKED,
+            v.updatedAt = :now
+        WHERE v.id = :vehicleId
+        AND v.status = com.neurofleetx.model.Vehicle.VehicleStatus.AVAILABLE
+    """)
+    int claimIfAvailable(@Param("vehicleId") Long vehicleId, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE Vehicle v
+        SET v.status = com.neurofleetx.model.Vehicle.VehicleStatus.AVAILABLE,
+            v.updatedAt = :now
+        WHERE v.id = :vehicleId
+        AND v.status = com.neurofleetx.model.Vehicle.VehicleStatus.BOOKED
+    """)
+    int releaseIfBooked(@Param("vehicleId") Long vehicleId, @Param("now") LocalDateTime now);
+
     @Query("SELECT COUNT(v) FROM Vehicle v WHERE v.status = :status")
     Long countByStatus(@Param("status") VehicleStatus status);
 
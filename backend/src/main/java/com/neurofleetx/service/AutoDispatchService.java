@@ -0,0 +1,125 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.DriverAssignmentDTO;
+import com.neurofleetx.model.Booking;
+import com.neurofleetx.repository.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns the optimal driver to each new ride-hailing booking off the request
+ * thread.
+ *
+ * {@link BookingService#createBooking} commits the booking as BROADCASTED and
+ * returns; {@link DispatchQueue} then hands it here, and a bounded pool runs
+ * the driver search and claims the winner through
+ * {@link BookingService#commitDispatchAssignments}, which pushes the result to
+ * the customer on {@code /topic/customer/{id}}. If no driver is found, or the
+ * pool is saturated, the booking simply stays open for drivers to accept.
+ */
+@Service
+public class AutoDispatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutoDispatchService.class);
+
+    // A winner can be claimed by someone else between search and commit
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final DispatchQueue dispatchQueue;
+    private final DriverLoadOptimizationService driverLoadOptimizationService;
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ThreadPoolExecutor executor;
+
+    public AutoDispatchService(DispatchQueue dispatchQueue,
+            DriverLoadOptimizationService driverLoadOptimizationService,
+            BookingService bookingService,
+            BookingRepository bookingRepository,
+            @Value("${dispatch.async.threads:4}") int threads,
+            @Value("${dispatch.async.queue-capacity:1000}") int queueCapacity) {
+        this.dispatchQueue = dispatchQueue;
+        this.driverLoadOptimizationService = driverLoadOptimizationService;
+        this.bookingService = bookingService;
+        this.bookingRepository = bookingRepository;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "auto-dispatch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PostConstruct
+    public void register() {
+        dispatchQueue.setImmediateDispatcher(this::submit);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Queues a booking for assignment; never blocks the caller.
+     */
+    public void submit(DispatchQueue.PendingDispatch pending) {
+        try {
+            executor.execute(() -> dispatch(pending));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Auto-dispatch pool saturated, booking {} left open for drivers", pending.bookingId());
+        }
+    }
+
+    private void dispatch(DispatchQueue.PendingDispatch pending) {
+        try {
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                DriverAssignmentDTO optimalDriver = driverLoadOptimizationService.findOptimalDriver(
+                        pending.vehicleType(), pending.pickupLatitude(), pending.pickupLongitude());
+
+                if (optimalDriver == null) {
+                    logger.info("No eligible driver found for auto-assignment of booking {}, left broadcast",
+                            pending.bookingId());
+                    return;
+                }
+
+                List<Long> assigned = bookingService.commitDispatchAssignments(
+                        Map.of(pending.bookingId(), optimalDriver.getDriverId()));
+
+                if (!assigned.isEmpty()) {
+                    logger.info("Auto-assigned driver {} to booking {} in {} ms",
+                            optimalDriver.getDriverName(), pending.bookingId(),
+                            (System.nanoTime() - pending.enqueuedAtNanos()) / 1_000_000);
+                    return;
+                }
+
+                boolean stillOpen = bookingRepository.findById(pending.bookingId())
+                        .map(booking -> booking.getStatus() == Booking.BookingStatus.BROADCASTED
+                                && booking.getDriver() == null)
+                        .orElse(false);
+                if (!stillOpen) {
+                    return; // accepted manually or cancelled meanwhile
+                }
+                logger.debug("Driver {} was taken before booking {} could be assigned (attempt {})",
+                        optimalDriver.getDriverId(), pending.bookingId(), attempt);
+            }
+        } catch (Exception e) {
+            logger.error("Error during driver auto-assignment of booking {}: {}",
+                    pending.bookingId(), e.getMessage(), e);
+        }
+    }
+}
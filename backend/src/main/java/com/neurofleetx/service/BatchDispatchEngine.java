@@ -0,0 +1,224 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.DispatchStatsDTO;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Micro-batched global dispatch.
+ *
+ * Instead of greedily giving each new booking the best driver at that moment,
+ * bookings queued in {@link DispatchQueue} are collected for one window and
+ * assigned jointly: candidates for every booking come from
+ * {@link DriverLoadOptimizationService}, a min-cost bipartite matching picks
+ * the assignment with the lowest total score, and the result is committed in
+ * one transaction. Bookings left unmatched stay BROADCASTED so drivers can
+ * still accept them manually.
+ *
+ * Enabled with {@code dispatch.batch.enabled=true}.
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchDispatchEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchDispatchEngine.class);
+
+    private final DispatchQueue dispatchQueue;
+    private final DriverLoadOptimizationService driverLoadOptimizationService;
+    private final BookingService bookingService;
+
+    @Value("${dispatch.batch.window-ms:1000}")
+    private long windowMillis;
+
+    @Value("${dispatch.batch.max-size:200}")
+    private int maxBatchSize;
+
+    @Value("${dispatch.batch.candidates-per-booking:10}")
+    private int candidatesPerBooking;
+
+    // Running totals for getStats()
+    private long batches;
+    private long bookingsProcessed;
+    private long bookingsAssigned;
+    private long solveNanos;
+    private long batchNanos;
+    private long queueWaitNanos;
+    private long maxQueueWaitNanos;
+    private long bookingsMatched;
+    private double pickupKm;
+    private long greedyAssigned;
+    private double greedyPickupKm;
+    private long firstBatchNanos;
+
+    @Scheduled(fixedDelayString = "${dispatch.batch.window-ms:1000}")
+    public void dispatchWindow() {
+        if (!dispatchQueue.isEnabled()) {
+            return;
+        }
+
+        List<DispatchQueue.PendingDispatch> batch = dispatchQueue.drain(maxBatchSize);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            dispatch(batch);
+        } catch (Exception e) {
+            // Bookings stay BROADCASTED and can still be accepted manually
+            logger.error("Batch dispatch of {} bookings failed: {}", batch.size(), e.getMessage(), e);
+        }
+    }
+
+    private void dispatch(List<DispatchQueue.PendingDispatch> batch) {
+        long started = System.nanoTime();
+
+        // 1. Candidates per booking; columns are the union of candidate drivers
+        int rows = batch.size();
+        List<List<DriverLoadOptimizationService.DispatchCandidate>> candidates = new ArrayList<>(rows);
+        Map<Long, Integer> driverColumns = new HashMap<>();
+        List<Long> columnDrivers = new ArrayList<>();
+
+        for (DispatchQueue.PendingDispatch pending : batch) {
+            List<DriverLoadOptimizationService.DispatchCandidate> forBooking = driverLoadOptimizationService
+                    .findDispatchCandidates(pending.vehicleType(), pending.pickupLatitude(),
+                            pending.pickupLongitude(), candidatesPerBooking);
+            candidates.add(forBooking);
+            for (DriverLoadOptimizationService.DispatchCandidate candidate : forBooking) {
+                driverColumns.computeIfAbsent(candidate.driverId(), id -> {
+                    columnDrivers.add(id);
+                    return columnDrivers.size() - 1;
+                });
+            }
+        }
+
+        // 2. Cost matrix: one column per driver, non-candidates forbidden; padded
+        // with forbidden columns when there are fewer drivers than bookings
+        int driverCount = columnDrivers.size();
+        double[][] cost = new double[rows][Math.max(driverCount, rows)];
+        double[][] distance = new double[rows][driverCount];
+        for (int r = 0; r < rows; r++) {
+            Arrays.fill(cost[r], Double.POSITIVE_INFINITY);
+            for (DriverLoadOptimizationService.DispatchCandidate candidate : candidates.get(r)) {
+                int column = driverColumns.get(candidate.driverId());
+                cost[r][column] = candidate.score();
+                distance[r][column] = candidate.distanceKm();
+            }
+        }
+
+        long solveStarted = System.nanoTime();
+        int[] matched = MinCostAssignment.solve(cost);
+        long solveTook = System.nanoTime() - solveStarted;
+
+        // 3. Commit every matched pair in one transaction
+        Map<Long, Long> assignments = new LinkedHashMap<>();
+        double batchPickupKm = 0;
+        for (int r = 0; r < rows; r++) {
+            int column = matched[r];
+            if (column >= 0) {
+                assignments.put(batch.get(r).bookingId(), columnDrivers.get(column));
+                batchPickupKm += distance[r][column];
+            }
+        }
+
+        List<Long> committed = bookingService.commitDispatchAssignments(assignments);
+        long finished = System.nanoTime();
+
+        // 4. What first-come greedy would have done with the same candidates,
+        // compared with the matching as planned: the commit drops pairs lost
+        // to manual accepts, which greedy is never put through
+        double[] greedy = greedyBaseline(cost, distance, driverCount);
+
+        long batchWait = 0;
+        long batchMaxWait = 0;
+        for (DispatchQueue.PendingDispatch pending : batch) {
+            long wait = finished - pending.enqueuedAtNanos();
+            batchWait += wait;
+            batchMaxWait = Math.max(batchMaxWait, wait);
+        }
+
+        synchronized (this) {
+            if (batches == 0) {
+                firstBatchNanos = started;
+            }
+            batches++;
+            bookingsProcessed += rows;
+            bookingsAssigned += committed.size();
+            solveNanos += solveTook;
+            batchNanos += finished - started;
+            queueWaitNanos += batchWait;
+            maxQueueWaitNanos = Math.max(maxQueueWaitNanos, batchMaxWait);
+            bookingsMatched += assignments.size();
+            pickupKm += batchPickupKm;
+            greedyAssigned += (long) greedy[0];
+            greedyPickupKm += greedy[1];
+        }
+
+        logger.info("Batch dispatch: {} bookings, {} drivers, {} assigned in {} ms (solve {} ms); "
+                        + "avg pickup {} km vs greedy {} km",
+                rows, driverCount, committed.size(),
+                (finished - started) / 1_000_000, solveTook / 1_000_000,
+                String.format("%.2f", assignments.isEmpty() ? 0.0 : batchPickupKm / assignments.size()),
+                String.format("%.2f", greedy[0] == 0 ? 0.0 : greedy[1] / greedy[0]));
+    }
+
+    /**
+     * Assigns rows in arrival order, each to its cheapest driver still free.
+     *
+     * @return {assigned count, total pickup km}
+     */
+    private static double[] greedyBaseline(double[][] cost, double[][] distance, int driverCount) {
+        Set<Integer> taken = new HashSet<>();
+        double assigned = 0;
+        double totalKm = 0;
+        for (int r = 0; r < cost.length; r++) {
+            int best = -1;
+            for (int c = 0; c < driverCount; c++) {
+                if (cost[r][c] != Double.POSITIVE_INFINITY && !taken.contains(c)
+                        && (best < 0 || cost[r][c] < cost[r][best])) {
+                    best = c;
+                }
+            }
+            if (best >= 0) {
+                taken.add(best);
+                assigned++;
+                totalKm += distance[r][best];
+            }
+        }
+        return new double[] { assigned, totalKm };
+    }
+
+    public synchronized DispatchStatsDTO getStats() {
+        double elapsedSeconds = batches == 0 ? 0 : (System.nanoTime() - firstBatchNanos) / 1e9;
+
+        return DispatchStatsDTO.builder()
+                .enabled(dispatchQueue.isEnabled())
+                .windowMillis(windowMillis)
+                .queued(dispatchQueue.size())
+                .batches(batches)
+                .bookingsProcessed(bookingsProcessed)
+                .bookingsAssigned(bookingsAssigned)
+                .assignedPerSecond(elapsedSeconds > 0 ? bookingsAssigned / elapsedSeconds : 0)
+                .avgSolveMillis(batches == 0 ? 0 : solveNanos / 1e6 / batches)
+                .avgBatchMillis(batches == 0 ? 0 : batchNanos / 1e6 / batches)
+                .avgQueueWaitMillis(bookingsProcessed == 0 ? 0 : queueWaitNanos / 1e6 / bookingsProcessed)
+                .maxQueueWaitMillis(maxQueueWaitNanos / 1e6)
+                .bookingsMatched(bookingsMatched)
+                .avgPickupKm(bookingsMatched == 0 ? 0 : pickupKm / bookingsMatched)
+                .greedyAssigned(greedyAssigned)
+                .greedyAvgPickupKm(greedyAssigned == 0 ? 0 : greedyPickupKm / greedyAssigned)
+                .build();
+    }
+}
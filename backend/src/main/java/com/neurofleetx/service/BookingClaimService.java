@@ -0,0 +1,75 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.model.Booking;
+import com.neurofleetx.model.User;
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.repository.BookingRepository;
+import com.neurofleetx.repository.VehicleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * First-accept-wins claiming of a booking by a driver.
+ *
+ * The driver's vehicle and the booking are each taken with one conditional
+ * UPDATE, so competing acceptors never read-check-write: the first UPDATE to
+ * reach a row wins and every other one matches zero rows and fails fast,
+ * instead of surfacing later as an optimistic-lock exception. Because the
+ * vehicle goes AVAILABLE -> BOOKED atomically, a driver can never be
+ * double-booked across two rides either.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookingClaimService {
+
+    public enum ClaimResult {
+        CLAIMED,
+        VEHICLE_UNAVAILABLE,
+        BOOKING_TAKEN
+    }
+
+    private final BookingRepository bookingRepository;
+    private final VehicleRepository vehicleRepository;
+    private final DriverLoadTracker driverLoadTracker;
+
+    /**
+     * Claims {@code bookingId} for {@code driver} and the driver's vehicle.
+     * Nothing is changed unless the result is {@link ClaimResult#CLAIMED}.
+     *
+     * The booking must not have been loaded in the current persistence
+     * context beforehand; load it after a successful claim.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ClaimResult claim(Long bookingId, User driver, List<Booking.BookingStatus> claimable,
+            LocalDateTime acceptedAt) {
+
+        Vehicle vehicle = driver.getVehicle();
+        if (vehicle == null) {
+            return ClaimResult.VEHICLE_UNAVAILABLE;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (vehicleRepository.claimIfAvailable(vehicle.getId(), now) == 0) {
+            return ClaimResult.VEHICLE_UNAVAILABLE;
+        }
+
+        if (bookingRepository.claimForDriver(bookingId, driver, vehicle, acceptedAt, claimable) == 0) {
+            // We hold the vehicle row lock until commit, so this cannot race
+            vehicleRepository.releaseIfBooked(vehicle.getId(), now);
+            return ClaimResult.BOOKING_TAKEN;
+        }
+
+        // Bulk updates bypass entity listeners; save the managed vehicle so the
+        // driver location index sees it leave the AVAILABLE pool
+        vehicle.setStatus(Vehicle.VehicleStatus.BOOKED);
+        vehicleRepository.save(vehicle);
+        driverLoadTracker.rideAssigned(driver.getId());
+
+        return ClaimResult.CLAIMED;
+    }
+}
@@ -21,6 +21,7 @@ public class BookingExpiryScheduler {
 
     private final BookingRepository bookingRepository;
     private final VehicleRepository vehicleRepository;
+    private final DriverLoadTracker driverLoadTracker;
 
     // ✅ Runs every 10 minutes
     @Scheduled(fixedRate = 10 * 60 * 1000)
@@ -36,6 +37,10 @@ public class BookingExpiryScheduler {
         logger.info("Auto-expiring {} bookings older than 24 hours", expiredBookings.size());
 
         for (Booking b : expiredBookings) {
+            if (b.getDriver() != null && DriverLoadTracker.isActive(b.getStatus())) {
+                driverLoadTracker.rideReleased(b.getDriver().getId());
+            }
+
             // set EXPIRED
             b.setStatus(Booking.BookingStatus.EXPIRED);
             b.setCancelledAt(LocalDateTime.now());
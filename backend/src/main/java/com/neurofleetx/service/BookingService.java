@@ -4,7 +4,6 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.neurofleetx.dto.BookingDTO;
 import com.neurofleetx.dto.CreateBookingRequest;
-import com.neurofleetx.dto.DriverAssignmentDTO;
 import com.neurofleetx.dto.VehicleDTO;
 import com.neurofleetx.model.Booking;
 import com.neurofleetx.model.User;
@@ -21,6 +20,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
@@ -28,7 +29,10 @@ import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -44,7 +48,10 @@ public class BookingService {
     private final RouteService routeService;
     private final ObjectMapper objectMapper;
     private final SimpMessagingTemplate messagingTemplate;
-    private final DriverLoadOptimizationService driverLoadOptimizationService;
+    private final DriverLoadTracker driverLoadTracker;
+    private final DispatchQueue dispatchQueue;
+    private final BookingClaimService bookingClaimService;
+    private final TrafficProfiles trafficProfiles;
 
     /**
      * ✅ Create booking
@@ -225,57 +232,32 @@ public class BookingService {
                     "Database error while saving booking: " + (root != null ? root : "unknown"));
         }
 
-        // ✅ AUTO-ASSIGN OPTIMAL DRIVER for ride-hailing bookings
+        // ✅ DISPATCH: the booking commits as BROADCASTED and this request
+        // returns; driver assignment runs after commit, off this thread
+        // (AutoDispatchService, or BatchDispatchEngine in batch mode)
         if (booking.getVehicle() == null && booking.getPickupLatitude() != null
                 && booking.getPickupLongitude() != null) {
-            try {
-                logger.info("Auto-assigning optimal driver for booking {}", booking.getBookingCode());
-
-                DriverAssignmentDTO optimalDriver = driverLoadOptimizationService.findOptimalDriver(
-                        booking.getRequestedVehicleType(),
-                        booking.getPickupLatitude().doubleValue(),
-                        booking.getPickupLongitude().doubleValue());
-
-                if (optimalDriver != null) {
-                    logger.info("Auto-assigned driver {} to booking {}",
-                            optimalDriver.getDriverName(), booking.getBookingCode());
-
-                    User driver = userRepository.findById(optimalDriver.getDriverId())
-                            .orElse(null);
+            dispatchQueue.enqueue(booking);
+        }
 
-                    if (driver != null && driver.getVehicle() != null) {
-                        booking.setDriver(driver);
-                        booking.setVehicle(driver.getVehicle());
-                        booking.setStatus(Booking.BookingStatus.ACCEPTED);
-                        booking.setAcceptedAt(LocalDateTime.now());
-                        booking = bookingRepository.save(booking);
+        // ✅ Notify drivers only for ride-hailing bookings, once committed
+        if (booking.getVehicle() == null) {
+            BookingDTO dto = convertToDTO(booking);
+            String requestedVehicleType = booking.getRequestedVehicleType();
+            String customerEmail = user.getEmail();
 
-                        logger.info("Successfully auto-assigned driver {} to booking {}",
-                                driver.getName(), booking.getBookingCode());
+            afterCommit(() -> {
+                try {
+                    if (requestedVehicleType != null) {
+                        messagingTemplate.convertAndSend("/topic/driver/" + requestedVehicleType, dto);
                     }
-                } else {
-                    logger.info("No eligible driver found for auto-assignment, broadcasting to all drivers");
-                }
-            } catch (Exception e) {
-                logger.error("Error during driver auto-assignment: {}", e.getMessage(), e);
-                // Continue with normal broadcast flow if auto-assignment fails
-            }
-        }
 
-        // ✅ Notify drivers only for ride-hailing bookings
-        if (booking.getVehicle() == null || booking.getStatus() == Booking.BookingStatus.BROADCASTED) {
-            try {
-                BookingDTO dto = convertToDTO(booking);
-
-                if (booking.getRequestedVehicleType() != null) {
-                    messagingTemplate.convertAndSend("/topic/driver/" + booking.getRequestedVehicleType(), dto);
+                    messagingTemplate.convertAndSend("/topic/ride-requests", dto);
+                    messagingTemplate.convertAndSendToUser(customerEmail, "/queue/bookings", dto);
+                } catch (Exception e) {
+                    logger.warn("Failed to send booking notification: {}", e.getMessage());
                 }
-
-                messagingTemplate.convertAndSend("/topic/ride-requests", dto);
-                messagingTemplate.convertAndSendToUser(user.getEmail(), "/queue/bookings", dto);
-            } catch (Exception e) {
-                logger.warn("Failed to send booking notification: {}", e.getMessage());
-            }
+            });
         }
 
         return convertToDTO(booking);
@@ -287,17 +269,6 @@ public class BookingService {
     @Transactional
     public BookingDTO driverAcceptBooking(Long bookingId, String driverEmail, LocalDateTime clientAcceptedAt) {
 
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found"));
-
-        if (booking.getVehicle() != null) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Booking already has a vehicle assigned");
-        }
-
-        if (booking.getStatus() != Booking.BookingStatus.BROADCASTED) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Booking not available for accept");
-        }
-
         User driver = userRepository.findByEmail(driverEmail)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Driver not found"));
 
@@ -309,34 +280,24 @@ public class BookingService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Driver not eligible");
         }
 
-        if (driver.getVehicle() == null || driver.getVehicle().getStatus() != Vehicle.VehicleStatus.AVAILABLE) {
+        // claim vehicle + booking atomically; a driver already in an active
+        // ride has no AVAILABLE vehicle, so this also rules out double booking
+        LocalDateTime acceptedAt = clientAcceptedAt != null ? clientAcceptedAt : LocalDateTime.now();
+        BookingClaimService.ClaimResult claim = bookingClaimService.claim(
+                bookingId, driver, List.of(Booking.BookingStatus.BROADCASTED), acceptedAt);
+
+        if (claim == BookingClaimService.ClaimResult.VEHICLE_UNAVAILABLE) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Driver vehicle not available");
         }
-
-        // ensure driver has no active rides
-        List<Booking.BookingStatus> activeStatuses = List.of(
-                Booking.BookingStatus.CONFIRMED,
-                Booking.BookingStatus.ACCEPTED,
-                Booking.BookingStatus.ARRIVED,
-                Booking.BookingStatus.STARTED,
-                Booking.BookingStatus.IN_PROGRESS);
-
-        List<Booking> active = bookingRepository.findByDriverIdAndStatusIn(driver.getId(), activeStatuses);
-        if (!active.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Driver already in active ride");
+        if (claim == BookingClaimService.ClaimResult.BOOKING_TAKEN) {
+            if (!bookingRepository.existsById(bookingId)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found");
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Booking already accepted or no longer available");
         }
 
-        // lock
-        LocalDateTime acceptedAt = clientAcceptedAt != null ? clientAcceptedAt : LocalDateTime.now();
-        booking.setDriver(driver);
-        booking.setAcceptedAt(acceptedAt);
-        booking.setStatus(Booking.BookingStatus.ACCEPTED);
-
-        // mark vehicle booked
-        driver.getVehicle().setStatus(Vehicle.VehicleStatus.BOOKED);
-        vehicleRepository.save(driver.getVehicle());
-
-        booking = bookingRepository.save(booking);
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found"));
 
         BookingDTO dto = convertToDTO(booking);
 
@@ -347,6 +308,61 @@ public class BookingService {
         return dto;
     }
 
+    /**
+     * ✅ Commit a batch of engine-chosen assignments (bookingId -> driverId)
+     * Each booking is claimed through {@link BookingClaimService}, so one lost
+     * to a driver accepting it manually is skipped without failing the batch.
+     *
+     * @return ids of the bookings that were assigned
+     */
+    @Transactional
+    public List<Long> commitDispatchAssignments(Map<Long, Long> assignments) {
+        if (assignments.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, User> drivers = userRepository.findByIdInWithVehicle(new ArrayList<>(assignments.values()))
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        LocalDateTime acceptedAt = LocalDateTime.now();
+        List<Long> assigned = new ArrayList<>();
+
+        for (Map.Entry<Long, Long> entry : assignments.entrySet()) {
+            User driver = drivers.get(entry.getValue());
+            if (driver == null || driver.getApprovalStatus() != User.ApprovalStatus.APPROVED
+                    || driver.getVehicle() == null
+                    || driver.getVehicle().getStatus() != Vehicle.VehicleStatus.AVAILABLE) {
+                continue;
+            }
+
+            BookingClaimService.ClaimResult claim = bookingClaimService.claim(
+                    entry.getKey(), driver, List.of(Booking.BookingStatus.BROADCASTED), acceptedAt);
+            if (claim == BookingClaimService.ClaimResult.CLAIMED) {
+                assigned.add(entry.getKey()); // otherwise accepted or cancelled meanwhile
+            }
+        }
+
+        // ✅ Notify once committed, so nobody hears of an assignment that rolls back
+        for (Booking booking : bookingRepository.findAllById(assigned)) {
+            BookingDTO dto = convertToDTO(booking);
+            Long customerId = booking.getUser().getId();
+            String driverEmail = booking.getDriver().getEmail();
+
+            afterCommit(() -> {
+                try {
+                    messagingTemplate.convertAndSend("/topic/customer/" + customerId, dto);
+                    messagingTemplate.convertAndSendToUser(driverEmail, "/queue/bookings", dto);
+                    messagingTemplate.convertAndSend("/topic/bookings", dto);
+                } catch (Exception e) {
+                    logger.warn("Failed to send dispatch notification: {}", e.getMessage());
+                }
+            });
+        }
+
+        return assigned;
+    }
+
     @Transactional
     public BookingDTO markArrived(Long bookingId, String driverEmail) {
 
@@ -426,6 +442,7 @@ public class BookingService {
 
         booking.setCompletedAt(LocalDateTime.now());
         booking.setStatus(Booking.BookingStatus.COMPLETED);
+        driverLoadTracker.rideReleased(booking.getDriver().getId());
 
         // ✅ free vehicle
         if (booking.getDriver() != null && booking.getDriver().getVehicle() != null) {
@@ -435,6 +452,7 @@ public class BookingService {
         }
 
         booking = bookingRepository.save(booking);
+        trafficProfiles.recordTrip(booking);
         BookingDTO dto = convertToDTO(booking);
 
         messagingTemplate.convertAndSend("/topic/customer/" + booking.getUser().getId(), dto);
@@ -455,6 +473,10 @@ public class BookingService {
             throw new RuntimeException("Cannot cancel completed or expired booking");
         }
 
+        if (booking.getDriver() != null && DriverLoadTracker.isActive(booking.getStatus())) {
+            driverLoadTracker.rideReleased(booking.getDriver().getId());
+        }
+
         booking.setCancelledAt(LocalDateTime.now());
         booking.setCancellationReason(reason);
         booking.setCancelledBy(cancelledByRole);
@@ -537,11 +559,29 @@ public class BookingService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Runs {@code action} after the current transaction commits, or right away
+     * if there is none.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     // =========================
     // ✅ DTO Converters
     // =========================
 
-    private BookingDTO convertToDTO(Booking booking) {
+    // package-private so backend-benchmarks can measure it
+    BookingDTO convertToDTO(Booking booking) {
         return new BookingDTO(
                 booking.getId(),
                 booking.getBookingCode(),
@@ -0,0 +1,82 @@
+package com.neurofleetx.service;
+
+/**
+ * Minimal consecutive-failure circuit breaker.
+ *
+ * Closed: calls go through. After {@code failureThreshold} failures in a row
+ * it opens and calls are refused outright for {@code openMillis}. Then it is
+ * half-open: a single trial call goes through, and its outcome closes the
+ * breaker again or reopens it for another period.
+ *
+ * Callers ask {@link #tryAcquire()} before a call and report every permitted
+ * call exactly once with {@link #onSuccess()} or {@link #onFailure()}.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean trialInFlight;
+    private long timesOpened;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openMillis * 1_000_000L;
+    }
+
+    /**
+     * Whether a call may go ahead now.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAtNanos < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            default:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+            timesOpened++;
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized long timesOpened() {
+        return timesOpened;
+    }
+}
@@ -0,0 +1,310 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.DistanceTableStatsDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * All-pairs shortest distances (and predecessors) between cities, so a fare
+ * quote is an array lookup instead of a graph search.
+ *
+ * The table is computed in the background whenever {@link RoadGraphProvider}
+ * swaps in a new graph: one Dijkstra per source city, run in parallel on a
+ * dedicated fork/join pool. When only a few routes changed it is patched
+ * instead of rebuilt:
+ * <ul>
+ * <li>a route that got shorter (or is new) can only improve paths through it,
+ * so every pair is relaxed through it in O(n^2);</li>
+ * <li>a route that got longer (or was removed) only invalidates the sources
+ * whose shortest-path tree used it, and just those rows are recomputed.</li>
+ * </ul>
+ * Each build produces a new table that is swapped in whole. Lookups against a
+ * graph the table was not built for return NaN, and callers fall back to
+ * {@link ShortestPathEngine} until the table catches up.
+ *
+ * The table takes {@code 12 n^2} bytes, so it is skipped for graphs above
+ * {@code routing.table.max-cities}.
+ */
+@Component
+public class CityDistanceTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CityDistanceTable.class);
+
+    // Beyond this many shortened routes, patching costs more than rebuilding
+    private static final int MAX_PATCHED_EDGES = 32;
+
+    private final RoadGraphProvider roadGraphProvider;
+    private final boolean enabled;
+    private final int maxCities;
+    private final ForkJoinPool pool;
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "distance-table");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Latest graph not yet processed; a burst of swaps collapses into one build
+    private final AtomicReference<RoadGraph> pending = new AtomicReference<>();
+    private volatile Table table;
+    private boolean oversized;
+
+    // Build statistics, written by the coordinator thread only
+    private volatile long fullBuilds;
+    private volatile long incrementalBuilds;
+    private volatile double lastBuildMillis;
+    private volatile int lastRowsRecomputed;
+    private volatile int lastEdgesApplied;
+
+    public CityDistanceTable(RoadGraphProvider roadGraphProvider,
+            @Value("${routing.table.enabled:true}") boolean enabled,
+            @Value("${routing.table.max-cities:2000}") int maxCities,
+            @Value("${routing.table.parallelism:0}") int parallelism) {
+        this.roadGraphProvider = roadGraphProvider;
+        this.enabled = enabled;
+        this.maxCities = maxCities;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PostConstruct
+    public void register() {
+        roadGraphProvider.addGraphListener(this::graphChanged);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    /**
+     * Shortest distance between two nodes of {@code graph}: infinite when
+     * unreachable, NaN when the table is not (yet) built for this graph.
+     */
+    public double distance(RoadGraph graph, int from, int to) {
+        Table current = table;
+        if (current == null || current.graph != graph) {
+            return Double.NaN;
+        }
+        return current.distances[from * current.n + to];
+    }
+
+    /**
+     * City ids along the shortest path between two nodes of {@code graph},
+     * both ends included; null when unreachable or the table is not built for
+     * this graph.
+     */
+    public long[] path(RoadGraph graph, int from, int to) {
+        Table current = table;
+        if (current == null || current.graph != graph
+                || Double.isInfinite(current.distances[from * current.n + to])) {
+            return null;
+        }
+
+        int[] nodes = new int[current.n];
+        int length = 0;
+        for (int node = to; node != from; node = current.predecessors[from * current.n + node]) {
+            if (node < 0 || length == current.n) {
+                return null; // inconsistent chain, should not happen
+            }
+            nodes[length++] = node;
+        }
+        nodes[length++] = from;
+
+        long[] cityIds = new long[length];
+        for (int i = 0; i < length; i++) {
+            cityIds[i] = graph.cityId(nodes[length - 1 - i]);
+        }
+        return cityIds;
+    }
+
+    public DistanceTableStatsDTO getStats() {
+        Table current = table;
+        RoadGraph graph = roadGraphProvider.current();
+        return DistanceTableStatsDTO.builder()
+                .enabled(enabled)
+                .ready(current != null && current.graph == graph)
+                .cities(current != null ? current.n : 0)
+                .maxCities(maxCities)
+                .memoryBytes(current != null ? current.memoryBytes() : 0)
+                .fullBuilds(fullBuilds)
+                .incrementalBuilds(incrementalBuilds)
+                .lastBuildMillis(lastBuildMillis)
+                .lastRowsRecomputed(lastRowsRecomputed)
+                .lastEdgesApplied(lastEdgesApplied)
+                .build();
+    }
+
+    private void graphChanged(RoadGraph graph) {
+        if (enabled && pending.getAndSet(graph) == null) {
+            coordinator.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        RoadGraph graph = pending.getAndSet(null);
+        if (graph == null) {
+            return;
+        }
+        try {
+            update(graph);
+        } catch (Exception e) {
+            logger.error("Distance table build failed, lookups fall back to search: {}", e.getMessage(), e);
+        }
+    }
+
+    private void update(RoadGraph graph) {
+        int n = graph.nodeCount();
+        if (n > maxCities) {
+            if (!oversized) {
+                logger.warn("Distance table disabled: {} cities exceed routing.table.max-cities={}", n, maxCities);
+                oversized = true;
+            }
+            table = null;
+            return;
+        }
+        oversized = false;
+
+        long started = System.nanoTime();
+        Table previous = table;
+        Table next = previous != null && previous.graph.hasSameNodes(graph) ? patch(previous, graph) : null;
+        boolean patched = next != null;
+        if (patched) {
+            incrementalBuilds++;
+        } else {
+            next = build(graph);
+            fullBuilds++;
+        }
+        table = next;
+
+        lastBuildMillis = (System.nanoTime() - started) / 1e6;
+        logger.info("Distance table {}: {} cities, {} rows recomputed, {} routes patched, {} KB in {} ms",
+                patched ? "patched" : "built", n, lastRowsRecomputed, lastEdgesApplied,
+                next.memoryBytes() / 1024, Math.round(lastBuildMillis));
+    }
+
+    private Table build(RoadGraph graph) {
+        int n = graph.nodeCount();
+        double[] distances = new double[n * n];
+        int[] predecessors = new int[n * n];
+        recompute(graph, IntStream.range(0, n).toArray(), distances, predecessors);
+        lastRowsRecomputed = n;
+        lastEdgesApplied = 0;
+        return new Table(graph, n, distances, predecessors);
+    }
+
+    /**
+     * Brings {@code previous} up to date with {@code graph} (same cities), or
+     * returns null if too much changed for patching to pay off.
+     */
+    private Table patch(Table previous, RoadGraph graph) {
+        int n = previous.n;
+        RoadGraph old = previous.graph;
+        List<int[]> shortened = new ArrayList<>();
+        List<int[]> lengthened = new ArrayList<>();
+
+        for (int u = 0; u < n; u++) {
+            for (int edge = graph.firstEdge(u); edge < graph.endEdge(u); edge++) {
+                int v = graph.target(edge);
+                if (u < v) {
+                    double before = old.edgeWeight(u, v);
+                    if (Double.isNaN(before) || graph.weight(edge) < before) {
+                        shortened.add(new int[] { u, v });
+                    } else if (graph.weight(edge) > before) {
+                        lengthened.add(new int[] { u, v });
+                    }
+                }
+            }
+            for (int edge = old.firstEdge(u); edge < old.endEdge(u); edge++) {
+                int v = old.target(edge);
+                if (u < v && Double.isNaN(graph.edgeWeight(u, v))) {
+                    lengthened.add(new int[] { u, v }); // removed
+                }
+            }
+        }
+
+        if (shortened.size() > MAX_PATCHED_EDGES) {
+            return null;
+        }
+
+        // Sources whose shortest-path tree used a lengthened or removed route
+        int[] affected = IntStream.range(0, n)
+                .filter(s -> lengthened.stream().anyMatch(e ->
+                        previous.predecessors[s * n + e[1]] == e[0] || previous.predecessors[s * n + e[0]] == e[1]))
+                .toArray();
+        if (affected.length > n / 2) {
+            return null;
+        }
+
+        lastRowsRecomputed = affected.length;
+        lastEdgesApplied = shortened.size();
+        if (affected.length == 0 && shortened.isEmpty()) {
+            // Same routes (periodic resync, city renamed): keep the arrays
+            return new Table(graph, n, previous.distances, previous.predecessors);
+        }
+
+        double[] distances = previous.distances.clone();
+        int[] predecessors = previous.predecessors.clone();
+        recompute(graph, affected, distances, predecessors);
+        for (int[] edge : shortened) {
+            relaxThrough(graph, n, edge[0], edge[1], distances, predecessors);
+        }
+        return new Table(graph, n, distances, predecessors);
+    }
+
+    private void recompute(RoadGraph graph, int[] sources, double[] distances, int[] predecessors) {
+        int n = graph.nodeCount();
+        pool.submit(() -> IntStream.of(sources).parallel().forEach(source ->
+                ShortestPathEngine.shortestPathTree(graph, source, distances, predecessors, source * n)))
+                .join();
+    }
+
+    /**
+     * Shortens every pair whose path improves by using route {@code a-b}.
+     * Rows a and b are copied first because their own rows change too.
+     */
+    private void relaxThrough(RoadGraph graph, int n, int a, int b, double[] distances, int[] predecessors) {
+        double w = graph.edgeWeight(a, b);
+        double[] fromA = Arrays.copyOfRange(distances, a * n, a * n + n);
+        double[] fromB = Arrays.copyOfRange(distances, b * n, b * n + n);
+        int[] predA = Arrays.copyOfRange(predecessors, a * n, a * n + n);
+        int[] predB = Arrays.copyOfRange(predecessors, b * n, b * n + n);
+
+        pool.submit(() -> IntStream.range(0, n).parallel().forEach(s -> {
+            int row = s * n;
+            double toA = distances[row + a];
+            double toB = distances[row + b];
+            for (int t = 0; t < n; t++) {
+                double viaAB = toA + w + fromB[t];
+                if (viaAB < distances[row + t]) {
+                    distances[row + t] = viaAB;
+                    predecessors[row + t] = t == b ? a : predB[t];
+                }
+                double viaBA = toB + w + fromA[t];
+                if (viaBA < distances[row + t]) {
+                    distances[row + t] = viaBA;
+                    predecessors[row + t] = t == a ? b : predA[t];
+                }
+            }
+        })).join();
+    }
+
+    private record Table(RoadGraph graph, int n, double[] distances, int[] predecessors) {
+
+        long memoryBytes() {
+            return 12L * n * n;
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package com.neurofleetx.service;
+
+import java.util.Arrays;
+
+/**
+ * Contraction hierarchy over a {@link RoadGraph}, for point-to-point and
+ * many-to-many queries on large road networks.
+ *
+ * Preprocessing ({@link #build}) contracts nodes one at a time, least
+ * important first, adding a shortcut between two neighbours of the contracted
+ * node whenever the path through it is the only shortest one (no "witness"
+ * path around it). The result is stored as an upward graph in CSR form: for
+ * every node, its original edges and shortcuts to higher-ranked nodes, each
+ * shortcut remembering the node it bypasses so it can be unpacked.
+ *
+ * A query runs Dijkstra upward from both ends; the shortest path is the best
+ * meeting node. On road networks each side settles a few hundred nodes,
+ * against tens of thousands for a plain search. Routes are two-way, so one
+ * upward graph serves both directions. Instances are immutable and safe to
+ * share.
+ */
+public final class ContractionHierarchy {
+
+    /** Witness searches give up after this many settled nodes... */
+    private static final int CONTRACT_SETTLE_LIMIT = 500;
+    /** ...or this many when only estimating a node's priority. */
+    private static final int PRIORITY_SETTLE_LIMIT = 50;
+
+    private static final ThreadLocal<QueryScratch> SCRATCH = ThreadLocal.withInitial(QueryScratch::new);
+
+    private final RoadGraph graph;
+    private final int[] ranks;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final int[] middles;
+
+    // Also used by RoadGraphFile to restore a stored hierarchy
+    ContractionHierarchy(RoadGraph graph, int[] ranks, int[] offsets, int[] targets,
+            double[] weights, int[] middles) {
+        this.graph = graph;
+        this.ranks = ranks;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.middles = middles;
+    }
+
+    /**
+     * Contracts every node of {@code graph}. Takes seconds for tens of
+     * thousands of nodes; meant to run off the request path.
+     */
+    public static ContractionHierarchy build(RoadGraph graph) {
+        return new Contractor(graph).run();
+    }
+
+    public RoadGraph graph() {
+        return graph;
+    }
+
+    /**
+     * This hierarchy for another graph with the same routes
+     * ({@link RoadGraph#hasSameRoutes}), sharing all arrays.
+     */
+    public ContractionHierarchy withGraph(RoadGraph sameRoutes) {
+        return sameRoutes == graph ? this
+                : new ContractionHierarchy(sameRoutes, ranks, offsets, targets, weights, middles);
+    }
+
+    public int rank(int node) {
+        return ranks[node];
+    }
+
+    /** Upward edges, original and shortcuts. */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    public int shortcutCount() {
+        int count = 0;
+        for (int middle : middles) {
+            if (middle >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    public int endEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    public double weight(int edge) {
+        return weights[edge];
+    }
+
+    /** Node a shortcut bypasses, or -1 for an original route. */
+    public int middle(int edge) {
+        return middles[edge];
+    }
+
+    /** Approximate heap footprint of the hierarchy's own arrays, in bytes. */
+    public long memoryBytes() {
+        return 4L * ranks.length + 4L * offsets.length + 16L * targets.length;
+    }
+
+    /**
+     * Shortest distance between two nodes (infinite if unreachable) and the
+     * number of nodes settled by both upward searches.
+     */
+    public ShortestPathEngine.SearchResult search(int source, int target) {
+        if (source == target) {
+            return new ShortestPathEngine.SearchResult(0.0, 0);
+        }
+
+        QueryScratch scratch = SCRATCH.get().prepare(ranks.length);
+        IndexedMinHeap forwardHeap = scratch.forwardHeap;
+        IndexedMinHeap backwardHeap = scratch.backwardHeap;
+        try {
+            scratch.reachForward(source, 0.0);
+            forwardHeap.insertOrDecrease(source, 0.0);
+            scratch.reachBackward(target, 0.0);
+            backwardHeap.insertOrDecrease(target, 0.0);
+
+            double best = Double.POSITIVE_INFINITY;
+            int settled = 0;
+            // Each side stops on its own once it cannot beat the best meeting
+            while (true) {
+                boolean forwardOpen = !forwardHeap.isEmpty() && forwardHeap.peekKey() < best;
+                boolean backwardOpen = !backwardHeap.isEmpty() && backwardHeap.peekKey() < best;
+                if (!forwardOpen && !backwardOpen) {
+                    break;
+                }
+                boolean forward = forwardOpen
+                        && (!backwardOpen || forwardHeap.peekKey() <= backwardHeap.peekKey());
+
+                int u = forward ? forwardHeap.poll() : backwardHeap.poll();
+                settled++;
+                double du = forward ? scratch.forward(u) : scratch.backward(u);
+                best = Math.min(best, du + (forward ? scratch.backward(u) : scratch.forward(u)));
+
+                for (int edge = offsets[u], end = offsets[u + 1]; edge < end; edge++) {
+                    int v = targets[edge];
+                    double dv = du + weights[edge];
+                    if (forward && dv < scratch.forward(v)) {
+                        scratch.reachForward(v, dv);
+                        forwardHeap.insertOrDecrease(v, dv);
+                    } else if (!forward && dv < scratch.backward(v)) {
+                        scratch.reachBackward(v, dv);
+                        backwardHeap.insertOrDecrease(v, dv);
+                    }
+                }
+            }
+            return new ShortestPathEngine.SearchResult(best, settled);
+        } finally {
+            forwardHeap.clear();
+            backwardHeap.clear();
+        }
+    }
+
+    public double distance(int source, int target) {
+        return search(source, target).distance();
+    }
+
+    /**
+     * Distances from every source to every target ({@code result[i][j]},
+     * infinite when unreachable).
+     *
+     * One full upward search per target leaves (target, distance) entries in
+     * buckets at the nodes it reaches; one upward search per source then only
+     * has to scan the buckets of the nodes it reaches. Costs
+     * {@code |sources| + |targets|} small searches instead of their product.
+     */
+    public double[][] manyToMany(int[] sources, int[] targets) {
+        double[][] result = new double[sources.length][targets.length];
+        for (double[] row : result) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+
+        QueryScratch scratch = SCRATCH.get().prepare(ranks.length);
+        int[] bucketNodes = new int[64];
+        int[] bucketTargets = new int[64];
+        double[] bucketDistances = new double[64];
+        int entries = 0;
+
+        for (int j = 0; j < targets.length; j++) {
+            int[] reached = upwardSearch(targets[j], scratch);
+            int count = reached[0];
+            if (entries + count > bucketNodes.length) {
+                int capacity = Math.max(bucketNodes.length * 2, entries + count);
+                bucketNodes = Arrays.copyOf(bucketNodes, capacity);
+                bucketTargets = Arrays.copyOf(bucketTargets, capacity);
+                bucketDistances = Arrays.copyOf(bucketDistances, capacity);
+            }
+            for (int r = 1; r <= count; r++) {
+                int node = reached[r];
+                bucketNodes[entries] = node;
+                bucketTargets[entries] = j;
+                bucketDistances[entries] = scratch.forward(node);
+                entries++;
+            }
+            scratch.prepare(ranks.length);
+        }
+
+        // Group bucket entries by node (counting sort) for direct lookup
+        int[] bucketOffsets = new int[ranks.length + 1];
+        for (int e = 0; e < entries; e++) {
+            bucketOffsets[bucketNodes[e] + 1]++;
+        }
+        for (int node = 0; node < ranks.length; node++) {
+            bucketOffsets[node + 1] += bucketOffsets[node];
+        }
+        int[] fill = Arrays.copyOf(bucketOffsets, ranks.length);
+        int[] sortedTargets = new int[entries];
+        double[] sortedDistances = new double[entries];
+        for (int e = 0; e < entries; e++) {
+            int slot = fill[bucketNodes[e]]++;
+            sortedTargets[slot] = bucketTargets[e];
+            sortedDistances[slot] = bucketDistances[e];
+        }
+
+        for (int i = 0; i < sources.length; i++) {
+            int[] reached = upwardSearch(sources[i], scratch);
+            double[] row = result[i];
+            for (int r = 1; r <= reached[0]; r++) {
+                int node = reached[r];
+                double toNode = scratch.forward(node);
+                for (int b = bucketOffsets[node]; b < bucketOffsets[node + 1]; b++) {
+                    double total = toNode + sortedDistances[b];
+                    if (total < row[sortedTargets[b]]) {
+                        row[sortedTargets[b]] = total;
+                    }
+                }
+            }
+            scratch.prepare(ranks.length);
+        }
+        return result;
+    }
+
+    /**
+     * Full upward Dijkstra from {@code source}; distances are left in the
+     * scratch's forward slots. Returns the settled nodes, count first.
+     */
+    private int[] upwardSearch(int source, QueryScratch scratch) {
+        IndexedMinHeap heap = scratch.forwardHeap;
+        int[] settled = scratch.settled;
+        int count = 0;
+        scratch.reachForward(source, 0.0);
+        heap.insertOrDecrease(source, 0.0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (++count >= settled.length) {
+                settled = scratch.settled = Arrays.copyOf(settled, settled.length * 2);
+            }
+            settled[count] = u;
+            double du = scratch.forward(u);
+            for (int edge = offsets[u], end = offsets[u + 1]; edge < end; edge++) {
+                int v = targets[edge];
+                double dv = du + weights[edge];
+                if (dv < scratch.forward(v)) {
+                    scratch.reachForward(v, dv);
+                    heap.insertOrDecrease(v, dv);
+                }
+            }
+        }
+        settled[0] = count;
+        return settled;
+    }
+
+    /** Per-thread query state, grown to the largest hierarchy seen. */
+    private static final class QueryScratch {
+
+        private double[] forward = new double[0];
+        private double[] backward = new double[0];
+        private int[] forwardStamps = new int[0];
+        private int[] backwardStamps = new int[0];
+        private int stamp;
+        private int[] settled = new int[64];
+        private final IndexedMinHeap forwardHeap = new IndexedMinHeap(0);
+        private final IndexedMinHeap backwardHeap = new IndexedMinHeap(0);
+
+        QueryScratch prepare(int nodeCount) {
+            if (forward.length < nodeCount) {
+                forward = new double[nodeCount];
+                backward = new double[nodeCount];
+                forwardStamps = new int[nodeCount];
+                backwardStamps = new int[nodeCount];
+                stamp = 0;
+                forwardHeap.ensureCapacity(nodeCount);
+                backwardHeap.ensureCapacity(nodeCount);
+            }
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(forwardStamps, 0);
+                Arrays.fill(backwardStamps, 0);
+                stamp = 1;
+            }
+            return this;
+        }
+
+        double forward(int node) {
+            return forwardStamps[node] == stamp ? forward[node] : Double.POSITIVE_INFINITY;
+        }
+
+        void reachForward(int node, double distance) {
+            forward[node] = distance;
+            forwardStamps[node] = stamp;
+        }
+
+        double backward(int node) {
+            return backwardStamps[node] == stamp ? backward[node] : Double.POSITIVE_INFINITY;
+        }
+
+        void reachBackward(int node, double distance) {
+            backward[node] = distance;
+            backwardStamps[node] = stamp;
+        }
+    }
+
+    /**
+     * Node-by-node contraction over mutable adjacency lists. Nodes are
+     * ordered by {@link #priority}; contracting a node only changes its
+     * neighbours' priorities, which are recomputed right away.
+     */
+    private static final class Contractor {
+
+        private final RoadGraph graph;
+        private final int n;
+
+        // Adjacency of the remaining graph; entries to contracted nodes are dropped lazily
+        private final int[][] neighbours;
+        private final double[][] lengths;
+        private final int[][] bypassed;
+        private final int[] degrees;
+
+        private final boolean[] contracted;
+        private final int[] contractedNeighbours;
+        private final int[] levels;
+        private final int[] ranks;
+
+        // Upward edges collected as nodes are contracted
+        private final int[][] upTargets;
+        private final double[][] upWeights;
+        private final int[][] upMiddles;
+
+        // Witness search state
+        private final double[] witnessDistances;
+        private final int[] witnessStamps;
+        private final int[] targetStamps;
+        private int witnessStamp;
+        private final IndexedMinHeap witnessHeap;
+
+        Contractor(RoadGraph graph) {
+            this.graph = graph;
+            this.n = graph.nodeCount();
+            neighbours = new int[n][];
+            lengths = new double[n][];
+            bypassed = new int[n][];
+            degrees = new int[n];
+            for (int u = 0; u < n; u++) {
+                int degree = graph.endEdge(u) - graph.firstEdge(u);
+                neighbours[u] = new int[Math.max(4, degree)];
+                lengths[u] = new double[Math.max(4, degree)];
+                bypassed[u] = new int[Math.max(4, degree)];
+                for (int edge = graph.firstEdge(u); edge < graph.endEdge(u); edge++) {
+                    if (graph.target(edge) != u) {
+                        addOrShorten(u, graph.target(edge), graph.weight(edge), -1);
+                    }
+                }
+            }
+            contracted = new boolean[n];
+            contractedNeighbours = new int[n];
+            levels = new int[n];
+            ranks = new int[n];
+            upTargets = new int[n][];
+            upWeights = new double[n][];
+            upMiddles = new int[n][];
+            witnessDistances = new double[n];
+            witnessStamps = new int[n];
+            targetStamps = new int[n];
+            witnessHeap = new IndexedMinHeap(n);
+        }
+
+        ContractionHierarchy run() {
+            IndexedMinHeap queue = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++) {
+                queue.insertOrDecrease(v, priority(v));
+            }
+
+            int rank = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                contract(v);
+                ranks[v] = rank++;
+
+                // Only the neighbours' priorities changed
+                for (int i = 0, degree = upTargets[v].length; i < degree; i++) {
+                    int u = upTargets[v][i];
+                    queue.insertOrUpdate(u, priority(u));
+                }
+            }
+            return assemble();
+        }
+
+        /**
+         * Lower contracts first: edge difference, plus the contracted neighbours
+         * and hierarchy depth so far, which keep contraction spread out and the
+         * hierarchy shallow.
+         */
+        private double priority(int v) {
+            int remaining = compact(v);
+            int shortcuts = shortcutsFor(v, false);
+            return 2.0 * (shortcuts - remaining) + contractedNeighbours[v] + levels[v];
+        }
+
+        private void contract(int v) {
+            shortcutsFor(v, true);
+            int degree = compact(v);
+            upTargets[v] = Arrays.copyOf(neighbours[v], degree);
+            upWeights[v] = Arrays.copyOf(lengths[v], degree);
+            upMiddles[v] = Arrays.copyOf(bypassed[v], degree);
+            contracted[v] = true;
+            for (int i = 0; i < degree; i++) {
+                int u = neighbours[v][i];
+                contractedNeighbours[u]++;
+                levels[u] = Math.max(levels[u], levels[v] + 1);
+            }
+        }
+
+        /**
+         * Counts (or adds) the shortcuts contracting {@code v} needs: one per
+         * pair of remaining neighbours with no witness path avoiding v that is
+         * at most as long as the path through it. Counting uses a tighter
+         * witness search limit; a missed witness only costs an extra shortcut.
+         */
+        private int shortcutsFor(int v, boolean add) {
+            int degree = compact(v);
+            int[] vNeighbours = Arrays.copyOf(neighbours[v], degree);
+            double[] vLengths = Arrays.copyOf(lengths[v], degree);
+            double maxOut = 0;
+            for (int i = 0; i < degree; i++) {
+                maxOut = Math.max(maxOut, vLengths[i]);
+            }
+
+            int shortcuts = 0;
+            // Each unordered pair once: the targets are the neighbours after u
+            for (int i = 0; i + 1 < degree; i++) {
+                int u = vNeighbours[i];
+                witnessSearch(u, v, vLengths[i] + maxOut, vNeighbours, i + 1, degree,
+                        add ? CONTRACT_SETTLE_LIMIT : PRIORITY_SETTLE_LIMIT);
+                for (int j = i + 1; j < degree; j++) {
+                    int w = vNeighbours[j];
+                    double via = vLengths[i] + vLengths[j];
+                    if (witness(w) > via) {
+                        shortcuts++;
+                        if (add) {
+                            addOrShorten(u, w, via, v);
+                            addOrShorten(w, u, via, v);
+                        }
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        /**
+         * Bounded Dijkstra from {@code source} over remaining nodes other than
+         * {@code excluded}, stopping once {@code targets[from..to)} are settled,
+         * the frontier passes {@code limit} or {@code settleLimit} nodes are settled.
+         */
+        private void witnessSearch(int source, int excluded, double limit,
+                int[] targets, int from, int to, int settleLimit) {
+            if (++witnessStamp == Integer.MAX_VALUE) {
+                Arrays.fill(witnessStamps, 0);
+                Arrays.fill(targetStamps, 0);
+                witnessStamp = 1;
+            }
+            for (int t = from; t < to; t++) {
+                targetStamps[targets[t]] = witnessStamp;
+            }
+            int targetsLeft = to - from;
+
+            witnessHeap.clear();
+            witnessDistances[source] = 0.0;
+            witnessStamps[source] = witnessStamp;
+            witnessHeap.insertOrDecrease(source, 0.0);
+
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && settled++ < settleLimit && witnessHeap.peekKey() <= limit) {
+                int u = witnessHeap.poll();
+                if (targetStamps[u] == witnessStamp && --targetsLeft == 0) {
+                    break;
+                }
+                double du = witnessDistances[u];
+                for (int i = 0, degree = degrees[u]; i < degree; i++) {
+                    int x = neighbours[u][i];
+                    if (x == excluded || contracted[x]) {
+                        continue;
+                    }
+                    double dx = du + lengths[u][i];
+                    if (dx < witness(x)) {
+                        witnessDistances[x] = dx;
+                        witnessStamps[x] = witnessStamp;
+                        witnessHeap.insertOrDecrease(x, dx);
+                    }
+                }
+            }
+            witnessHeap.clear();
+        }
+
+        private double witness(int node) {
+            return witnessStamps[node] == witnessStamp ? witnessDistances[node] : Double.POSITIVE_INFINITY;
+        }
+
+        /** Drops entries to contracted nodes; returns the remaining degree. */
+        private int compact(int u) {
+            int kept = 0;
+            for (int i = 0; i < degrees[u]; i++) {
+                if (!contracted[neighbours[u][i]]) {
+                    neighbours[u][kept] = neighbours[u][i];
+                    lengths[u][kept] = lengths[u][i];
+                    bypassed[u][kept] = bypassed[u][i];
+                    kept++;
+                }
+            }
+            degrees[u] = kept;
+            return kept;
+        }
+
+        private void addOrShorten(int u, int w, double length, int middle) {
+            for (int i = 0; i < degrees[u]; i++) {
+                if (neighbours[u][i] == w) {
+                    if (length < lengths[u][i]) {
+                        lengths[u][i] = length;
+                        bypassed[u][i] = middle;
+                    }
+                    return;
+                }
+            }
+            if (degrees[u] == neighbours[u].length) {
+                int capacity = neighbours[u].length * 2;
+                neighbours[u] = Arrays.copyOf(neighbours[u], capacity);
+                lengths[u] = Arrays.copyOf(lengths[u], capacity);
+                bypassed[u] = Arrays.copyOf(bypassed[u], capacity);
+            }
+            neighbours[u][degrees[u]] = w;
+            lengths[u][degrees[u]] = length;
+            bypassed[u][degrees[u]] = middle;
+            degrees[u]++;
+        }
+
+        private ContractionHierarchy assemble() {
+            int[] offsets = new int[n + 1];
+            for (int u = 0; u < n; u++) {
+                offsets[u + 1] = offsets[u] + upTargets[u].length;
+            }
+            int[] targets = new int[offsets[n]];
+            double[] weights = new double[offsets[n]];
+            int[] middles = new int[offsets[n]];
+            for (int u = 0; u < n; u++) {
+                System.arraycopy(upTargets[u], 0, targets, offsets[u], upTargets[u].length);
+                System.arraycopy(upWeights[u], 0, weights, offsets[u], upWeights[u].length);
+                System.arraycopy(upMiddles[u], 0, middles, offsets[u], upMiddles[u].length);
+            }
+            return new ContractionHierarchy(graph, ranks, offsets, targets, weights, middles);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.neurofleetx.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps a {@link ContractionHierarchy} for the current {@link RoadGraph}.
+ *
+ * Preprocessing runs on a background thread each time
+ * {@link RoadGraphProvider} swaps in a graph with at least
+ * {@code routing.ch.min-cities} cities; smaller graphs are served well enough
+ * by {@link CityDistanceTable} and plain search. Until the hierarchy for the
+ * current graph is ready, {@link #get} returns null and callers fall back to
+ * {@link ShortestPathEngine}. A graph with the same routes as the previous
+ * one, or as the one saved by {@link RoadGraphStore}, reuses that hierarchy.
+ */
+@Component
+public class ContractionHierarchyProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContractionHierarchyProvider.class);
+
+    private final RoadGraphProvider roadGraphProvider;
+    private final RoadGraphStore graphStore;
+    private final boolean enabled;
+    private final int minCities;
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "contraction-hierarchy");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Latest graph not yet processed; a burst of swaps collapses into one build
+    private final AtomicReference<RoadGraph> pending = new AtomicReference<>();
+    private volatile ContractionHierarchy hierarchy;
+
+    public ContractionHierarchyProvider(RoadGraphProvider roadGraphProvider, RoadGraphStore graphStore,
+            @Value("${routing.ch.enabled:true}") boolean enabled,
+            @Value("${routing.ch.min-cities:1000}") int minCities) {
+        this.roadGraphProvider = roadGraphProvider;
+        this.graphStore = graphStore;
+        this.enabled = enabled;
+        this.minCities = minCities;
+    }
+
+    @PostConstruct
+    public void register() {
+        roadGraphProvider.addGraphListener(this::graphChanged);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * The hierarchy built for {@code graph}, or null if there is none (yet).
+     */
+    public ContractionHierarchy get(RoadGraph graph) {
+        ContractionHierarchy current = hierarchy;
+        return current != null && current.graph() == graph ? current : null;
+    }
+
+    private void graphChanged(RoadGraph graph) {
+        if (enabled && pending.getAndSet(graph) == null) {
+            builder.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        RoadGraph graph = pending.getAndSet(null);
+        if (graph == null) {
+            return;
+        }
+        if (graph.nodeCount() < minCities) {
+            hierarchy = null;
+            return;
+        }
+        ContractionHierarchy reused = reusable(graph);
+        if (reused != null) {
+            hierarchy = reused;
+            return;
+        }
+        try {
+            long started = System.nanoTime();
+            ContractionHierarchy built = ContractionHierarchy.build(graph);
+            hierarchy = built;
+            logger.info("Contraction hierarchy built: {} cities, {} upward edges ({} shortcuts), ~{} KB in {} ms",
+                    graph.nodeCount(), built.edgeCount(), built.shortcutCount(), built.memoryBytes() / 1024,
+                    (System.nanoTime() - started) / 1_000_000);
+            graphStore.saveHierarchy(built);
+        } catch (Exception e) {
+            logger.error("Contraction hierarchy build failed, routing falls back to search: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The current or stored hierarchy when {@code graph} has the same routes
+     * (a periodic resync, or the graph mapped from file at startup).
+     */
+    private ContractionHierarchy reusable(RoadGraph graph) {
+        ContractionHierarchy current = hierarchy;
+        if (current != null && current.graph().hasSameRoutes(graph)) {
+            return current.withGraph(graph);
+        }
+        return graphStore.hierarchyFor(graph);
+    }
+}
@@ -0,0 +1,98 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.model.Booking;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hand-off between booking creation and dispatch, so driver assignment never
+ * runs inside the booking-creation transaction. When batch dispatch is
+ * enabled, new ride-hailing bookings are queued here for
+ * {@link BatchDispatchEngine}; otherwise each one is passed straight to the
+ * immediate dispatcher ({@link AutoDispatchService}) once the booking commits.
+ */
+@Component
+public class DispatchQueue {
+
+    @Value("${dispatch.batch.enabled:false}")
+    private boolean enabled;
+
+    private final Queue<PendingDispatch> queue = new ConcurrentLinkedQueue<>();
+
+    private volatile Consumer<PendingDispatch> immediateDispatcher;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Registers the consumer for bookings dispatched one at a time (batch
+     * dispatch disabled).
+     */
+    public void setImmediateDispatcher(Consumer<PendingDispatch> immediateDispatcher) {
+        this.immediateDispatcher = immediateDispatcher;
+    }
+
+    /**
+     * Hands a BROADCASTED booking to dispatch once the surrounding transaction
+     * commits, so dispatch never sees a booking that was rolled back.
+     */
+    public void enqueue(Booking booking) {
+        PendingDispatch pending = new PendingDispatch(
+                booking.getId(),
+                booking.getRequestedVehicleType(),
+                booking.getPickupLatitude().doubleValue(),
+                booking.getPickupLongitude().doubleValue(),
+                System.nanoTime());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(pending);
+                }
+            });
+        } else {
+            dispatch(pending);
+        }
+    }
+
+    private void dispatch(PendingDispatch pending) {
+        Consumer<PendingDispatch> dispatcher = immediateDispatcher;
+        if (enabled) {
+            queue.add(pending);
+        } else if (dispatcher != null) {
+            dispatcher.accept(pending);
+        }
+        // else: no dispatcher, the booking stays open for drivers to accept
+    }
+
+    public List<PendingDispatch> drain(int max) {
+        List<PendingDispatch> batch = new ArrayList<>();
+        PendingDispatch next;
+        while (batch.size() < max && (next = queue.poll()) != null) {
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public record PendingDispatch(
+            long bookingId,
+            String vehicleType,
+            double pickupLatitude,
+            double pickupLongitude,
+            long enqueuedAtNanos) {
+    }
+}
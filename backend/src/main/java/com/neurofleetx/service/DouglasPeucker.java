@@ -0,0 +1,120 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.RouteGeometry;
+
+/**
+ * Douglas–Peucker line simplification for route geometry.
+ *
+ * Keeps the end points, then recursively the point farthest from the chord
+ * of each span while it is farther than the tolerance, so no dropped point
+ * lies more than the tolerance from the simplified line. Distances are taken
+ * in metres on an equirectangular projection around the route's mean
+ * latitude, which is far more precise than any on-screen tolerance at route
+ * scale. The recursion runs on an explicit stack, so long routes cannot
+ * overflow the thread stack.
+ */
+public final class DouglasPeucker {
+
+    /** Ground resolution of a 256-pixel web map tile at zoom 0 on the equator. */
+    private static final double METERS_PER_PIXEL_ZOOM_0 = 156_543.033_92;
+
+    private static final double METERS_PER_DEGREE = DriverScoringKernel.EARTH_RADIUS_KM * 1000 * Math.PI / 180;
+
+    private DouglasPeucker() {
+    }
+
+    /**
+     * Tolerance in metres equal to {@code pixels} on a web map at
+     * {@code zoom} and {@code latitude}.
+     */
+    public static double toleranceMeters(double zoom, double latitude, double pixels) {
+        return pixels * METERS_PER_PIXEL_ZOOM_0 * Math.cos(Math.toRadians(latitude)) / Math.pow(2, zoom);
+    }
+
+    /**
+     * {@code geometry} without the points that lie within
+     * {@code toleranceMeters} of the simplified line; {@code geometry}
+     * itself when nothing can be dropped.
+     */
+    public static RouteGeometry simplify(RouteGeometry geometry, double toleranceMeters) {
+        int n = geometry.size();
+        if (n <= 2 || !(toleranceMeters > 0)) {
+            return geometry;
+        }
+
+        double meanLatitude = 0;
+        for (int i = 0; i < n; i++) {
+            meanLatitude += geometry.latitude(i) / n;
+        }
+        double metersPerDegreeLng = METERS_PER_DEGREE * Math.cos(Math.toRadians(meanLatitude));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = (geometry.longitude(i) - geometry.longitude(0)) * metersPerDegreeLng;
+            y[i] = (geometry.latitude(i) - geometry.latitude(0)) * METERS_PER_DEGREE;
+        }
+
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+        int kept = 2;
+        double toleranceSquared = toleranceMeters * toleranceMeters;
+
+        // Spans on the stack are disjoint, so there are never more than n - 1
+        int[] stack = new int[2 * n];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+
+            int farthest = -1;
+            double farthestSquared = toleranceSquared;
+            for (int i = first + 1; i < last; i++) {
+                double distanceSquared = segmentDistanceSquared(x[i], y[i], x[first], y[first], x[last], y[last]);
+                if (distanceSquared > farthestSquared) {
+                    farthest = i;
+                    farthestSquared = distanceSquared;
+                }
+            }
+            if (farthest < 0) {
+                continue;
+            }
+
+            keep[farthest] = true;
+            kept++;
+            if (farthest - first > 1) {
+                stack[top++] = first;
+                stack[top++] = farthest;
+            }
+            if (last - farthest > 1) {
+                stack[top++] = farthest;
+                stack[top++] = last;
+            }
+        }
+
+        if (kept == n) {
+            return geometry;
+        }
+        double[] lngLat = new double[2 * kept];
+        for (int i = 0, j = 0; i < n; i++) {
+            if (keep[i]) {
+                lngLat[j++] = geometry.longitude(i);
+                lngLat[j++] = geometry.latitude(i);
+            }
+        }
+        return RouteGeometry.wrap(lngLat);
+    }
+
+    private static double segmentDistanceSquared(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared > 0 ? ((px - ax) * dx + (py - ay) * dy) / lengthSquared : 0;
+        t = Math.max(0, Math.min(1, t));
+        double ex = ax + t * dx - px;
+        double ey = ay + t * dy - py;
+        return ex * ex + ey * ey;
+    }
+}
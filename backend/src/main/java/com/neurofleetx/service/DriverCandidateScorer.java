@@ -0,0 +1,135 @@
+package com.neurofleetx.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scores a {@link DriverSnapshot} and selects the best {@code k} candidates.
+ *
+ * Small snapshots are scored sequentially on the calling thread. Above
+ * {@code dispatch.scoring.parallel-threshold} candidates (dense cities), the
+ * snapshot is split into chunks scored on a dedicated fork/join pool, each
+ * chunk keeps its own top-K heap, and the heaps are merged on the way back up.
+ * The pool is separate from the common pool so dispatch never competes with
+ * parallel streams elsewhere in the app.
+ */
+@Component
+public class DriverCandidateScorer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverCandidateScorer.class);
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private final int chunkSize;
+
+    public DriverCandidateScorer(
+            @Value("${dispatch.scoring.parallelism:0}") int parallelism,
+            @Value("${dispatch.scoring.parallel-threshold:20000}") int parallelThreshold,
+            @Value("${dispatch.scoring.chunk-size:4096}") int chunkSize) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads);
+        this.parallelThreshold = parallelThreshold;
+        this.chunkSize = Math.max(1, chunkSize);
+        logger.info("Driver scoring pool: {} threads, parallel above {} candidates", threads, parallelThreshold);
+    }
+
+    /**
+     * Scores every candidate into {@code scores} and returns the indices of the
+     * best {@code k}, best first. Only candidates ranked strictly after
+     * ({@code afterScore}, {@code afterDriverId}) are selected; pass
+     * {@code Double.NEGATIVE_INFINITY} to select from the start.
+     */
+    public int[] scoreAndSelect(DriverSnapshot snapshot, double pickupLat, double pickupLng,
+            byte type, double maxRadiusKm, int k, double afterScore, long afterDriverId,
+            double[] scores) {
+
+        // Below the threshold one chunk covers the whole snapshot
+        boolean parallel = snapshot.size() > parallelThreshold;
+        Chunk task = new Chunk(snapshot, 0, snapshot.size(), pickupLat, pickupLng, type, maxRadiusKm,
+                k, afterScore, afterDriverId, scores, parallel ? chunkSize : Integer.MAX_VALUE);
+
+        TopKSelector selected = parallel ? pool.invoke(task) : task.compute();
+        return selected.drainAscending();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Scores {@code [from, to)}, splitting in halves until a range fits in one chunk.
+     */
+    private static final class Chunk extends RecursiveTask<TopKSelector> {
+
+        private final DriverSnapshot snapshot;
+        private final int from;
+        private final int to;
+        private final double pickupLat;
+        private final double pickupLng;
+        private final byte type;
+        private final double maxRadiusKm;
+        private final int k;
+        private final double afterScore;
+        private final long afterDriverId;
+        private final double[] scores;
+        private final int chunkSize;
+
+        Chunk(DriverSnapshot snapshot, int from, int to, double pickupLat, double pickupLng,
+                byte type, double maxRadiusKm, int k, double afterScore, long afterDriverId,
+                double[] scores, int chunkSize) {
+            this.snapshot = snapshot;
+            this.from = from;
+            this.to = to;
+            this.pickupLat = pickupLat;
+            this.pickupLng = pickupLng;
+            this.type = type;
+            this.maxRadiusKm = maxRadiusKm;
+            this.k = k;
+            this.afterScore = afterScore;
+            this.afterDriverId = afterDriverId;
+            this.scores = scores;
+            this.chunkSize = chunkSize;
+        }
+
+        private Chunk split(int splitFrom, int splitTo) {
+            return new Chunk(snapshot, splitFrom, splitTo, pickupLat, pickupLng, type, maxRadiusKm,
+                    k, afterScore, afterDriverId, scores, chunkSize);
+        }
+
+        @Override
+        protected TopKSelector compute() {
+            if (to - from > chunkSize) {
+                int mid = (from + to) >>> 1;
+                Chunk left = split(from, mid);
+                left.fork();
+                TopKSelector merged = split(mid, to).compute();
+                merged.merge(left.join());
+                return merged;
+            }
+
+            // Each chunk writes a disjoint range of scores
+            DriverScoringKernel.score(snapshot, from, to, pickupLat, pickupLng, type, maxRadiusKm, scores);
+
+            TopKSelector selector = new TopKSelector(k);
+            for (int i = from; i < to; i++) {
+                double score = scores[i];
+                if (score == DriverScoringKernel.REJECTED) {
+                    continue;
+                }
+                long driverId = snapshot.driverId(i);
+                if (score < afterScore || (score == afterScore && driverId <= afterDriverId)) {
+                    continue;
+                }
+                selector.offer(i, score, driverId);
+            }
+            return selector;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.neurofleetx.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Road drive times from candidate drivers to a pickup, used to re-rank the
+ * best straight-line candidates in {@link DriverLoadOptimizationService}.
+ *
+ * Haversine scoring is only a pre-filter: a driver just across a river can
+ * beat one two minutes away by road. For the top few candidates, drive times
+ * to the pickup come from one OSRM table request (many sources, one
+ * destination), and each driver's ETA to a pickup cell is cached briefly so
+ * back-to-back bookings from the same area do not ask again.
+ *
+ * With {@code dispatch.eta.provider=local} drive times come from
+ * {@link LocalRoutingService} when it can answer, and from OSRM otherwise.
+ *
+ * ETAs are turned into the same units as the haversine score (km) at
+ * {@link #REFERENCE_SPEED_KMH}, so re-ranked scores read like plain ones;
+ * candidates left without an ETA are still ranked after those with one.
+ * When OSRM is unavailable the haversine ranking is kept as is.
+ */
+@Service
+@RequiredArgsConstructor
+public class DriverEtaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverEtaService.class);
+
+    /** Speed at which one km of score equals the drive time. */
+    public static final double REFERENCE_SPEED_KMH = 30.0;
+
+    private final OSRMService osrmService;
+    private final LocalRoutingService localRoutingService;
+
+    @Value("${dispatch.eta.enabled:true}")
+    private boolean enabled;
+
+    @Value("${dispatch.eta.candidates:10}")
+    private int candidateCount;
+
+    @Value("${dispatch.eta.cache-ttl-ms:30000}")
+    private long cacheTtlMillis;
+
+    @Value("${dispatch.eta.cell-size-deg:0.005}")
+    private double cellSizeDeg;
+
+    // "local" asks LocalRoutingService first and OSRM only when it cannot answer
+    @Value("${dispatch.eta.provider:osrm}")
+    private String provider;
+
+    private final Map<EtaKey, CachedEta> cache = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** How many of the best haversine candidates are worth a drive-time lookup. */
+    public int getCandidateCount() {
+        return candidateCount;
+    }
+
+    /**
+     * Road drive times to the pickup for {@code candidates} (snapshot indices).
+     * Candidates without a known position or unreachable by road get NaN.
+     *
+     * @return seconds per candidate, aligned with {@code candidates}, or null
+     *         when disabled or OSRM gave no answer at all
+     */
+    public double[] etaSeconds(DriverSnapshot snapshot, int[] candidates,
+            double pickupLatitude, double pickupLongitude) {
+        if (!enabled || candidates.length == 0) {
+            return null;
+        }
+
+        long cell = cellOf(pickupLatitude, pickupLongitude);
+        long now = System.nanoTime();
+
+        double[] etas = new double[candidates.length];
+        Arrays.fill(etas, Double.NaN);
+
+        List<Integer> misses = new ArrayList<>();
+        List<double[]> sources = new ArrayList<>();
+        for (int c = 0; c < candidates.length; c++) {
+            int i = candidates[c];
+            if (Double.isNaN(snapshot.latitude(i))) {
+                continue;
+            }
+            CachedEta cached = cache.get(new EtaKey(snapshot.driverId(i), cell));
+            if (cached != null && cached.expiresAtNanos() > now) {
+                etas[c] = cached.seconds();
+            } else {
+                misses.add(c);
+                sources.add(new double[] { snapshot.longitude(i), snapshot.latitude(i) });
+            }
+        }
+
+        if (misses.isEmpty()) {
+            return etas;
+        }
+
+        double[] fetched = "local".equalsIgnoreCase(provider)
+                ? localRoutingService.getDurationsTo(sources, pickupLongitude, pickupLatitude)
+                : null;
+        String source = "local road graph";
+        if (fetched == null) {
+            fetched = osrmService.getDurationsTo(sources, pickupLongitude, pickupLatitude);
+            source = "OSRM";
+        }
+        if (fetched == null) {
+            return misses.size() == candidates.length ? null : etas;
+        }
+
+        long expiresAt = now + cacheTtlMillis * 1_000_000L;
+        for (int m = 0; m < misses.size(); m++) {
+            int c = misses.get(m);
+            etas[c] = fetched[m];
+            if (!Double.isNaN(fetched[m])) {
+                cache.put(new EtaKey(snapshot.driverId(candidates[c]), cell), new CachedEta(fetched[m], expiresAt));
+            }
+        }
+
+        logger.debug("ETA lookup: {} candidates, {} from {}", candidates.length, misses.size(), source);
+        return etas;
+    }
+
+    /**
+     * Score for a driver {@code etaSeconds} away by road with {@code load} active rides.
+     */
+    public static double toScore(double etaSeconds, int load) {
+        return etaSeconds / 3600.0 * REFERENCE_SPEED_KMH + load * DriverScoringKernel.LOAD_PENALTY;
+    }
+
+    @Scheduled(fixedDelayString = "${dispatch.eta.cache-ttl-ms:30000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        cache.values().removeIf(cached -> cached.expiresAtNanos() <= now);
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        long row = (long) Math.floor(latitude / cellSizeDeg);
+        long col = (long) Math.floor(longitude / cellSizeDeg);
+        return (row << 32) ^ (col & 0xffffffffL);
+    }
+
+    private record EtaKey(long driverId, long cell) {
+    }
+
+    private record CachedEta(double seconds, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.model.User;
+import com.neurofleetx.model.Vehicle;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that mirrors driver and vehicle writes into the
+ * {@link DriverLocationIndex}. Registered on {@link User} and {@link Vehicle};
+ * Hibernate resolves it through Spring so the index is injected.
+ */
+@Component
+@RequiredArgsConstructor
+public class DriverIndexListener {
+
+    private final DriverLocationIndex driverLocationIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        if (entity instanceof Vehicle vehicle) {
+            driverLocationIndex.updateVehicle(vehicle);
+        } else if (entity instanceof User user && user.getRole() == User.Role.DRIVER) {
+            // Pick up the vehicle state too when it is already loaded, so a newly
+            // linked vehicle is indexed even if its own row did not change
+            if (user.getVehicle() != null && Hibernate.isInitialized(user.getVehicle())) {
+                driverLocationIndex.updateVehicle(user.getVehicle());
+            }
+            driverLocationIndex.updateDriver(user);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Vehicle vehicle) {
+            driverLocationIndex.removeVehicle(vehicle.getId());
+        } else if (entity instanceof User user) {
+            driverLocationIndex.removeDriver(user.getId());
+        }
+    }
+}
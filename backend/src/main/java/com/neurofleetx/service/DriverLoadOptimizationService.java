@@ -1,21 +1,28 @@
 package com.neurofleetx.service;
 
 import com.neurofleetx.dto.DriverAssignmentDTO;
-import com.neurofleetx.model.Booking;
+import com.neurofleetx.dto.DriverPageDTO;
 import com.neurofleetx.model.User;
 import com.neurofleetx.model.Vehicle;
-import com.neurofleetx.repository.BookingRepository;
 import com.neurofleetx.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,14 +31,49 @@ public class DriverLoadOptimizationService {
 
     private static final Logger logger = LoggerFactory.getLogger(DriverLoadOptimizationService.class);
     private final UserRepository userRepository;
-    private final BookingRepository bookingRepository;
+    private final DriverLocationIndex driverLocationIndex;
+    private final DriverLoadTracker driverLoadTracker;
+    private final DriverCandidateScorer driverCandidateScorer;
+    private final DriverEtaService driverEtaService;
+
+    // Winners that fail the database re-check are skipped; give up after this many
+    private static final int MAX_WINNER_ATTEMPTS = 5;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Value("${dispatch.candidates.k:20}")
+    private int candidateCount;
+
+    @Value("${dispatch.candidates.max-radius-km:30}")
+    private double maxSearchRadiusKm;
+
+    /**
+     * Seeds the driver location index from the database once at startup.
+     * After this, the index is kept current by {@link DriverIndexListener}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildDriverIndex() {
+        driverLocationIndex.clear();
+
+        List<User> drivers = userRepository.findByRoleWithVehicle(User.Role.DRIVER);
+        for (User driver : drivers) {
+            if (driver.getVehicle() != null) {
+                driverLocationIndex.updateVehicle(driver.getVehicle());
+            }
+            driverLocationIndex.updateDriver(driver);
+        }
+
+        logger.info("Driver location index built: {} drivers loaded, {} available",
+                drivers.size(), driverLocationIndex.size());
+    }
 
     /**
      * Finds the best driver for a ride based on:
      * 1. Driver approval status (must be APPROVED)
      * 2. Vehicle type match
      * 3. Driver online status (is active)
-     * 4. Distance to pickup
+     * 4. Distance to pickup (road drive time for the closest few)
      * 5. Current active rides count
      * 
      * Score calculation: distance + (activeRides * 2)
@@ -45,91 +87,261 @@ public class DriverLoadOptimizationService {
         logger.info("Finding optimal driver for vehicle type: {} at location ({}, {})",
                 requestedVehicleType, pickupLatitude, pickupLongitude);
 
-        // Step 1: Fetch all eligible drivers
-        List<User> allDrivers = userRepository.findByRole(User.Role.DRIVER);
+        Vehicle.VehicleType type = resolveVehicleType(requestedVehicleType);
+        if (type == null && requestedVehicleType != null && !requestedVehicleType.isEmpty()) {
+            logger.warn("No eligible drivers found for vehicle type: {}", requestedVehicleType);
+            return null; // No vehicle can match an unknown type
+        }
+
+        // Step 1: Ring search the location index for nearby candidates
+        DriverSnapshot snapshot = buildSnapshot(type, pickupLatitude, pickupLongitude,
+                candidateCount, maxSearchRadiusKm);
 
-        if (allDrivers.isEmpty()) {
-            logger.warn("No drivers found in the system");
+        if (snapshot.size() == 0) {
+            logger.warn("No drivers found near pickup for vehicle type: {}", requestedVehicleType);
             return null;
         }
 
-        logger.info("Total drivers in system: {}", allDrivers.size());
+        logger.info("Candidate drivers near pickup: {}", snapshot.size());
 
-        // Step 2: Filter eligible drivers
-        List<User> eligibleDrivers = allDrivers.stream()
-                .filter(this::isDriverEligible)
-                .filter(driver -> matchesVehicleType(driver, requestedVehicleType))
-                .collect(Collectors.toList());
+        // Step 2: Score on primitives and keep only the best few
+        double[] scores = new double[snapshot.size()];
+        int[] winners = selectTop(snapshot, type, pickupLatitude, pickupLongitude, maxSearchRadiusKm,
+                Math.max(MAX_WINNER_ATTEMPTS, driverEtaService.getCandidateCount()), null, scores);
 
-        logger.info("Eligible drivers after filtering: {}", eligibleDrivers.size());
+        // Step 2b: Re-rank those by road drive time
+        double[] etas = new double[snapshot.size()];
+        winners = rerankByEta(snapshot, winners, scores, etas, pickupLatitude, pickupLongitude);
+        winners = Arrays.copyOf(winners, Math.min(winners.length, MAX_WINNER_ATTEMPTS));
 
-        if (eligibleDrivers.isEmpty()) {
-            logger.warn("No eligible drivers found for vehicle type: {}", requestedVehicleType);
-            return null;
+        // Step 3: Load the winners in one query and take the best one that is
+        // still eligible in the database (the index may lag behind)
+        Map<Long, User> drivers = loadDrivers(snapshot, winners);
+
+        for (int i : winners) {
+            User driver = drivers.get(snapshot.driverId(i));
+            if (driver == null || !isDriverEligible(driver) || !matchesVehicleType(driver, requestedVehicleType)) {
+                logger.debug("Skipping stale candidate {}", snapshot.driverId(i));
+                continue;
+            }
+
+            DriverAssignmentDTO bestDriver = toAssignmentDTO(driver,
+                    candidateDistance(snapshot, i, pickupLatitude, pickupLongitude),
+                    snapshot.load(i), scores[i], etas[i]);
+
+            logger.info("Best driver found: {} (ID: {}) with score: {}, distance: {} km, active rides: {}",
+                    bestDriver.getDriverName(),
+                    bestDriver.getDriverId(),
+                    bestDriver.getAssignmentScore(),
+                    bestDriver.getDistanceToPickup(),
+                    bestDriver.getActiveRidesCount());
+
+            return bestDriver;
         }
 
-        // Step 3: Calculate scores for each driver
-        List<DriverAssignmentDTO> driverScores = new ArrayList<>();
+        logger.warn("No eligible drivers found for vehicle type: {}", requestedVehicleType);
+        return null;
+    }
 
-        for (User driver : eligibleDrivers) {
-            try {
-                DriverAssignmentDTO assignmentInfo = calculateDriverScore(
-                        driver, pickupLatitude, pickupLongitude);
-                driverScores.add(assignmentInfo);
-            } catch (Exception e) {
-                logger.error("Error calculating score for driver {}: {}",
-                        driver.getId(), e.getMessage(), e);
+    /**
+     * Gets one page of available drivers, best score first.
+     *
+     * Only drivers within {@code radiusKm} are considered, and at most
+     * {@code limit} DTOs are built. Pass the returned {@code nextCursor} back to
+     * get the following page; pages are keyed on (score, driverId), so drivers
+     * moving between calls cannot cause an entry to repeat within one listing.
+     */
+    public DriverPageDTO getAvailableDriversPage(
+            String requestedVehicleType,
+            Double pickupLatitude,
+            Double pickupLongitude,
+            int limit,
+            Double radiusKm,
+            String cursor) {
+
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        double radius = radiusKm != null && radiusKm > 0
+                ? Math.min(radiusKm, maxSearchRadiusKm)
+                : maxSearchRadiusKm;
+        PageCursor after = PageCursor.decode(cursor);
+
+        DriverPageDTO page = new DriverPageDTO(new ArrayList<>(), null, pageSize, radius);
+
+        Vehicle.VehicleType type = resolveVehicleType(requestedVehicleType);
+        if (type == null && requestedVehicleType != null && !requestedVehicleType.isEmpty()) {
+            return page;
+        }
+
+        // Everything inside the radius is a candidate; only the page is materialised
+        DriverSnapshot snapshot = buildSnapshot(type, pickupLatitude, pickupLongitude,
+                Integer.MAX_VALUE, radius);
+
+        // One extra slot tells us whether another page exists
+        double[] scores = new double[snapshot.size()];
+        int[] top = selectTop(snapshot, type, pickupLatitude, pickupLongitude, radius,
+                pageSize + 1, after, scores);
+        int shown = Math.min(top.length, pageSize);
+
+        int[] pageIndices = Arrays.copyOf(top, shown);
+        Map<Long, User> drivers = loadDrivers(snapshot, pageIndices);
+
+        for (int i : pageIndices) {
+            User driver = drivers.get(snapshot.driverId(i));
+            if (driver == null || !isDriverEligible(driver) || !matchesVehicleType(driver, requestedVehicleType)) {
+                continue; // stale index entry
             }
+            page.getDrivers().add(toAssignmentDTO(driver,
+                    candidateDistance(snapshot, i, pickupLatitude, pickupLongitude),
+                    snapshot.load(i), scores[i], Double.NaN));
         }
 
-        if (driverScores.isEmpty()) {
-            return null;
+        if (top.length > pageSize) {
+            int last = pageIndices[shown - 1];
+            page.setNextCursor(new PageCursor(scores[last], snapshot.driverId(last)).encode());
         }
 
-        // Step 4: Sort by score (ascending - lower is better)
-        driverScores.sort(Comparator.comparing(DriverAssignmentDTO::getAssignmentScore));
+        return page;
+    }
 
-        DriverAssignmentDTO bestDriver = driverScores.get(0);
-        logger.info("Best driver found: {} (ID: {}) with score: {}, distance: {} km, active rides: {}",
-                bestDriver.getDriverName(),
-                bestDriver.getDriverId(),
-                bestDriver.getAssignmentScore(),
-                bestDriver.getDistanceToPickup(),
-                bestDriver.getActiveRidesCount());
+    /**
+     * Best {@code k} scored candidates for a pickup, best first, without
+     * loading anything from the database. Used by the batch dispatch engine,
+     * which re-checks drivers when it commits.
+     */
+    public List<DispatchCandidate> findDispatchCandidates(
+            String requestedVehicleType,
+            double pickupLatitude,
+            double pickupLongitude,
+            int k) {
+
+        Vehicle.VehicleType type = resolveVehicleType(requestedVehicleType);
+        if (type == null && requestedVehicleType != null && !requestedVehicleType.isEmpty()) {
+            return List.of();
+        }
 
-        return bestDriver;
+        DriverSnapshot snapshot = buildSnapshot(type, pickupLatitude, pickupLongitude, k, maxSearchRadiusKm);
+        double[] scores = new double[snapshot.size()];
+        int[] top = selectTop(snapshot, type, pickupLatitude, pickupLongitude, maxSearchRadiusKm,
+                k, null, scores);
+        top = rerankByEta(snapshot, top, scores, new double[snapshot.size()], pickupLatitude, pickupLongitude);
+
+        List<DispatchCandidate> candidates = new ArrayList<>(top.length);
+        for (int i : top) {
+            candidates.add(new DispatchCandidate(snapshot.driverId(i),
+                    candidateDistance(snapshot, i, pickupLatitude, pickupLongitude),
+                    scores[i]));
+        }
+        return candidates;
     }
 
     /**
-     * Gets all available drivers for display/selection
+     * Ring searches the location index around the pickup point and copies the
+     * candidates, with their current load, into a primitive snapshot.
      */
-    public List<DriverAssignmentDTO> getAllAvailableDrivers(
-            String requestedVehicleType,
-            Double pickupLatitude,
-            Double pickupLongitude) {
+    private DriverSnapshot buildSnapshot(Vehicle.VehicleType type,
+            double pickupLatitude, double pickupLongitude, int k, double radiusKm) {
+
+        List<DriverLocationIndex.Entry> entries = driverLocationIndex
+                .findCandidates(pickupLatitude, pickupLongitude, type, k, radiusKm);
+
+        DriverSnapshot snapshot = new DriverSnapshot(entries.size());
+        for (DriverLocationIndex.Entry entry : entries) {
+            snapshot.add(entry.driverId,
+                    entry.located ? entry.latitude : Double.NaN,
+                    entry.located ? entry.longitude : Double.NaN,
+                    driverLoadTracker.getActiveRides(entry.driverId),
+                    typeCode(entry.type));
+        }
+        return snapshot;
+    }
 
-        List<User> allDrivers = userRepository.findByRole(User.Role.DRIVER);
+    /**
+     * Scores the snapshot into {@code scores} and returns the indices of the
+     * best {@code k} candidates ranked after {@code after} (if given), best first.
+     */
+    private int[] selectTop(DriverSnapshot snapshot, Vehicle.VehicleType type,
+            double pickupLatitude, double pickupLongitude, double radiusKm,
+            int k, PageCursor after, double[] scores) {
+        return driverCandidateScorer.scoreAndSelect(snapshot, pickupLatitude, pickupLongitude,
+                typeCode(type), radiusKm, k,
+                after != null ? after.score() : Double.NEGATIVE_INFINITY,
+                after != null ? after.driverId() : Long.MIN_VALUE,
+                scores);
+    }
 
-        List<User> eligibleDrivers = allDrivers.stream()
-                .filter(this::isDriverEligible)
-                .filter(driver -> matchesVehicleType(driver, requestedVehicleType))
-                .collect(Collectors.toList());
+    /**
+     * Re-orders {@code candidates} by road drive time, updating their
+     * {@code scores} and recording each ETA in seconds in {@code etas}
+     * (NaN where unknown). Keeps the haversine order if OSRM cannot help.
+     *
+     * A straight line (or the flat guess for an unlocated driver) is no
+     * match for a road ETA, so candidates OSRM gave no ETA for keep their
+     * haversine score and order but rank after every candidate it did.
+     */
+    private int[] rerankByEta(DriverSnapshot snapshot, int[] candidates, double[] scores, double[] etas,
+            double pickupLatitude, double pickupLongitude) {
+        Arrays.fill(etas, Double.NaN);
 
-        List<DriverAssignmentDTO> driverList = new ArrayList<>();
+        double[] seconds = driverEtaService.etaSeconds(snapshot, candidates, pickupLatitude, pickupLongitude);
+        if (seconds == null) {
+            return candidates;
+        }
 
-        for (User driver : eligibleDrivers) {
-            try {
-                DriverAssignmentDTO info = calculateDriverScore(
-                        driver, pickupLatitude, pickupLongitude);
-                driverList.add(info);
-            } catch (Exception e) {
-                logger.error("Error processing driver {}: {}", driver.getId(), e.getMessage());
+        TopKSelector ranked = new TopKSelector(Math.max(1, candidates.length));
+        int[] unknown = new int[candidates.length];
+        int unknownCount = 0;
+        for (int c = 0; c < candidates.length; c++) {
+            int i = candidates[c];
+            if (Double.isNaN(seconds[c])) {
+                unknown[unknownCount++] = i; // candidates come best first
+                continue;
             }
+            etas[i] = seconds[c];
+            scores[i] = DriverEtaService.toScore(seconds[c], snapshot.load(i));
+            ranked.offer(i, scores[i], snapshot.driverId(i));
         }
 
-        driverList.sort(Comparator.comparing(DriverAssignmentDTO::getAssignmentScore));
+        int[] known = ranked.drainAscending();
+        int[] order = Arrays.copyOf(known, known.length + unknownCount);
+        System.arraycopy(unknown, 0, order, known.length, unknownCount);
+        return order;
+    }
+
+    private Map<Long, User> loadDrivers(DriverSnapshot snapshot, int[] indices) {
+        if (indices.length == 0) {
+            return Map.of();
+        }
+        List<Long> ids = new ArrayList<>(indices.length);
+        for (int i : indices) {
+            ids.add(snapshot.driverId(i));
+        }
+        return userRepository.findByIdInWithVehicle(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
 
-        return driverList;
+    private static double candidateDistance(DriverSnapshot snapshot, int i,
+            double pickupLatitude, double pickupLongitude) {
+        if (Double.isNaN(snapshot.latitude(i))) {
+            return DriverScoringKernel.UNLOCATED_DISTANCE_KM;
+        }
+        return DriverScoringKernel.haversine(
+                snapshot.latitude(i), snapshot.longitude(i), pickupLatitude, pickupLongitude);
+    }
+
+    private static byte typeCode(Vehicle.VehicleType type) {
+        return type != null ? (byte) type.ordinal() : DriverSnapshot.ANY_TYPE;
+    }
+
+    private Vehicle.VehicleType resolveVehicleType(String vehicleType) {
+        if (vehicleType == null || vehicleType.isEmpty()) {
+            return null;
+        }
+        for (Vehicle.VehicleType type : Vehicle.VehicleType.values()) {
+            if (type.name().equalsIgnoreCase(vehicleType)) {
+                return type;
+            }
+        }
+        return null;
     }
 
     /**
@@ -176,33 +388,26 @@ public class DriverLoadOptimizationService {
     }
 
     /**
-     * Calculate driver assignment score
-     * Score = distance_to_pickup + (active_rides_count * 2)
+     * Build the assignment DTO for a scored driver
      */
-    private DriverAssignmentDTO calculateDriverScore(
-            User driver,
-            Double pickupLatitude,
-            Double pickupLongitude) {
-
+    private DriverAssignmentDTO toAssignmentDTO(User driver, double distanceKm, int activeRidesCount,
+            double score, double etaSeconds) {
         DriverAssignmentDTO dto = new DriverAssignmentDTO();
         dto.setDriverId(driver.getId());
         dto.setDriverName(driver.getName());
         dto.setDriverEmail(driver.getEmail());
         dto.setDriverPhone(driver.getPhone());
 
-        // Calculate distance to pickup
-        BigDecimal distanceToPickup = calculateDistanceToPickup(
-                driver, pickupLatitude, pickupLongitude);
+        BigDecimal distanceToPickup = BigDecimal.valueOf(distanceKm).setScale(2, RoundingMode.HALF_UP);
         dto.setDistanceToPickup(distanceToPickup);
-
-        // Get active rides count
-        Integer activeRidesCount = getActiveRidesCount(driver.getId());
         dto.setActiveRidesCount(activeRidesCount);
 
-        // Calculate score: distance + (activeRides * 2)
-        BigDecimal score = distanceToPickup.add(
-                BigDecimal.valueOf(activeRidesCount * 2));
-        dto.setAssignmentScore(score);
+        if (!Double.isNaN(etaSeconds)) {
+            dto.setEtaMinutes(BigDecimal.valueOf(etaSeconds / 60.0).setScale(1, RoundingMode.HALF_UP));
+        }
+
+        // Score: distance (or drive time as km at 30 km/h) + (activeRides * 2)
+        dto.setAssignmentScore(BigDecimal.valueOf(score).setScale(2, RoundingMode.HALF_UP));
 
         // Add vehicle info
         if (driver.getVehicle() != null) {
@@ -221,63 +426,35 @@ public class DriverLoadOptimizationService {
     }
 
     /**
-     * Calculate distance from driver's current location to pickup point
+     * Opaque keyset cursor: the (score, driverId) of the last driver on a page.
      */
-    private BigDecimal calculateDistanceToPickup(
-            User driver,
-            Double pickupLatitude,
-            Double pickupLongitude) {
-
-        Vehicle vehicle = driver.getVehicle();
+    private record PageCursor(double score, long driverId) {
 
-        // Default location if vehicle location is not set
-        if (vehicle.getCurrentLatitude() == null || vehicle.getCurrentLongitude() == null) {
-            // Return a default distance (e.g., 5 km) to still allow assignment
-            return BigDecimal.valueOf(5.0);
+        String encode() {
+            String raw = Double.doubleToLongBits(score) + ":" + driverId;
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
         }
 
-        double driverLat = vehicle.getCurrentLatitude().doubleValue();
-        double driverLng = vehicle.getCurrentLongitude().doubleValue();
-
-        double distance = calculateHaversineDistance(
-                driverLat, driverLng, pickupLatitude, pickupLongitude);
-
-        return BigDecimal.valueOf(distance).setScale(2, RoundingMode.HALF_UP);
-    }
-
-    /**
-     * Get count of active rides for a driver
-     */
-    private Integer getActiveRidesCount(Long driverId) {
-        List<Booking.BookingStatus> activeStatuses = List.of(
-                Booking.BookingStatus.ACCEPTED,
-                Booking.BookingStatus.ARRIVED,
-                Booking.BookingStatus.IN_PROGRESS,
-                Booking.BookingStatus.STARTED);
-
-        List<Booking> activeBookings = bookingRepository
-                .findByDriverIdAndStatusIn(driverId, activeStatuses);
-
-        return activeBookings.size();
+        static PageCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = raw.indexOf(':');
+                return new PageCursor(
+                        Double.longBitsToDouble(Long.parseLong(raw.substring(0, sep))),
+                        Long.parseLong(raw.substring(sep + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
     }
 
     /**
-     * Haversine formula for calculating distance between two coordinates
+     * A scored driver for one pickup: distance in km and assignment score.
      */
-    private double calculateHaversineDistance(
-            double lat1, double lon1, double lat2, double lon2) {
-
-        final int EARTH_RADIUS = 6371; // Radius in kilometers
-
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                        * Math.sin(dLon / 2) * Math.sin(dLon / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        return EARTH_RADIUS * c;
+    public record DispatchCandidate(long driverId, double distanceKm, double score) {
     }
 }
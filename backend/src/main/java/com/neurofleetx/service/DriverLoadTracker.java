@@ -0,0 +1,108 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.model.Booking;
+import com.neurofleetx.repository.BookingRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory count of active rides per driver, so driver scoring does not
+ * query bookings for every candidate.
+ *
+ * Counts are adjusted on the ride transitions in {@link BookingService},
+ * {@link RideLifecycleService} and {@link BookingExpiryScheduler}. Changes made
+ * inside a transaction are applied only after it commits. The whole table is
+ * rebuilt from a single GROUP BY query at startup and periodically, which also
+ * corrects any drift.
+ */
+@Component
+@RequiredArgsConstructor
+public class DriverLoadTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverLoadTracker.class);
+
+    /** Statuses that count towards a driver's load. */
+    public static final Set<Booking.BookingStatus> ACTIVE_STATUSES = EnumSet.of(
+            Booking.BookingStatus.ACCEPTED,
+            Booking.BookingStatus.ARRIVED,
+            Booking.BookingStatus.IN_PROGRESS,
+            Booking.BookingStatus.STARTED);
+
+    private final BookingRepository bookingRepository;
+
+    private volatile Map<Long, Integer> activeRides = new ConcurrentHashMap<>();
+
+    public static boolean isActive(Booking.BookingStatus status) {
+        return status != null && ACTIVE_STATUSES.contains(status);
+    }
+
+    public int getActiveRides(Long driverId) {
+        Integer count = activeRides.get(driverId);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * A ride moved into an active status for this driver.
+     */
+    public void rideAssigned(Long driverId) {
+        adjust(driverId, 1);
+    }
+
+    /**
+     * A ride left the active statuses (completed, cancelled, expired).
+     */
+    public void rideReleased(Long driverId) {
+        adjust(driverId, -1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${dispatch.load.resync-ms:300000}", initialDelayString = "${dispatch.load.resync-ms:300000}")
+    public void rebuild() {
+        List<Object[]> rows = bookingRepository.countActiveRidesByDriver(List.copyOf(ACTIVE_STATUSES));
+
+        Map<Long, Integer> counts = new ConcurrentHashMap<>(Math.max(16, rows.size() * 2));
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+
+        activeRides = counts;
+        logger.debug("Driver load tracker rebuilt: {} drivers with active rides", counts.size());
+    }
+
+    private void adjust(Long driverId, int delta) {
+        if (driverId == null) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(driverId, delta);
+                }
+            });
+        } else {
+            apply(driverId, delta);
+        }
+    }
+
+    private void apply(Long driverId, int delta) {
+        activeRides.compute(driverId, (id, current) -> {
+            int next = (current != null ? current : 0) + delta;
+            return next > 0 ? next : null;
+        });
+    }
+}
@@ -0,0 +1,309 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.model.User;
+import com.neurofleetx.model.Vehicle;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live spatial index of drivers that can currently take a ride.
+ *
+ * Drivers are bucketed into a uniform lat/lng grid keyed by their vehicle's
+ * current position. The index is fed by {@link DriverIndexListener} whenever a
+ * driver or vehicle row is written, so it follows location updates and status
+ * changes without polling the database.
+ *
+ * The index is only a candidate generator: callers must still re-check
+ * eligibility against the database before assigning a ride.
+ */
+@Component
+public class DriverLocationIndex {
+
+    private static final double KM_PER_DEGREE = 111.32;
+
+    @Value("${dispatch.index.cell-size-deg:0.01}")
+    private double cellSizeDeg = 0.01;
+
+    // Raw state reported by the entity listener
+    private final Map<Long, VehicleState> vehicles = new ConcurrentHashMap<>();
+    private final Map<Long, DriverState> drivers = new ConcurrentHashMap<>();
+    private final Map<Long, Long> vehicleOwners = new ConcurrentHashMap<>();
+
+    // Searchable drivers (approved, active, vehicle AVAILABLE)
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private final Set<Long> unlocated = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Record a driver's account state and the vehicle they are linked to.
+     */
+    public synchronized void updateDriver(User driver) {
+        if (driver.getId() == null) {
+            return;
+        }
+
+        Long vehicleId = driver.getVehicle() != null ? driver.getVehicle().getId() : null;
+        boolean eligible = driver.getRole() == User.Role.DRIVER
+                && driver.getApprovalStatus() == User.ApprovalStatus.APPROVED
+                && Boolean.TRUE.equals(driver.getIsActive());
+
+        DriverState previous = drivers.put(driver.getId(), new DriverState(vehicleId, eligible));
+        if (previous != null && previous.vehicleId != null && !previous.vehicleId.equals(vehicleId)) {
+            vehicleOwners.remove(previous.vehicleId, driver.getId());
+        }
+        if (vehicleId != null) {
+            vehicleOwners.put(vehicleId, driver.getId());
+        }
+
+        refresh(driver.getId());
+    }
+
+    /**
+     * Record a vehicle's position, type and status.
+     */
+    public synchronized void updateVehicle(Vehicle vehicle) {
+        if (vehicle.getId() == null) {
+            return;
+        }
+
+        boolean located = vehicle.getCurrentLatitude() != null && vehicle.getCurrentLongitude() != null;
+        vehicles.put(vehicle.getId(), new VehicleState(
+                located ? vehicle.getCurrentLatitude().doubleValue() : 0.0,
+                located ? vehicle.getCurrentLongitude().doubleValue() : 0.0,
+                located,
+                vehicle.getType(),
+                vehicle.getStatus()));
+
+        Long driverId = vehicleOwners.get(vehicle.getId());
+        if (driverId != null) {
+            refresh(driverId);
+        }
+    }
+
+    public synchronized void removeDriver(Long driverId) {
+        DriverState previous = drivers.remove(driverId);
+        if (previous != null && previous.vehicleId != null) {
+            vehicleOwners.remove(previous.vehicleId, driverId);
+        }
+        unindex(driverId);
+    }
+
+    public synchronized void removeVehicle(Long vehicleId) {
+        vehicles.remove(vehicleId);
+        Long driverId = vehicleOwners.get(vehicleId);
+        if (driverId != null) {
+            refresh(driverId);
+        }
+    }
+
+    public synchronized void clear() {
+        vehicles.clear();
+        drivers.clear();
+        vehicleOwners.clear();
+        entries.clear();
+        cells.clear();
+        unlocated.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Ring search around a point. Rings grow one cell at a time until at least
+     * {@code k} drivers of the requested type are found (plus one extra ring so
+     * corner cells of the previous ring cannot hide a closer driver), or until
+     * {@code maxRadiusKm} is covered.
+     *
+     * Drivers whose vehicle has no known position are always appended; the
+     * scorer places them at its default distance.
+     *
+     * @param type requested vehicle type, or null for any type
+     */
+    public List<Entry> findCandidates(double latitude, double longitude,
+            Vehicle.VehicleType type, int k, double maxRadiusKm) {
+
+        List<Entry> result = new ArrayList<>();
+        if (entries.isEmpty()) {
+            return result;
+        }
+
+        int centerLat = latIndex(latitude);
+        int centerLng = lngIndex(longitude);
+
+        double cellKm = cellSizeDeg * KM_PER_DEGREE;
+        double lngStretch = 1.0 / Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        int maxRing = (int) Math.ceil(maxRadiusKm / cellKm);
+
+        int foundAtRing = -1;
+        int prevLngSpan = -1;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            int lngSpan = (int) Math.ceil(ring * lngStretch);
+
+            for (int dLat = -ring; dLat <= ring; dLat++) {
+                boolean innerRow = Math.abs(dLat) <= ring - 1;
+                if (innerRow) {
+                    // Only the columns added on each side since the previous ring
+                    for (int dLng = prevLngSpan + 1; dLng <= lngSpan; dLng++) {
+                        collect(centerLat + dLat, centerLng - dLng, type, result);
+                        collect(centerLat + dLat, centerLng + dLng, type, result);
+                    }
+                } else {
+                    for (int dLng = -lngSpan; dLng <= lngSpan; dLng++) {
+                        collect(centerLat + dLat, centerLng + dLng, type, result);
+                    }
+                }
+            }
+            prevLngSpan = lngSpan;
+
+            if (foundAtRing < 0 && result.size() >= k) {
+                foundAtRing = ring;
+            } else if (foundAtRing >= 0) {
+                break;
+            }
+        }
+
+        for (Long driverId : unlocated) {
+            Entry entry = entries.get(driverId);
+            if (entry != null && (type == null || entry.type == type)) {
+                result.add(entry);
+            }
+        }
+
+        return result;
+    }
+
+    private void collect(int latIdx, int lngIdx, Vehicle.VehicleType type, List<Entry> out) {
+        Set<Long> cell = cells.get(cellKey(latIdx, lngIdx));
+        if (cell == null) {
+            return;
+        }
+        for (Long driverId : cell) {
+            Entry entry = entries.get(driverId);
+            if (entry != null && (type == null || entry.type == type)) {
+                out.add(entry);
+            }
+        }
+    }
+
+    private void refresh(Long driverId) {
+        DriverState driver = drivers.get(driverId);
+        VehicleState vehicle = driver != null && driver.vehicleId != null
+                ? vehicles.get(driver.vehicleId)
+                : null;
+
+        if (driver == null || !driver.eligible || vehicle == null
+                || vehicle.status != Vehicle.VehicleStatus.AVAILABLE) {
+            unindex(driverId);
+            return;
+        }
+
+        long cell = vehicle.located
+                ? cellKey(latIndex(vehicle.latitude), lngIndex(vehicle.longitude))
+                : 0L;
+        Entry updated = new Entry(driverId, driver.vehicleId, vehicle.latitude, vehicle.longitude,
+                vehicle.located, vehicle.type, cell);
+
+        Entry previous = entries.put(driverId, updated);
+        if (previous != null && (previous.located != updated.located || previous.cell != updated.cell)) {
+            detach(previous);
+        }
+        if (updated.located) {
+            cells.computeIfAbsent(cell, c -> ConcurrentHashMap.newKeySet()).add(driverId);
+        } else {
+            unlocated.add(driverId);
+        }
+    }
+
+    private void unindex(Long driverId) {
+        Entry previous = entries.remove(driverId);
+        if (previous != null) {
+            detach(previous);
+        }
+    }
+
+    private void detach(Entry entry) {
+        if (!entry.located) {
+            unlocated.remove(entry.driverId);
+            return;
+        }
+        Set<Long> cell = cells.get(entry.cell);
+        if (cell != null) {
+            cell.remove(entry.driverId);
+            if (cell.isEmpty()) {
+                cells.remove(entry.cell, cell);
+            }
+        }
+    }
+
+    private int latIndex(double latitude) {
+        return (int) Math.floor(latitude / cellSizeDeg);
+    }
+
+    private int lngIndex(double longitude) {
+        return (int) Math.floor(longitude / cellSizeDeg);
+    }
+
+    private static long cellKey(int latIdx, int lngIdx) {
+        return ((long) latIdx << 32) | (lngIdx & 0xffffffffL);
+    }
+
+    /**
+     * Immutable snapshot of an indexed driver. Replaced, never mutated, so
+     * readers can scan without locking.
+     */
+    public static final class Entry {
+        public final long driverId;
+        public final long vehicleId;
+        public final double latitude;
+        public final double longitude;
+        public final boolean located;
+        public final Vehicle.VehicleType type;
+        final long cell;
+
+        Entry(long driverId, long vehicleId, double latitude, double longitude,
+                boolean located, Vehicle.VehicleType type, long cell) {
+            this.driverId = driverId;
+            this.vehicleId = vehicleId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.located = located;
+            this.type = type;
+            this.cell = cell;
+        }
+    }
+
+    private static final class DriverState {
+        final Long vehicleId;
+        final boolean eligible;
+
+        DriverState(Long vehicleId, boolean eligible) {
+            this.vehicleId = vehicleId;
+            this.eligible = eligible;
+        }
+    }
+
+    private static final class VehicleState {
+        final double latitude;
+        final double longitude;
+        final boolean located;
+        final Vehicle.VehicleType type;
+        final Vehicle.VehicleStatus status;
+
+        VehicleState(double latitude, double longitude, boolean located,
+                Vehicle.VehicleType type, Vehicle.VehicleStatus status) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.located = located;
+            this.type = type;
+            this.status = status;
+        }
+    }
+}
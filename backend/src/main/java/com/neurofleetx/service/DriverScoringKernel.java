@@ -0,0 +1,104 @@
+package com.neurofleetx.service;
+
+/**
+ * Allocation-free driver scoring over a {@link DriverSnapshot}.
+ *
+ * Score = distance_to_pickup_km + (active_rides * 2), lower is better. The
+ * distance is exact haversine, but candidates are first rejected with a cheap
+ * equirectangular estimate so distant drivers never reach the trig-heavy path.
+ */
+public final class DriverScoringKernel {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    /** Distance assumed for a driver whose vehicle has no known position. */
+    public static final double UNLOCATED_DISTANCE_KM = 5.0;
+
+    /** Score penalty per ride the driver already has. */
+    public static final double LOAD_PENALTY = 2.0;
+
+    /** Rejected candidates get this score. */
+    public static final double REJECTED = Double.POSITIVE_INFINITY;
+
+    // The equirectangular estimate is within a fraction of a percent at city
+    // scale; leave some slack so it never rejects a driver haversine would keep.
+    private static final double PREFILTER_SLACK = 1.02;
+
+    private DriverScoringKernel() {
+    }
+
+    /**
+     * Scores candidates {@code [from, to)} into {@code scores} at the same
+     * indices. Candidates of another type, or farther than
+     * {@code maxRadiusKm}, are scored {@link #REJECTED}.
+     *
+     * @return number of candidates that were not rejected
+     */
+    public static int score(DriverSnapshot snapshot, int from, int to,
+            double pickupLat, double pickupLng, byte type, double maxRadiusKm,
+            double[] scores) {
+
+        double pickupLatRad = Math.toRadians(pickupLat);
+        double pickupLngRad = Math.toRadians(pickupLng);
+        double cosPickupLat = Math.cos(pickupLatRad);
+        double maxRadiusRad = maxRadiusKm / EARTH_RADIUS_KM * PREFILTER_SLACK;
+        double maxRadiusRadSq = maxRadiusRad * maxRadiusRad;
+
+        double[] latitudes = snapshot.latitudes;
+        double[] longitudes = snapshot.longitudes;
+        int[] loads = snapshot.loads;
+        byte[] types = snapshot.types;
+
+        int accepted = 0;
+        for (int i = from; i < to; i++) {
+            if (type != DriverSnapshot.ANY_TYPE && types[i] != type) {
+                scores[i] = REJECTED;
+                continue;
+            }
+
+            double lat = latitudes[i];
+            double distance;
+            if (Double.isNaN(lat)) {
+                distance = UNLOCATED_DISTANCE_KM;
+            } else {
+                double latRad = Math.toRadians(lat);
+                double dLat = latRad - pickupLatRad;
+                double dLng = Math.toRadians(longitudes[i]) - pickupLngRad;
+
+                // Equirectangular pre-filter
+                double x = dLng * cosPickupLat;
+                if (x * x + dLat * dLat > maxRadiusRadSq) {
+                    scores[i] = REJECTED;
+                    continue;
+                }
+
+                distance = haversineRad(dLat, dLng, cosPickupLat, Math.cos(latRad));
+                if (distance > maxRadiusKm) {
+                    scores[i] = REJECTED;
+                    continue;
+                }
+            }
+
+            scores[i] = distance + loads[i] * LOAD_PENALTY;
+            accepted++;
+        }
+        return accepted;
+    }
+
+    /**
+     * Exact great-circle distance in km between two points in degrees.
+     */
+    public static double haversine(double lat1, double lng1, double lat2, double lng2) {
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
+        return haversineRad(lat2Rad - lat1Rad, Math.toRadians(lng2 - lng1),
+                Math.cos(lat1Rad), Math.cos(lat2Rad));
+    }
+
+    private static double haversineRad(double dLatRad, double dLngRad, double cosLat1, double cosLat2) {
+        double sinLat = Math.sin(dLatRad / 2);
+        double sinLng = Math.sin(dLngRad / 2);
+        double a = sinLat * sinLat + cosLat1 * cosLat2 * sinLng * sinLng;
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
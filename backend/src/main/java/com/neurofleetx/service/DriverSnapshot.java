@@ -0,0 +1,73 @@
+package com.neurofleetx.service;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays view of dispatch candidates, scored by
+ * {@link DriverScoringKernel}. One instance is filled per request; the arrays
+ * grow geometrically so adding a candidate allocates nothing.
+ *
+ * A driver without a known position has NaN coordinates.
+ */
+public final class DriverSnapshot {
+
+    /** Type code that matches any vehicle type. */
+    public static final byte ANY_TYPE = -1;
+
+    long[] driverIds;
+    double[] latitudes;
+    double[] longitudes;
+    int[] loads;
+    byte[] types;
+    int size;
+
+    public DriverSnapshot(int capacity) {
+        int initial = Math.max(capacity, 8);
+        driverIds = new long[initial];
+        latitudes = new double[initial];
+        longitudes = new double[initial];
+        loads = new int[initial];
+        types = new byte[initial];
+    }
+
+    public void add(long driverId, double latitude, double longitude, int load, byte type) {
+        if (size == driverIds.length) {
+            int grown = size * 2;
+            driverIds = Arrays.copyOf(driverIds, grown);
+            latitudes = Arrays.copyOf(latitudes, grown);
+            longitudes = Arrays.copyOf(longitudes, grown);
+            loads = Arrays.copyOf(loads, grown);
+            types = Arrays.copyOf(types, grown);
+        }
+        driverIds[size] = driverId;
+        latitudes[size] = latitude;
+        longitudes[size] = longitude;
+        loads[size] = load;
+        types[size] = type;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long driverId(int i) {
+        return driverIds[i];
+    }
+
+    public double latitude(int i) {
+        return latitudes[i];
+    }
+
+    public double longitude(int i) {
+        return longitudes[i];
+    }
+
+    public int load(int i) {
+        return loads[i];
+    }
+
+    public byte type(int i) {
+        return types[i];
+    }
+}
@@ -0,0 +1,100 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.RouteGeometry;
+
+import java.util.Arrays;
+
+/**
+ * Google encoded polyline format: latitude/longitude pairs rounded to
+ * {@code 1e-5} degrees (about a metre), delta-encoded and written as base-64
+ * text, typically 4 to 6 characters per point instead of about 25 as a JSON
+ * {@code [lng, lat]} pair. Note the format's latitude-first order. The
+ * precision overloads take other digit counts, e.g. 6 for OSRM's polyline6.
+ */
+public final class EncodedPolyline {
+
+    private static final int DEFAULT_PRECISION = 5;
+
+    private EncodedPolyline() {
+    }
+
+    public static String encode(RouteGeometry geometry) {
+        return encode(geometry, DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision decimal digits kept per coordinate
+     */
+    public static String encode(RouteGeometry geometry, int precision) {
+        double scale = Math.pow(10, precision);
+        StringBuilder encoded = new StringBuilder(6 * geometry.size());
+        long previousLat = 0;
+        long previousLng = 0;
+        for (int i = 0; i < geometry.size(); i++) {
+            long lat = Math.round(geometry.latitude(i) * scale);
+            long lng = Math.round(geometry.longitude(i) * scale);
+            encodeValue(lat - previousLat, encoded);
+            encodeValue(lng - previousLng, encoded);
+            previousLat = lat;
+            previousLng = lng;
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException when {@code encoded} is not a valid polyline
+     */
+    public static RouteGeometry decode(String encoded) {
+        return decode(encoded, DEFAULT_PRECISION);
+    }
+
+    /**
+     * @throws IllegalArgumentException when {@code encoded} is not a valid polyline
+     */
+    public static RouteGeometry decode(String encoded, int precision) {
+        double scale = Math.pow(10, precision);
+        double[] lngLat = new double[16];
+        int points = 0;
+        long lat = 0;
+        long lng = 0;
+        int[] position = { 0 };
+        while (position[0] < encoded.length()) {
+            lat += decodeValue(encoded, position);
+            lng += decodeValue(encoded, position);
+            if (2 * points + 2 > lngLat.length) {
+                lngLat = Arrays.copyOf(lngLat, 2 * lngLat.length);
+            }
+            lngLat[2 * points] = lng / scale;
+            lngLat[2 * points + 1] = lat / scale;
+            points++;
+        }
+        return RouteGeometry.copyOf(lngLat, points);
+    }
+
+    private static void encodeValue(long value, StringBuilder encoded) {
+        long bits = value < 0 ? ~(value << 1) : value << 1;
+        while (bits >= 0x20) {
+            encoded.append((char) ((0x20 | (bits & 0x1f)) + 63));
+            bits >>= 5;
+        }
+        encoded.append((char) (bits + 63));
+    }
+
+    private static long decodeValue(String encoded, int[] position) {
+        long bits = 0;
+        int shift = 0;
+        int chunk;
+        do {
+            if (position[0] >= encoded.length() || shift > 60) {
+                throw new IllegalArgumentException("Truncated encoded polyline");
+            }
+            chunk = encoded.charAt(position[0]++) - 63;
+            if (chunk < 0 || chunk > 0x3f) {
+                throw new IllegalArgumentException("Invalid encoded polyline character at " + (position[0] - 1));
+            }
+            bits |= (long) (chunk & 0x1f) << shift;
+            shift += 5;
+        } while (chunk >= 0x20);
+        return (bits & 1) != 0 ? ~(bits >> 1) : bits >> 1;
+    }
+}
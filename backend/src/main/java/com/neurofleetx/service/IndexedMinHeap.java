@@ -0,0 +1,160 @@
+package com.neurofleetx.service;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of {@code int} items in {@code [0, capacity)} keyed by a
+ * {@code double}, with decrease-key. Each item is in the heap at most once, so
+ * a shortest-path search holds one entry per reached node instead of one per
+ * relaxation, and nothing is allocated per operation.
+ *
+ * {@link #clear()} costs O(size), not O(capacity), so one heap can be reused
+ * across many small searches on a large graph.
+ */
+public final class IndexedMinHeap {
+
+    private int[] items;
+    private double[] keys;
+    // Heap slot of each item, -1 when absent
+    private int[] positions;
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        items = new int[capacity];
+        keys = new double[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int item) {
+        return positions[item] >= 0;
+    }
+
+    /**
+     * Grows the item range to at least {@code capacity}, keeping the contents.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= positions.length) {
+            return;
+        }
+        int old = positions.length;
+        items = Arrays.copyOf(items, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        Arrays.fill(positions, old, capacity, -1);
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[items[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Inserts {@code item}, or lowers its key if already present with a
+     * higher one. Returns false if the item was kept at a lower or equal key.
+     */
+    public boolean insertOrDecrease(int item, double key) {
+        int slot = positions[item];
+        if (slot < 0) {
+            slot = size++;
+            items[slot] = item;
+            positions[item] = slot;
+        } else if (key >= keys[slot]) {
+            return false;
+        }
+        keys[slot] = key;
+        siftUp(slot);
+        return true;
+    }
+
+    /**
+     * Inserts {@code item} or moves it to {@code key}, up or down.
+     */
+    public void insertOrUpdate(int item, double key) {
+        int slot = positions[item];
+        if (slot < 0 || key < keys[slot]) {
+            insertOrDecrease(item, key);
+        } else if (key > keys[slot]) {
+            keys[slot] = key;
+            siftDown(slot);
+        }
+    }
+
+    public int peekItem() {
+        return items[0];
+    }
+
+    public double peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * Removes and returns the item with the lowest key.
+     */
+    public int poll() {
+        int top = items[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            items[0] = items[size];
+            keys[0] = keys[size];
+            positions[items[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int slot) {
+        int item = items[slot];
+        double key = keys[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            move(parent, slot);
+            slot = parent;
+        }
+        place(item, key, slot);
+    }
+
+    private void siftDown(int slot) {
+        int item = items[slot];
+        double key = keys[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            move(child, slot);
+            slot = child;
+        }
+        place(item, key, slot);
+    }
+
+    private void move(int from, int to) {
+        items[to] = items[from];
+        keys[to] = keys[from];
+        positions[items[to]] = to;
+    }
+
+    private void place(int item, double key, int slot) {
+        items[slot] = item;
+        keys[slot] = key;
+        positions[item] = slot;
+    }
+}
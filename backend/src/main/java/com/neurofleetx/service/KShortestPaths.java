@@ -0,0 +1,342 @@
+package com.neurofleetx.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Up to K shortest loopless paths between two nodes of a {@link RoadGraph},
+ * shortest first (Yen's algorithm): alternative routes when OSRM cannot be
+ * asked.
+ *
+ * Each further path is the shortest detour from a path already found: for
+ * every spur node along that path, the root up to the spur is kept and a
+ * search finds the shortest way on to the target that avoids the root's
+ * other nodes and the next edge of every found path sharing that root.
+ * With Lawler's refinement a path's spur nodes start where it left the path
+ * it was derived from, the earlier ones having been tried for that one.
+ *
+ * For K above one, a single Dijkstra from the target (routes are two-way)
+ * gives the shortest path and, out to {@code maxStretch} times its length,
+ * every node's exact distance to the target. Spur searches are A* on those
+ * distances, which stay a consistent bound with nodes and edges banned, and
+ * skip nodes beyond that radius since no wanted path passes them. They are
+ * also cut off at the length of the last candidate still needed: only as
+ * many candidates as paths still missing are kept. All of this runs on
+ * per-thread buffers stamped rather than cleared, as in
+ * {@link ShortestPathEngine}.
+ */
+public final class KShortestPaths {
+
+    /**
+     * @param nodes     source to target
+     * @param distances km from the source to each of {@code nodes}
+     */
+    public record Path(int[] nodes, double[] distances) {
+
+        public double length() {
+            return distances[distances.length - 1];
+        }
+    }
+
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    private KShortestPaths() {
+    }
+
+    /**
+     * The {@code k} (or fewer, if no more exist within the stretch) shortest
+     * loopless paths from {@code source} to {@code target}, each at most
+     * {@code maxStretch} times as long as the first. Empty when the target
+     * cannot be reached.
+     */
+    public static List<Path> find(RoadGraph graph, int source, int target, int k, double maxStretch) {
+        List<Path> found = new ArrayList<>(k);
+        if (k <= 0 || source == target) {
+            return found;
+        }
+
+        Workspace workspace = WORKSPACE.get().prepare(graph.nodeCount());
+        Path shortest;
+        if (k == 1) {
+            workspace.startSpur();
+            shortest = workspace.search(graph, source, target, null, 0, Double.POSITIVE_INFINITY, false);
+        } else {
+            shortest = workspace.growTree(graph, target, source, maxStretch);
+        }
+        if (shortest == null) {
+            return found;
+        }
+        found.add(shortest);
+        double maxLength = shortest.length() * maxStretch;
+
+        // Best candidates first, never more than the paths still missing
+        List<Candidate> candidates = new ArrayList<>();
+        Set<PathKey> seen = new HashSet<>();
+        seen.add(new PathKey(shortest.nodes()));
+        int deviation = 0;
+
+        while (found.size() < k) {
+            Path last = found.get(found.size() - 1);
+            int missing = k - found.size();
+            for (int i = deviation; i < last.nodes().length - 1; i++) {
+                double rootLength = last.distances()[i];
+                double bound = candidates.size() >= missing ? candidates.get(missing - 1).path().length() : maxLength;
+                if (rootLength >= bound) {
+                    break; // every later spur has a longer root
+                }
+
+                workspace.startSpur();
+                for (int j = 0; j < i; j++) {
+                    workspace.banNode(last.nodes()[j]);
+                }
+                for (Path path : found) {
+                    if (path.nodes().length > i + 1 && sameRoot(path, last, i)) {
+                        workspace.banNext(path.nodes()[i + 1]);
+                    }
+                }
+
+                Path spur = workspace.search(graph, last.nodes()[i], target, last, i, bound - rootLength, true);
+                if (spur == null || !seen.add(new PathKey(spur.nodes()))) {
+                    continue;
+                }
+                insert(candidates, new Candidate(spur, i), missing);
+            }
+
+            if (candidates.isEmpty()) {
+                break;
+            }
+            Candidate next = candidates.remove(0);
+            found.add(next.path());
+            deviation = next.deviation();
+        }
+        return found;
+    }
+
+    private static boolean sameRoot(Path path, Path other, int spurIndex) {
+        return Arrays.equals(path.nodes(), 0, spurIndex + 1, other.nodes(), 0, spurIndex + 1);
+    }
+
+    private static void insert(List<Candidate> candidates, Candidate candidate, int limit) {
+        int at = candidates.size();
+        while (at > 0 && candidates.get(at - 1).path().length() > candidate.path().length()) {
+            at--;
+        }
+        if (at >= limit) {
+            return;
+        }
+        candidates.add(at, candidate);
+        if (candidates.size() > limit) {
+            candidates.remove(candidates.size() - 1);
+        }
+    }
+
+    private record Candidate(Path path, int deviation) {
+    }
+
+    private record PathKey(int[] nodes) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof PathKey key && Arrays.equals(nodes, key.nodes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(nodes);
+        }
+    }
+
+    /** Per-thread spur search state, grown to the largest graph seen. */
+    private static final class Workspace {
+
+        private double[] distances = new double[0];
+        private int[] predecessors = new int[0];
+        private int[] reachedStamps = new int[0];
+        private int[] bannedStamps = new int[0];
+        private int[] bannedNextStamps = new int[0];
+        private int stamp;
+
+        // Distance to the target and next node towards it, per find() call
+        private double[] toTarget = new double[0];
+        private int[] towardsTarget = new int[0];
+        private int[] treeStamps = new int[0];
+        private int treeStamp;
+
+        private final IndexedMinHeap heap = new IndexedMinHeap(0);
+
+        Workspace prepare(int nodeCount) {
+            if (distances.length < nodeCount) {
+                distances = new double[nodeCount];
+                predecessors = new int[nodeCount];
+                reachedStamps = new int[nodeCount];
+                bannedStamps = new int[nodeCount];
+                bannedNextStamps = new int[nodeCount];
+                toTarget = new double[nodeCount];
+                towardsTarget = new int[nodeCount];
+                treeStamps = new int[nodeCount];
+                stamp = 0;
+                treeStamp = 0;
+                heap.ensureCapacity(nodeCount);
+            }
+            return this;
+        }
+
+        /**
+         * Dijkstra from {@code target} until {@code source} is settled and then
+         * on to {@code maxStretch} times that distance, filling the
+         * distances to the target. Returns the shortest path from the source,
+         * or null if it cannot reach the target.
+         */
+        Path growTree(RoadGraph graph, int target, int source, double maxStretch) {
+            if (++treeStamp == Integer.MAX_VALUE) {
+                Arrays.fill(treeStamps, 0);
+                treeStamp = 1;
+            }
+            double radius = Double.POSITIVE_INFINITY;
+            try {
+                settleTree(target, 0.0, -1);
+                heap.insertOrDecrease(target, 0.0);
+                while (!heap.isEmpty() && heap.peekKey() <= radius) {
+                    int u = heap.poll();
+                    double du = toTarget[u];
+                    if (u == source) {
+                        radius = du * maxStretch;
+                    }
+                    for (int edge = graph.firstEdge(u), end = graph.endEdge(u); edge < end; edge++) {
+                        int v = graph.target(edge);
+                        double dv = du + graph.weight(edge);
+                        if (treeStamps[v] != treeStamp || dv < toTarget[v]) {
+                            settleTree(v, dv, u);
+                            heap.insertOrDecrease(v, dv);
+                        }
+                    }
+                }
+            } finally {
+                heap.clear();
+            }
+            if (Double.isInfinite(radius)) {
+                return null; // the source was never settled
+            }
+            // Nodes still queued are further than the radius; their distances
+            // are upper bounds, so spur searches prune them by length anyway
+
+            int count = 1;
+            for (int node = source; node != target; node = towardsTarget[node]) {
+                count++;
+            }
+            int[] nodes = new int[count];
+            double[] pathDistances = new double[count];
+            double length = toTarget[source];
+            int i = 0;
+            for (int node = source; ; node = towardsTarget[node]) {
+                nodes[i] = node;
+                pathDistances[i++] = length - toTarget[node];
+                if (node == target) {
+                    break;
+                }
+            }
+            return new Path(nodes, pathDistances);
+        }
+
+        private void settleTree(int node, double distance, int next) {
+            toTarget[node] = distance;
+            towardsTarget[node] = next;
+            treeStamps[node] = treeStamp;
+        }
+
+        void startSpur() {
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(reachedStamps, 0);
+                Arrays.fill(bannedStamps, 0);
+                Arrays.fill(bannedNextStamps, 0);
+                stamp = 1;
+            }
+        }
+
+        void banNode(int node) {
+            bannedStamps[node] = stamp;
+        }
+
+        /** Bans the edge from the spur node to {@code node}. */
+        void banNext(int node) {
+            bannedNextStamps[node] = stamp;
+        }
+
+        /**
+         * Shortest path from {@code spur} to {@code target} of at most
+         * {@code bound} km avoiding the bans, prefixed with the first
+         * {@code spurIndex} nodes of {@code root}; null if there is none.
+         * Guided by the distances from {@link #growTree} when {@code tree},
+         * else by the graph's straight-line heuristic.
+         */
+        Path search(RoadGraph graph, int spur, int target, Path root, int spurIndex, double bound, boolean tree) {
+            double scale = graph.heuristicScale();
+            try {
+                reach(spur, 0.0, -1);
+                heap.insertOrDecrease(spur, 0.0);
+                while (!heap.isEmpty() && heap.peekKey() <= bound) {
+                    int u = heap.poll();
+                    if (u == target) {
+                        return path(root, spurIndex, spur, target);
+                    }
+                    double du = distances[u];
+                    for (int edge = graph.firstEdge(u), end = graph.endEdge(u); edge < end; edge++) {
+                        int v = graph.target(edge);
+                        if (bannedStamps[v] == stamp || (u == spur && bannedNextStamps[v] == stamp)) {
+                            continue;
+                        }
+                        if (tree && treeStamps[v] != treeStamp) {
+                            continue; // too far from the target for any wanted path
+                        }
+                        double dv = du + graph.weight(edge);
+                        if (reachedStamps[v] != stamp || dv < distances[v]) {
+                            double key = tree ? dv + toTarget[v]
+                                    : scale > 0 ? dv + scale * graph.straightLineKm(v, target) : dv;
+                            if (key <= bound) {
+                                reach(v, dv, u);
+                                heap.insertOrDecrease(v, key);
+                            }
+                        }
+                    }
+                }
+                return null;
+            } finally {
+                heap.clear();
+            }
+        }
+
+        private void reach(int node, double distance, int predecessor) {
+            distances[node] = distance;
+            predecessors[node] = predecessor;
+            reachedStamps[node] = stamp;
+        }
+
+        private Path path(Path root, int spurIndex, int spur, int target) {
+            int spurNodes = 1;
+            for (int node = target; node != spur; node = predecessors[node]) {
+                spurNodes++;
+            }
+            int[] nodes = new int[spurIndex + spurNodes];
+            double[] pathDistances = new double[nodes.length];
+            double rootLength = 0.0;
+            if (root != null) {
+                System.arraycopy(root.nodes(), 0, nodes, 0, spurIndex);
+                System.arraycopy(root.distances(), 0, pathDistances, 0, spurIndex);
+                rootLength = root.distances()[spurIndex];
+            }
+            int i = nodes.length - 1;
+            for (int node = target; ; node = predecessors[node]) {
+                nodes[i] = node;
+                pathDistances[i] = rootLength + distances[node];
+                i--;
+                if (node == spur) {
+                    break;
+                }
+            }
+            return new Path(nodes, pathDistances);
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.LocalAlternativesStatsDTO;
+import com.neurofleetx.dto.RouteGeometry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Drive times from the in-memory road graph, a local stand-in for the OSRM
+ * table API.
+ *
+ * Each point is snapped to the nearest city within
+ * {@code routing.local.max-snap-km}; road distances between the snapped
+ * cities come from one {@link ContractionHierarchy#manyToMany} query, and the
+ * snap legs are added as straight lines. {@link #getMatrix} also works
+ * without a hierarchy, with one {@link ShortestPathEngine#oneToMany} search
+ * per source run in parallel on {@code routing.matrix.parallelism} threads. Kilometres are turned into seconds at
+ * {@code routing.local.speed-kmh}. Only as good as the imported network is
+ * dense: with a city-level graph most points do not snap and callers fall back
+ * to OSRM.
+ *
+ * {@link #getAlternatives} is the other way round, a fallback for when OSRM
+ * is down: up to K road routes between two points from
+ * {@link KShortestPaths}, snapping within the wider
+ * {@code routing.alternatives.max-snap-km}, with search latency kept per K.
+ */
+@Service
+public class LocalRoutingService {
+
+    private final RoadGraphProvider roadGraphProvider;
+    private final ContractionHierarchyProvider contractionHierarchyProvider;
+    private final double maxSnapKm;
+    private final double speedKmh;
+    private final double alternativesSnapKm;
+    private final double alternativesMaxStretch;
+    private final ForkJoinPool pool;
+
+    // Nearest-city lookups for the current graph, rebuilt when the graph is swapped
+    private volatile Locator locator;
+    private volatile Locator alternativesLocator;
+
+    private final Map<Integer, AlternativesCounters> alternativesCounters = new ConcurrentHashMap<>();
+
+    /**
+     * A route over the road graph: straight snap legs to and from the first
+     * and last city, road km in between.
+     */
+    public record LocalRoute(double distanceKm, double durationSeconds, RouteGeometry geometry, int cities) {
+    }
+
+    public LocalRoutingService(RoadGraphProvider roadGraphProvider,
+            ContractionHierarchyProvider contractionHierarchyProvider,
+            @Value("${routing.local.max-snap-km:2}") double maxSnapKm,
+            @Value("${routing.local.speed-kmh:30}") double speedKmh,
+            @Value("${routing.matrix.parallelism:0}") int parallelism,
+            @Value("${routing.alternatives.max-snap-km:25}") double alternativesSnapKm,
+            @Value("${routing.alternatives.max-stretch:1.5}") double alternativesMaxStretch) {
+        this.roadGraphProvider = roadGraphProvider;
+        this.contractionHierarchyProvider = contractionHierarchyProvider;
+        this.maxSnapKm = maxSnapKm;
+        this.speedKmh = speedKmh;
+        this.alternativesSnapKm = alternativesSnapKm;
+        this.alternativesMaxStretch = alternativesMaxStretch;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Drive times in seconds from each source to one destination, with the
+     * same contract as {@link OSRMService#getDurationsTo}: coordinates are
+     * {lng, lat} pairs and sources that do not snap or cannot reach the
+     * destination get NaN.
+     *
+     * @return one duration per source, or null if the hierarchy is not built
+     *         for the current graph or the destination does not snap
+     */
+    public double[] getDurationsTo(List<double[]> sources, double destinationLng, double destinationLat) {
+        RoadGraph graph = roadGraphProvider.current();
+        ContractionHierarchy hierarchy = contractionHierarchyProvider.get(graph);
+        if (hierarchy == null) {
+            return null;
+        }
+
+        Locator current = locatorFor(graph);
+        int destination = current.nearest(destinationLat, destinationLng);
+        if (destination < 0) {
+            return null;
+        }
+
+        double[] durations = new double[sources.size()];
+        Arrays.fill(durations, Double.NaN);
+        int[] snapped = new int[sources.size()];
+        int[] sourceNodes = new int[sources.size()];
+        int count = 0;
+        for (int i = 0; i < sources.size(); i++) {
+            double[] source = sources.get(i);
+            int node = current.nearest(source[1], source[0]);
+            if (node >= 0) {
+                snapped[count] = i;
+                sourceNodes[count++] = node;
+            }
+        }
+        if (count == 0) {
+            return durations;
+        }
+
+        double[][] distances = hierarchy.manyToMany(Arrays.copyOf(sourceNodes, count), new int[] { destination });
+        double destinationSnapKm = DriverScoringKernel.haversine(destinationLat, destinationLng,
+                graph.latitude(destination), graph.longitude(destination));
+        for (int k = 0; k < count; k++) {
+            double roadKm = distances[k][0];
+            if (Double.isInfinite(roadKm)) {
+                continue;
+            }
+            double[] source = sources.get(snapped[k]);
+            double sourceSnapKm = DriverScoringKernel.haversine(source[1], source[0],
+                    graph.latitude(sourceNodes[k]), graph.longitude(sourceNodes[k]));
+            durations[snapped[k]] = (sourceSnapKm + roadKm + destinationSnapKm) / speedKmh * 3600.0;
+        }
+        return durations;
+    }
+
+    /**
+     * The {@code routing.matrix.parallelism} pool matrices are searched on,
+     * for callers that run {@link #getMatrix} asynchronously: its threads may
+     * block on that search, which must not happen on the common pool.
+     */
+    public Executor matrixExecutor() {
+        return pool;
+    }
+
+    /**
+     * Travel matrix between {lng, lat} points over the road graph. Points that
+     * do not snap, and pairs with no road between them, are NaN.
+     *
+     * @return null when the graph has no cities
+     */
+    public TravelMatrix getMatrix(List<double[]> sources, List<double[]> destinations) {
+        RoadGraph graph = roadGraphProvider.current();
+        if (graph.nodeCount() == 0) {
+            return null;
+        }
+        Locator current = locatorFor(graph);
+        int rows = sources.size();
+        int cols = destinations.size();
+
+        // Snap every point once; road distances are only needed between snapped cities
+        int[] sourceNodes = snap(current, sources);
+        int[] destinationNodes = snap(current, destinations);
+        int[] snappedSources = IntStream.range(0, rows).filter(i -> sourceNodes[i] >= 0).toArray();
+        int[] snappedDestinations = IntStream.range(0, cols).filter(j -> destinationNodes[j] >= 0).toArray();
+        int[] fromNodes = Arrays.stream(snappedSources).map(i -> sourceNodes[i]).toArray();
+        int[] toNodes = Arrays.stream(snappedDestinations).map(j -> destinationNodes[j]).toArray();
+
+        double[] roadKm = new double[fromNodes.length * toNodes.length];
+        ContractionHierarchy hierarchy = contractionHierarchyProvider.get(graph);
+        if (hierarchy != null) {
+            double[][] distances = hierarchy.manyToMany(fromNodes, toNodes);
+            for (int k = 0; k < fromNodes.length; k++) {
+                System.arraycopy(distances[k], 0, roadKm, k * toNodes.length, toNodes.length);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, fromNodes.length).parallel().forEach(k ->
+                    ShortestPathEngine.oneToMany(graph, fromNodes[k], toNodes, roadKm, k * toNodes.length)))
+                    .join();
+        }
+
+        float[] durations = new float[rows * cols];
+        float[] distances = new float[rows * cols];
+        Arrays.fill(durations, Float.NaN);
+        Arrays.fill(distances, Float.NaN);
+        double[] destinationSnapKm = new double[toNodes.length];
+        for (int l = 0; l < toNodes.length; l++) {
+            double[] point = destinations.get(snappedDestinations[l]);
+            destinationSnapKm[l] = DriverScoringKernel.haversine(point[1], point[0],
+                    graph.latitude(toNodes[l]), graph.longitude(toNodes[l]));
+        }
+        for (int k = 0; k < fromNodes.length; k++) {
+            double[] point = sources.get(snappedSources[k]);
+            double sourceSnapKm = DriverScoringKernel.haversine(point[1], point[0],
+                    graph.latitude(fromNodes[k]), graph.longitude(fromNodes[k]));
+            int row = snappedSources[k] * cols;
+            for (int l = 0; l < toNodes.length; l++) {
+                double km = roadKm[k * toNodes.length + l];
+                if (Double.isInfinite(km)) {
+                    continue;
+                }
+                km += sourceSnapKm + destinationSnapKm[l];
+                distances[row + snappedDestinations[l]] = (float) km;
+                durations[row + snappedDestinations[l]] = (float) (km / speedKmh * 3600.0);
+            }
+        }
+        return new TravelMatrix(rows, cols, durations, distances, "local");
+    }
+
+    /**
+     * Up to {@code k} loopless road routes between two points, shortest
+     * first, none longer than {@code routing.alternatives.max-stretch} times
+     * the shortest.
+     *
+     * @return null when either point does not snap, both snap to the same
+     *         city, or no road connects them
+     */
+    public List<LocalRoute> getAlternatives(double fromLng, double fromLat, double toLng, double toLat, int k) {
+        RoadGraph graph = roadGraphProvider.current();
+        Locator current = alternativesLocatorFor(graph);
+        int from = current.nearest(fromLat, fromLng);
+        int to = current.nearest(toLat, toLng);
+        if (from < 0 || to < 0 || from == to) {
+            return null;
+        }
+
+        long started = System.nanoTime();
+        List<KShortestPaths.Path> paths = KShortestPaths.find(graph, from, to, k, alternativesMaxStretch);
+        long nanos = System.nanoTime() - started;
+        AlternativesCounters counters = alternativesCounters.computeIfAbsent(k, key -> new AlternativesCounters());
+        counters.searches.increment();
+        counters.paths.add(paths.size());
+        counters.nanos.add(nanos);
+        counters.maxNanos.accumulate(nanos);
+        if (paths.isEmpty()) {
+            return null;
+        }
+
+        double snapKm = DriverScoringKernel.haversine(fromLat, fromLng, graph.latitude(from), graph.longitude(from))
+                + DriverScoringKernel.haversine(toLat, toLng, graph.latitude(to), graph.longitude(to));
+        List<LocalRoute> routes = new ArrayList<>(paths.size());
+        for (KShortestPaths.Path path : paths) {
+            double km = snapKm + path.length();
+            routes.add(new LocalRoute(km, km / speedKmh * 3600.0,
+                    geometry(graph, path.nodes(), fromLng, fromLat, toLng, toLat), path.nodes().length));
+        }
+        return routes;
+    }
+
+    /**
+     * {@link #getAlternatives} searches and latency per K asked for.
+     */
+    public List<LocalAlternativesStatsDTO> getAlternativesStats() {
+        List<LocalAlternativesStatsDTO> stats = new ArrayList<>();
+        alternativesCounters.forEach((k, counters) -> {
+            long searches = counters.searches.sum();
+            stats.add(LocalAlternativesStatsDTO.builder()
+                    .k(k)
+                    .searches(searches)
+                    .avgPathsFound(searches == 0 ? 0 : counters.paths.sum() / (double) searches)
+                    .avgSearchMicros(searches == 0 ? 0 : counters.nanos.sum() / 1e3 / searches)
+                    .maxSearchMicros(counters.maxNanos.get() / 1e3)
+                    .build());
+        });
+        stats.sort((a, b) -> Integer.compare(a.getK(), b.getK()));
+        return stats;
+    }
+
+    // Pickup, the cities passed (those with coordinates), drop
+    private static RouteGeometry geometry(RoadGraph graph, int[] nodes, double fromLng, double fromLat,
+            double toLng, double toLat) {
+        double[] coordinates = new double[2 * (nodes.length + 2)];
+        int size = 0;
+        coordinates[size++] = fromLng;
+        coordinates[size++] = fromLat;
+        for (int node : nodes) {
+            if (!Double.isNaN(graph.latitude(node)) && !Double.isNaN(graph.longitude(node))) {
+                coordinates[size++] = graph.longitude(node);
+                coordinates[size++] = graph.latitude(node);
+            }
+        }
+        coordinates[size++] = toLng;
+        coordinates[size++] = toLat;
+        return RouteGeometry.copyOf(coordinates, size / 2);
+    }
+
+    private static int[] snap(Locator locator, List<double[]> points) {
+        int[] nodes = new int[points.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = locator.nearest(points.get(i)[1], points.get(i)[0]);
+        }
+        return nodes;
+    }
+
+    private Locator locatorFor(RoadGraph graph) {
+        Locator current = locator;
+        if (current == null || current.graph != graph) {
+            current = new Locator(graph, maxSnapKm);
+            locator = current;
+        }
+        return current;
+    }
+
+    private Locator alternativesLocatorFor(RoadGraph graph) {
+        Locator current = alternativesLocator;
+        if (current == null || current.graph != graph) {
+            current = new Locator(graph, alternativesSnapKm);
+            alternativesLocator = current;
+        }
+        return current;
+    }
+
+    private static class AlternativesCounters {
+        final LongAdder searches = new LongAdder();
+        final LongAdder paths = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Cities bucketed into square cells {@code maxSnapKm} tall, so the
+     * nearest city within that radius is among a handful of cells.
+     */
+    private static final class Locator {
+
+        private static final double KM_PER_DEGREE = 111.2;
+
+        private final RoadGraph graph;
+        private final double maxSnapKm;
+        private final double cellDeg;
+        private final Map<Long, int[]> cells = new HashMap<>();
+
+        Locator(RoadGraph graph, double maxSnapKm) {
+            this.graph = graph;
+            this.maxSnapKm = maxSnapKm;
+            this.cellDeg = maxSnapKm / KM_PER_DEGREE;
+            Map<Long, List<Integer>> grouped = new HashMap<>();
+            for (int node = 0; node < graph.nodeCount(); node++) {
+                if (!Double.isNaN(graph.latitude(node)) && !Double.isNaN(graph.longitude(node))) {
+                    long cell = cellOf(row(graph.latitude(node)), col(graph.longitude(node)));
+                    grouped.computeIfAbsent(cell, key -> new ArrayList<>()).add(node);
+                }
+            }
+            grouped.forEach((cell, nodes) -> cells.put(cell, nodes.stream().mapToInt(Integer::intValue).toArray()));
+        }
+
+        /** Nearest city within {@code maxSnapKm}, or -1. */
+        int nearest(double latitude, double longitude) {
+            long row = row(latitude);
+            long col = col(longitude);
+            // A degree of longitude is shorter away from the equator, so look further sideways
+            double cosLat = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+            long colReach = (long) Math.ceil(1.0 / cosLat);
+
+            int best = -1;
+            double bestKm = maxSnapKm;
+            for (long r = row - 1; r <= row + 1; r++) {
+                for (long c = col - colReach; c <= col + colReach; c++) {
+                    int[] nodes = cells.get(cellOf(r, c));
+                    if (nodes == null) {
+                        continue;
+                    }
+                    for (int node : nodes) {
+                        double km = DriverScoringKernel.haversine(latitude, longitude,
+                                graph.latitude(node), graph.longitude(node));
+                        if (km <= bestKm) {
+                            bestKm = km;
+                            best = node;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        private long row(double latitude) {
+            return (long) Math.floor(latitude / cellDeg);
+        }
+
+        private long col(double longitude) {
+            return (long) Math.floor(longitude / cellDeg);
+        }
+
+        private static long cellOf(long row, long col) {
+            return (row << 32) ^ (col & 0xffffffffL);
+        }
+    }
+}
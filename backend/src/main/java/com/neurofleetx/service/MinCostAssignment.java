@@ -0,0 +1,156 @@
+package com.neurofleetx.service;
+
+import java.util.Arrays;
+
+/**
+ * Min-cost bipartite matching (Hungarian algorithm with potentials) for a
+ * rectangular cost matrix with no more rows than columns. Runs in
+ * O(rows^2 * cols), which suits dispatch batches: a few dozen bookings
+ * against a few hundred candidate drivers.
+ *
+ * An entry of {@link Double#POSITIVE_INFINITY} forbids that pair. Forbidden
+ * pairs are solved as a cost above any difference the allowed ones can make,
+ * so as many rows as possible are assigned, at least cost among those.
+ */
+public final class MinCostAssignment {
+
+    private MinCostAssignment() {
+    }
+
+    /**
+     * @param cost  {@code cost[row][col]}, rows.length <= cols.length
+     * @return for each row, the column assigned to it, or -1 when the row
+     *         could only be given a forbidden pair
+     */
+    public static int[] solve(double[][] cost) {
+        int n = cost.length;
+        if (n == 0) {
+            return new int[0];
+        }
+        int m = cost[0].length;
+        if (n > m) {
+            throw new IllegalArgumentException("More rows than columns: " + n + " > " + m);
+        }
+
+        double[][] finite = withoutForbidden(cost);
+        if (finite == null) {
+            int[] none = new int[n];
+            Arrays.fill(none, -1);
+            return none;
+        }
+        int[] assignment = hungarian(finite, n, m);
+        if (finite != cost) {
+            for (int row = 0; row < n; row++) {
+                if (cost[row][assignment[row]] == Double.POSITIVE_INFINITY) {
+                    assignment[row] = -1;
+                }
+            }
+        }
+        return assignment;
+    }
+
+    /**
+     * {@code cost} itself when nothing is forbidden; else a copy with allowed
+     * costs shifted to start at zero and forbidden ones set to more than
+     * {@code rows} times their range, so one more allowed pair always beats
+     * any saving among the others. Null when every pair is forbidden.
+     */
+    private static double[][] withoutForbidden(double[][] cost) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        boolean forbidden = false;
+        for (double[] row : cost) {
+            for (double value : row) {
+                if (value == Double.POSITIVE_INFINITY) {
+                    forbidden = true;
+                } else {
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+            }
+        }
+        if (!forbidden) {
+            return cost;
+        }
+        if (min == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+
+        double penalty = cost.length * (max - min) + 1.0;
+        double[][] finite = new double[cost.length][];
+        for (int row = 0; row < cost.length; row++) {
+            finite[row] = new double[cost[row].length];
+            for (int col = 0; col < cost[row].length; col++) {
+                double value = cost[row][col];
+                finite[row][col] = value == Double.POSITIVE_INFINITY ? penalty : value - min;
+            }
+        }
+        return finite;
+    }
+
+    private static int[] hungarian(double[][] cost, int n, int m) {
+
+        // 1-indexed as in the classic formulation; column 0 is a sentinel
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] rowOfCol = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minSlack = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int row = 1; row <= n; row++) {
+            rowOfCol[0] = row;
+            int col0 = 0;
+            Arrays.fill(minSlack, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+
+            do {
+                used[col0] = true;
+                int row0 = rowOfCol[col0];
+                double delta = Double.POSITIVE_INFINITY;
+                int col1 = 0;
+                double[] costRow = cost[row0 - 1];
+
+                for (int col = 1; col <= m; col++) {
+                    if (used[col]) {
+                        continue;
+                    }
+                    double slack = costRow[col - 1] - u[row0] - v[col];
+                    if (slack < minSlack[col]) {
+                        minSlack[col] = slack;
+                        way[col] = col0;
+                    }
+                    if (minSlack[col] < delta) {
+                        delta = minSlack[col];
+                        col1 = col;
+                    }
+                }
+
+                for (int col = 0; col <= m; col++) {
+                    if (used[col]) {
+                        u[rowOfCol[col]] += delta;
+                        v[col] -= delta;
+                    } else {
+                        minSlack[col] -= delta;
+                    }
+                }
+                col0 = col1;
+            } while (rowOfCol[col0] != 0);
+
+            // Flip the augmenting path
+            do {
+                int col1 = way[col0];
+                rowOfCol[col0] = rowOfCol[col1];
+                col0 = col1;
+            } while (col0 != 0);
+        }
+
+        int[] assignment = new int[n];
+        for (int col = 1; col <= m; col++) {
+            if (rowOfCol[col] != 0) {
+                assignment[rowOfCol[col] - 1] = col - 1;
+            }
+        }
+        return assignment;
+    }
+}
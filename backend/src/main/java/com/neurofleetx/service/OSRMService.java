@@ -1,120 +1,338 @@
 package com.neurofleetx.service;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neurofleetx.dto.RouteCoalescingStatsDTO;
+import com.neurofleetx.dto.RouteGeometry;
 import com.neurofleetx.dto.RouteOptionDTO;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
 public class OSRMService {
 
     private static final Logger logger = LoggerFactory.getLogger(OSRMService.class);
-    private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper;
+    private final OsrmRouteCache routeCache;
+    private final OsrmClient osrmClient;
+    private final TrafficProfiles trafficProfiles;
+    private final LocalRoutingService localRoutingService;
+
+    // Concurrent cache misses for one trip share a single OSRM fetch
+    private final SingleFlight<OsrmRouteCache.RouteKey, List<RouteOptionDTO>> routeFetches = new SingleFlight<>();
 
     @Value("${osrm.api.url:http://router.project-osrm.org}")
     private String osrmApiUrl;
 
-    private static final double TRAFFIC_WEIGHT_DEFAULT = 0.0;
+    @Value("${osrm.coalesce.enabled:true}")
+    private boolean coalesceEnabled;
+
+    @Value("${routing.alternatives.k:3}")
+    private int alternativesK;
+
+    private static final BigDecimal TRAFFIC_WEIGHT = BigDecimal.valueOf(0.1);
 
     /**
-     * Fetches routes from OSRM API including alternatives
+     * Fetches routes from OSRM API including alternatives, or from
+     * {@link OsrmRouteCache} when the same trip was asked for recently.
+     * Blocks until {@link #getRoutesAsync} completes.
      * 
      * @return List of RouteOptionDTO containing route data
      */
     public List<RouteOptionDTO> getRoutes(Double pickupLng, Double pickupLat,
             Double dropLng, Double dropLat) {
-        try {
-            String url = String.format(
-                    "%s/route/v1/driving/%f,%f;%f,%f?alternatives=true&overview=full&geometries=geojson&steps=true",
-                    osrmApiUrl, pickupLng, pickupLat, dropLng, dropLat);
+        return getRoutesAsync(pickupLng, pickupLat, dropLng, dropLat).join();
+    }
 
-            logger.info("Calling OSRM API: {}", url);
-            String response = restTemplate.getForObject(url, String.class);
+    /**
+     * Non-blocking {@link #getRoutes}: never completes exceptionally, a failed
+     * or refused OSRM call completes with fallback routes over the local road
+     * graph, or a straight line when the trip does not map onto it.
+     * While {@link OsrmClient}'s circuit is open that happens immediately.
+     *
+     * On a cache miss, requests for a trip in the same cache grid cells as a
+     * fetch already in flight wait for that fetch rather than calling OSRM
+     * again ({@code osrm.coalesce.enabled}).
+     *
+     * The traffic part of each score is added last, for the current time, so
+     * cached routes are scored for when they are asked for.
+     */
+    public CompletableFuture<List<RouteOptionDTO>> getRoutesAsync(Double pickupLng, Double pickupLat,
+            Double dropLng, Double dropLat) {
+        List<RouteOptionDTO> cached = routeCache.get(pickupLng, pickupLat, dropLng, dropLat);
+        if (cached != null) {
+            logger.debug("OSRM route cache hit for ({}, {}) -> ({}, {})", pickupLng, pickupLat, dropLng, dropLat);
+            return CompletableFuture.completedFuture(withTraffic(cached));
+        }
+        if (!coalesceEnabled) {
+            return fetchRoutes(pickupLng, pickupLat, dropLng, dropLat).thenApply(this::withTraffic);
+        }
 
-            if (response == null) {
-                logger.error("OSRM API returned null response");
-                return getFallbackRoute(pickupLng, pickupLat, dropLng, dropLat);
-            }
+        OsrmRouteCache.RouteKey key = routeCache.key(pickupLng, pickupLat, dropLng, dropLat);
+        // Every waiter sorts and flags its own copy
+        return routeFetches.run(key, () -> fetchRoutes(pickupLng, pickupLat, dropLng, dropLat))
+                .thenApply(routes -> withTraffic(OsrmRouteCache.copy(routes)));
+    }
 
-            return parseOSRMResponse(response);
+    /**
+     * Adds the traffic (10%) part of each route's score: the minutes that
+     * {@link TrafficProfiles} expects congestion along its geometry to add
+     * to its duration when leaving now (negative when roads are quieter than
+     * usual, zero before any trips are learned).
+     */
+    private List<RouteOptionDTO> withTraffic(List<RouteOptionDTO> routes) {
+        LocalDateTime now = LocalDateTime.now();
+        for (RouteOptionDTO route : routes) {
+            double congestion = trafficProfiles.congestionAlong(route.getGeometry(), now);
+            BigDecimal delayMinutes = route.getDuration().multiply(BigDecimal.valueOf(congestion - 1.0))
+                    .setScale(2, RoundingMode.HALF_UP);
+            route.setScore(route.getScore().add(delayMinutes.multiply(TRAFFIC_WEIGHT)));
+        }
+        return routes;
+    }
 
+    public RouteCoalescingStatsDTO getCoalescingStats() {
+        long fetches = routeFetches.fetches();
+        long coalesced = routeFetches.coalesced();
+        return RouteCoalescingStatsDTO.builder()
+                .enabled(coalesceEnabled)
+                .inFlight(routeFetches.inFlight())
+                .fetches(fetches)
+                .coalesced(coalesced)
+                .averageFanIn(fetches > 0 ? (double) (fetches + coalesced) / fetches : 0.0)
+                .maxFanIn(routeFetches.maxFanIn())
+                .build();
+    }
+
+    private CompletableFuture<List<RouteOptionDTO>> fetchRoutes(Double pickupLng, Double pickupLat,
+            Double dropLng, Double dropLat) {
+        String url = String.format(
+                "%s/route/v1/driving/%f,%f;%f,%f?alternatives=true&overview=full&geometries=geojson&steps=true",
+                osrmApiUrl, pickupLng, pickupLat, dropLng, dropLat);
+        logger.info("Calling OSRM API: {}", url);
+
+        return osrmClient.get(url)
+                .thenApply(response -> {
+                    List<RouteOptionDTO> routes = parseRoutes(response);
+                    routeCache.put(pickupLng, pickupLat, dropLng, dropLat, routes);
+                    return routes;
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof OsrmClient.OsrmUnavailableException) {
+                        logger.warn("OSRM unavailable: {}", cause.getMessage());
+                    } else {
+                        logger.error("Error calling OSRM API: {}", cause.getMessage(), cause);
+                    }
+                    return getFallbackRoute(pickupLng, pickupLat, dropLng, dropLat);
+                });
+    }
+
+    /**
+     * Drive times in seconds from each source to one destination, using a
+     * single OSRM table request instead of one route request per source.
+     * Coordinates are {lng, lat} pairs. Unreachable sources get NaN.
+     *
+     * @return one duration per source, or null if OSRM could not be reached
+     */
+    public double[] getDurationsTo(List<double[]> sources, double destinationLng, double destinationLat) {
+        if (sources.isEmpty()) {
+            return new double[0];
+        }
+
+        StringBuilder coordinates = new StringBuilder();
+        StringBuilder sourceIndexes = new StringBuilder();
+        for (int i = 0; i < sources.size(); i++) {
+            double[] source = sources.get(i);
+            coordinates.append(String.format(Locale.ROOT, "%.6f,%.6f;", source[0], source[1]));
+            sourceIndexes.append(i > 0 ? ";" : "").append(i);
+        }
+        coordinates.append(String.format(Locale.ROOT, "%.6f,%.6f", destinationLng, destinationLat));
+
+        String url = String.format("%s/table/v1/driving/%s?sources=%s&destinations=%d&annotations=duration",
+                osrmApiUrl, coordinates, sourceIndexes, sources.size());
+
+        try {
+            // Bounded by osrm.client.timeout-ms, or refused at once while the circuit is open
+            String response = osrmClient.get(url).join();
+            return parseTableDurations(response, sources.size());
+        } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            logger.warn("OSRM table request for {} sources failed: {}", sources.size(), cause.getMessage());
+            return null;
+        }
+    }
+
+    private List<RouteOptionDTO> parseRoutes(String response) {
+        try {
+            return parseOSRMResponse(response);
+        } catch (RuntimeException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("Error calling OSRM API: {}", e.getMessage(), e);
-            return getFallbackRoute(pickupLng, pickupLat, dropLng, dropLat);
+            throw new RuntimeException("Cannot parse OSRM response: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Reads the single destination column of an OSRM table response
+     */
+    double[] parseTableDurations(String response, int sourceCount) throws Exception {
+        JsonNode root = objectMapper.readTree(response);
+        JsonNode durations = root.get("durations");
+        if (!"Ok".equals(root.path("code").asText()) || durations == null || durations.size() != sourceCount) {
+            throw new RuntimeException("Unexpected OSRM table response: " + root.path("code").asText());
+        }
+
+        double[] seconds = new double[sourceCount];
+        for (int i = 0; i < sourceCount; i++) {
+            JsonNode cell = durations.get(i).get(0);
+            seconds[i] = cell == null || cell.isNull() ? Double.NaN : cell.asDouble();
+        }
+        return seconds;
+    }
+
     /**
      * Parses OSRM JSON response and converts to RouteOptionDTO list
+     * (package-private so backend-benchmarks can measure it).
+     *
+     * Streams through the response with a {@link JsonParser} instead of
+     * building a tree: only each route's distance, duration and geometry are
+     * read, the geometry straight into a packed {@link RouteGeometry}, and
+     * everything else (legs, steps, waypoints) is skipped token by token.
      */
-    private List<RouteOptionDTO> parseOSRMResponse(String response) throws Exception {
+    List<RouteOptionDTO> parseOSRMResponse(String response) throws Exception {
         List<RouteOptionDTO> routes = new ArrayList<>();
-        JsonNode root = objectMapper.readTree(response);
+        try (JsonParser parser = objectMapper.getFactory().createParser(response)) {
+            parser.enable(JsonParser.Feature.USE_FAST_DOUBLE_PARSER);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RuntimeException("Unexpected OSRM response");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("routes".equals(field) && value == JsonToken.START_ARRAY) {
+                    for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                        if (token != JsonToken.START_OBJECT) {
+                            throw new RuntimeException("Unexpected OSRM route: " + token);
+                        }
+                        routes.add(readRoute(parser));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
 
-        if (!root.has("routes") || root.get("routes").size() == 0) {
+        if (routes.isEmpty()) {
             throw new RuntimeException("No routes found in OSRM response");
         }
+        return routes;
+    }
+
+    /**
+     * Reads one route object, the parser positioned on its opening brace
+     */
+    private RouteOptionDTO readRoute(JsonParser parser) throws IOException {
+        double distanceMeters = Double.NaN;
+        double durationSeconds = Double.NaN;
+        RouteGeometry geometry = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("distance".equals(field) && value.isNumeric()) {
+                distanceMeters = parser.getDoubleValue();
+            } else if ("duration".equals(field) && value.isNumeric()) {
+                durationSeconds = parser.getDoubleValue();
+            } else if ("geometry".equals(field) && value == JsonToken.START_OBJECT) {
+                geometry = readGeoJsonCoordinates(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (Double.isNaN(distanceMeters) || Double.isNaN(durationSeconds)) {
+            throw new RuntimeException("OSRM route without distance or duration");
+        }
 
-        JsonNode routesNode = root.get("routes");
+        RouteOptionDTO route = new RouteOptionDTO();
 
-        for (int i = 0; i < routesNode.size(); i++) {
-            JsonNode routeNode = routesNode.get(i);
-            RouteOptionDTO route = new RouteOptionDTO();
+        // Distance in meters, convert to km
+        route.setDistance(BigDecimal.valueOf(distanceMeters / 1000.0).setScale(2, RoundingMode.HALF_UP));
 
-            // Distance in meters, convert to km
-            double distanceMeters = routeNode.get("distance").asDouble();
-            route.setDistance(BigDecimal.valueOf(distanceMeters / 1000.0).setScale(2, RoundingMode.HALF_UP));
+        // Duration in seconds, convert to minutes
+        route.setDuration(BigDecimal.valueOf(durationSeconds / 60.0).setScale(2, RoundingMode.HALF_UP));
 
-            // Duration in seconds, convert to minutes
-            double durationSeconds = routeNode.get("duration").asDouble();
-            route.setDuration(BigDecimal.valueOf(durationSeconds / 60.0).setScale(2, RoundingMode.HALF_UP));
+        route.setGeometry(geometry);
 
-            // Extract geometry coordinates
-            if (routeNode.has("geometry") && routeNode.get("geometry").has("coordinates")) {
-                JsonNode coordinates = routeNode.get("geometry").get("coordinates");
-                List<List<Double>> geometry = new ArrayList<>();
-                for (JsonNode coord : coordinates) {
-                    List<Double> point = new ArrayList<>();
-                    point.add(coord.get(0).asDouble()); // longitude
-                    point.add(coord.get(1).asDouble()); // latitude
-                    geometry.add(point);
-                }
-                route.setGeometry(geometry);
-            }
+        // Calculate score: prioritize duration (60%), distance (30%); traffic (10%)
+        // depends on the time of the request and is added by withTraffic
+        BigDecimal durationScore = route.getDuration().multiply(BigDecimal.valueOf(0.6));
+        BigDecimal distanceScore = route.getDistance().multiply(BigDecimal.valueOf(0.3));
 
-            // Calculate score: prioritize duration (60%), distance (30%), traffic (10%)
-            BigDecimal durationScore = route.getDuration().multiply(BigDecimal.valueOf(0.6));
-            BigDecimal distanceScore = route.getDistance().multiply(BigDecimal.valueOf(0.3));
-            BigDecimal trafficScore = BigDecimal.valueOf(TRAFFIC_WEIGHT_DEFAULT * 0.1);
+        route.setScore(durationScore.add(distanceScore));
+        route.setSummary(String.format("%.1f km, %.0f min",
+                route.getDistance().doubleValue(),
+                route.getDuration().doubleValue()));
 
-            route.setScore(durationScore.add(distanceScore).add(trafficScore));
-            route.setSummary(String.format("%.1f km, %.0f min",
-                    route.getDistance().doubleValue(),
-                    route.getDuration().doubleValue()));
+        return route;
+    }
 
-            routes.add(route);
+    /**
+     * Coordinates of a GeoJSON LineString object, the parser positioned on
+     * its opening brace; null when it has none
+     */
+    private RouteGeometry readGeoJsonCoordinates(JsonParser parser) throws IOException {
+        RouteGeometry geometry = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY && "coordinates".equals(field)) {
+                geometry = RouteGeometry.read(parser);
+            } else {
+                parser.skipChildren();
+            }
         }
-
-        return routes;
+        return geometry;
     }
 
     /**
-     * Fallback route calculation using straight-line distance
+     * Routes when OSRM cannot answer: up to {@code routing.alternatives.k}
+     * routes over the cached road graph ({@link LocalRoutingService#getAlternatives}),
+     * or a straight line when the trip does not map onto it
      */
     private List<RouteOptionDTO> getFallbackRoute(Double pickupLng, Double pickupLat,
             Double dropLng, Double dropLat) {
+        List<LocalRoutingService.LocalRoute> local = null;
+        try {
+            local = localRoutingService.getAlternatives(pickupLng, pickupLat, dropLng, dropLat, alternativesK);
+        } catch (RuntimeException e) {
+            // e.g. the road graph cannot be loaded yet; this path must not fail
+            logger.warn("Local road graph alternatives failed: {}", e.getMessage());
+        }
+        if (local != null) {
+            logger.warn("Using {} route(s) from the local road graph", local.size());
+            List<RouteOptionDTO> routes = new ArrayList<>(local.size());
+            for (LocalRoutingService.LocalRoute route : local) {
+                routes.add(localRoute(route));
+            }
+            return routes;
+        }
+
         logger.warn("Using fallback route calculation");
 
         RouteOptionDTO fallbackRoute = new RouteOptionDTO();
@@ -130,10 +348,7 @@ public class OSRMService {
         fallbackRoute.setDuration(duration);
 
         // Simple geometry: straight line
-        List<List<Double>> geometry = new ArrayList<>();
-        geometry.add(List.of(pickupLng, pickupLat));
-        geometry.add(List.of(dropLng, dropLat));
-        fallbackRoute.setGeometry(geometry);
+        fallbackRoute.setGeometry(RouteGeometry.wrap(new double[] { pickupLng, pickupLat, dropLng, dropLat }));
 
         // Calculate score
         BigDecimal score = duration.multiply(BigDecimal.valueOf(0.6))
@@ -145,6 +360,20 @@ public class OSRMService {
         return List.of(fallbackRoute);
     }
 
+    private RouteOptionDTO localRoute(LocalRoutingService.LocalRoute local) {
+        RouteOptionDTO route = new RouteOptionDTO();
+        route.setDistance(BigDecimal.valueOf(local.distanceKm()).setScale(2, RoundingMode.HALF_UP));
+        route.setDuration(BigDecimal.valueOf(local.durationSeconds() / 60.0).setScale(2, RoundingMode.HALF_UP));
+        route.setGeometry(local.geometry());
+
+        BigDecimal score = route.getDuration().multiply(BigDecimal.valueOf(0.6))
+                .add(route.getDistance().multiply(BigDecimal.valueOf(0.3)));
+        route.setScore(score);
+        route.setSummary(String.format("%.1f km (road network), %.0f min (estimated), via %d cities",
+                route.getDistance().doubleValue(), route.getDuration().doubleValue(), local.cities()));
+        return route;
+    }
+
     /**
      * Haversine formula for calculating distance between two coordinates
      */
@@ -0,0 +1,136 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.OsrmClientStatsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Non-blocking HTTP client for OSRM.
+ *
+ * One shared {@link HttpClient} keeps keep-alive connections pooled, and
+ * every request is bounded by {@code osrm.client.connect-timeout-ms} and
+ * {@code osrm.client.timeout-ms}. Two guards keep a slow or failing OSRM
+ * from piling up work:
+ * <ul>
+ * <li>a bulkhead: at most {@code osrm.client.max-concurrent} requests in
+ * flight, further ones are refused at once rather than queued;</li>
+ * <li>a {@link CircuitBreaker} that opens after
+ * {@code osrm.circuit.failure-threshold} failures in a row and refuses calls
+ * for {@code osrm.circuit.open-ms}, so callers go to their fallback without
+ * waiting on a timeout.</li>
+ * </ul>
+ * Refused calls complete exceptionally with {@link OsrmUnavailableException}.
+ */
+@Component
+public class OsrmClient {
+
+    private final HttpClient httpClient;
+    private final Duration timeout;
+    private final int maxConcurrent;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejectedBulkhead = new LongAdder();
+    private final LongAdder rejectedCircuitOpen = new LongAdder();
+
+    public OsrmClient(@Value("${osrm.client.connect-timeout-ms:2000}") long connectTimeoutMillis,
+            @Value("${osrm.client.timeout-ms:5000}") long timeoutMillis,
+            @Value("${osrm.client.max-concurrent:32}") int maxConcurrent,
+            @Value("${osrm.circuit.failure-threshold:5}") int failureThreshold,
+            @Value("${osrm.circuit.open-ms:30000}") long openMillis) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1) // OSRM speaks HTTP/1.1; skips the h2c upgrade attempt
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openMillis);
+    }
+
+    /**
+     * GETs {@code url} and completes with the response body. Completes
+     * exceptionally on refusal, timeout, connection failure or a non-2xx
+     * status. Completion runs on the HTTP client's threads, so callers should
+     * keep their continuations short.
+     */
+    public CompletableFuture<String> get(String url) {
+        if (!bulkhead.tryAcquire()) {
+            rejectedBulkhead.increment();
+            return CompletableFuture.failedFuture(
+                    new OsrmUnavailableException("OSRM bulkhead full (" + maxConcurrent + " requests in flight)"));
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            bulkhead.release();
+            rejectedCircuitOpen.increment();
+            return CompletableFuture.failedFuture(new OsrmUnavailableException("OSRM circuit open"));
+        }
+
+        calls.increment();
+        CompletableFuture<HttpResponse<String>> response;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(timeout)
+                    .GET()
+                    .build();
+            response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        return response.handle((reply, error) -> {
+            bulkhead.release();
+            // 4xx means a bad request (no route, invalid coordinates), not an unhealthy OSRM
+            if (error != null || reply.statusCode() >= 500) {
+                failures.increment();
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+
+            if (error != null) {
+                throw new OsrmUnavailableException("OSRM request failed: " + error.getMessage(), error);
+            }
+            if (reply.statusCode() / 100 != 2) {
+                throw new OsrmUnavailableException("OSRM answered HTTP " + reply.statusCode());
+            }
+            return reply.body();
+        });
+    }
+
+    public OsrmClientStatsDTO getStats() {
+        return OsrmClientStatsDTO.builder()
+                .circuitState(circuitBreaker.state().name())
+                .circuitOpened(circuitBreaker.timesOpened())
+                .inFlight(maxConcurrent - bulkhead.availablePermits())
+                .maxConcurrent(maxConcurrent)
+                .calls(calls.sum())
+                .failures(failures.sum())
+                .rejectedBulkhead(rejectedBulkhead.sum())
+                .rejectedCircuitOpen(rejectedCircuitOpen.sum())
+                .build();
+    }
+
+    /** OSRM could not be asked or did not give a usable answer. */
+    public static class OsrmUnavailableException extends RuntimeException {
+
+        public OsrmUnavailableException(String message) {
+            super(message);
+        }
+
+        public OsrmUnavailableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
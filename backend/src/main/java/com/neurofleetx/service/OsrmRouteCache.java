@@ -0,0 +1,235 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.OsrmCacheStatsDTO;
+import com.neurofleetx.dto.RouteOptionDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recent OSRM route answers, so repeated route screens for the same trip do
+ * not wait on OSRM again.
+ *
+ * Pickup and drop coordinates are rounded to a grid of
+ * {@code osrm.cache.precision-m} (50 m by default), so requests whose ends
+ * fall in the same grid cells share an entry. Entries live for
+ * {@code osrm.cache.ttl-ms} and at most {@code osrm.cache.max-entries} are
+ * kept, dropping the least recently used. Only real OSRM answers are stored,
+ * never the fallback routes.
+ *
+ * Behind the memory tier sits the optional {@link OsrmRouteStore} on disk,
+ * which lives longer and survives restarts: memory misses are looked up
+ * there and promoted, and every put and invalidation goes to both.
+ *
+ * Callers sort and flag the route list they get, so lists and DTOs are
+ * copied in and out; {@link com.neurofleetx.dto.RouteGeometry} is immutable
+ * and shared.
+ */
+@Component
+public class OsrmRouteCache {
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    private final boolean enabled;
+    private final double precisionMeters;
+    private final double precisionDeg;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final OsrmRouteStore store;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<RouteKey, CachedRoutes> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public OsrmRouteCache(@Value("${osrm.cache.enabled:true}") boolean enabled,
+            @Value("${osrm.cache.precision-m:50}") double precisionMeters,
+            @Value("${osrm.cache.max-entries:10000}") int maxEntries,
+            @Value("${osrm.cache.ttl-ms:300000}") long ttlMillis,
+            OsrmRouteStore store) {
+        this.enabled = enabled;
+        this.precisionMeters = precisionMeters;
+        this.precisionDeg = precisionMeters / METERS_PER_DEGREE;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.store = store;
+    }
+
+    /**
+     * Cached routes for a trip, or null on a miss.
+     */
+    public List<RouteOptionDTO> get(double pickupLng, double pickupLat, double dropLng, double dropLat) {
+        if (!enabled) {
+            return null;
+        }
+        RouteKey key = key(pickupLng, pickupLat, dropLng, dropLat);
+        CachedRoutes cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+            if (cached != null && cached.expiresAtNanos() <= System.nanoTime()) {
+                entries.remove(key);
+                expirations.increment();
+                cached = null;
+            }
+        }
+        if (cached == null) {
+            misses.increment();
+            return fromStore(key);
+        }
+        hits.increment();
+        return copy(cached.routes());
+    }
+
+    public void put(double pickupLng, double pickupLat, double dropLng, double dropLat, List<RouteOptionDTO> routes) {
+        if (!enabled || maxEntries <= 0) {
+            return;
+        }
+        RouteKey key = key(pickupLng, pickupLat, dropLng, dropLat);
+        remember(key, copy(routes));
+        store.put(key, routes);
+    }
+
+    /**
+     * Routes for a memory miss from the disk tier, kept in memory again if found.
+     */
+    private List<RouteOptionDTO> fromStore(RouteKey key) {
+        List<RouteOptionDTO> stored = store.get(key);
+        if (stored == null || maxEntries <= 0) {
+            return stored;
+        }
+        remember(key, stored);
+        return copy(stored);
+    }
+
+    private void remember(RouteKey key, List<RouteOptionDTO> routes) {
+        CachedRoutes cached = new CachedRoutes(routes, System.nanoTime() + ttlMillis * 1_000_000L);
+        synchronized (entries) {
+            entries.put(key, cached);
+            Iterator<CachedRoutes> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Drops every entry whose pickup or drop lies in the given box, e.g.
+     * after a road closure there. Returns how many were dropped.
+     */
+    public int invalidate(double minLat, double minLng, double maxLat, double maxLng) {
+        int removed = 0;
+        synchronized (entries) {
+            for (Iterator<RouteKey> keys = entries.keySet().iterator(); keys.hasNext();) {
+                RouteKey key = keys.next();
+                if (inBox(key.pickupLat(), key.pickupLng(), minLat, minLng, maxLat, maxLng)
+                        || inBox(key.dropLat(), key.dropLng(), minLat, minLng, maxLat, maxLng)) {
+                    keys.remove();
+                    removed++;
+                }
+            }
+        }
+        store.invalidate(key -> inBox(key.pickupLat(), key.pickupLng(), minLat, minLng, maxLat, maxLng)
+                || inBox(key.dropLat(), key.dropLng(), minLat, minLng, maxLat, maxLng));
+        invalidations.add(removed);
+        return removed;
+    }
+
+    public int invalidateAll() {
+        int removed;
+        synchronized (entries) {
+            removed = entries.size();
+            entries.clear();
+        }
+        store.clear();
+        invalidations.add(removed);
+        return removed;
+    }
+
+    public OsrmCacheStatsDTO getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return OsrmCacheStatsDTO.builder()
+                .enabled(enabled)
+                .entries(size)
+                .maxEntries(maxEntries)
+                .precisionMeters(precisionMeters)
+                .ttlMillis(ttlMillis)
+                .hits(hitCount)
+                .misses(misses.sum())
+                .hitRate(lookups == 0 ? 0 : hitCount / (double) lookups)
+                .evictions(evictions.sum())
+                .expirations(expirations.sum())
+                .invalidations(invalidations.sum())
+                .storeEnabled(store.isEnabled())
+                .storeEntries(store.size())
+                .storeSegments(store.segmentCount())
+                .storeBytes(store.sizeBytes())
+                .storeHits(store.hits())
+                .storeAppends(store.appends())
+                .storeCompactions(store.compactions())
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${osrm.cache.ttl-ms:300000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        int expired = 0;
+        synchronized (entries) {
+            for (Iterator<CachedRoutes> values = entries.values().iterator(); values.hasNext();) {
+                if (values.next().expiresAtNanos() <= now) {
+                    values.remove();
+                    expired++;
+                }
+            }
+        }
+        expirations.add(expired);
+    }
+
+    /**
+     * Grid cell pair a trip falls in; trips with equal keys share an entry.
+     */
+    RouteKey key(double pickupLng, double pickupLat, double dropLng, double dropLat) {
+        return new RouteKey(quantize(pickupLat), quantize(pickupLng), quantize(dropLat), quantize(dropLng));
+    }
+
+    private long quantize(double degrees) {
+        return Math.round(degrees / precisionDeg);
+    }
+
+    private boolean inBox(long lat, long lng, double minLat, double minLng, double maxLat, double maxLng) {
+        double latitude = lat * precisionDeg;
+        double longitude = lng * precisionDeg;
+        return latitude >= minLat && latitude <= maxLat && longitude >= minLng && longitude <= maxLng;
+    }
+
+    static List<RouteOptionDTO> copy(List<RouteOptionDTO> routes) {
+        List<RouteOptionDTO> copies = new ArrayList<>(routes.size());
+        for (RouteOptionDTO route : routes) {
+            copies.add(new RouteOptionDTO(route.getDistance(), route.getDuration(), route.getScore(),
+                    route.getGeometry(), route.getPolyline(), route.getSummary(), route.isBestRoute()));
+        }
+        return copies;
+    }
+
+    record RouteKey(long pickupLat, long pickupLng, long dropLat, long dropLng) {
+    }
+
+    private record CachedRoutes(List<RouteOptionDTO> routes, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,726 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.RouteOptionDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Disk tier behind {@link OsrmRouteCache}, so route answers survive a
+ * restart: an append-only store of segment files in
+ * {@code osrm.cache.store.dir} (disabled when empty).
+ *
+ * Every cached answer is appended as one checksummed record holding the
+ * cache key, an expiry {@code osrm.cache.store.ttl-ms} ahead and a compact
+ * form of each route: exact decimal distance, duration and score, the
+ * summary, and the geometry as a polyline6 string (OSRM's own coordinate
+ * precision). Invalidations append tombstones. Segments roll over at
+ * {@code osrm.cache.store.segment-bytes}.
+ *
+ * At startup every segment is memory-mapped and scanned once to rebuild
+ * the in-memory index (key to file position), so warm answers are served
+ * right away; a torn record at the end of a segment, left by a crash, is
+ * cut off. Lookups then read single records by position, outside the lock.
+ *
+ * Once the files exceed {@code osrm.cache.store.max-bytes} they are
+ * compacted into one segment holding only live records, newest first and at
+ * most half the cap, so a compaction is not followed by another right away.
+ * Compaction copies a snapshot of the index on its own thread while appends
+ * go on to a fresh segment, and takes the lock only to swap the result in.
+ * The compacted segment's header names the last segment it replaces: if the
+ * process dies before those are deleted, the next load deletes them rather
+ * than reading back records the compaction dropped. Leftover {@code .tmp}
+ * files of an interrupted compaction are deleted at load as well.
+ *
+ * Appends and tombstones run on one writer thread, off the threads that
+ * complete OSRM calls.
+ */
+@Component
+public class OsrmRouteStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(OsrmRouteStore.class);
+
+    private static final int MAGIC = 0x4E465852; // "NFXR"
+    private static final int VERSION = 2;
+    private static final int SEGMENT_HEADER_BYTES = 24; // magic, version, key precision in metres, last segment replaced
+    private static final int RECORD_HEADER_BYTES = 8; // body length, CRC32 of the body
+    private static final int KEY_BYTES = 32;
+    private static final int POLYLINE_PRECISION = 6;
+    private static final short TOMBSTONE = -1;
+
+    private final Path directory;
+    private final double precisionMeters;
+    private final long maxBytes;
+    private final long segmentBytes;
+    private final long ttlMillis;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "osrm-route-store");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "osrm-route-store-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by this
+    private final Map<OsrmRouteCache.RouteKey, Location> index = new HashMap<>();
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private long totalBytes;
+    private long nextSegmentId = 1;
+    private boolean rollOver; // the next append starts a new segment
+    private boolean compacting;
+    private long epoch; // bumped by clear(), which voids a running compaction
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder appends = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+
+    public OsrmRouteStore(@Value("${osrm.cache.store.dir:}") String directory,
+            @Value("${osrm.cache.precision-m:50}") double precisionMeters,
+            @Value("${osrm.cache.store.max-bytes:67108864}") long maxBytes,
+            @Value("${osrm.cache.store.segment-bytes:8388608}") long segmentBytes,
+            @Value("${osrm.cache.store.ttl-ms:86400000}") long ttlMillis) {
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+        this.precisionMeters = precisionMeters;
+        this.maxBytes = maxBytes;
+        this.segmentBytes = Math.min(segmentBytes, maxBytes);
+        this.ttlMillis = ttlMillis;
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        if (directory == null) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.toList();
+            }
+            long superseded = 0;
+            for (Path file : files) {
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    deleteQuietly(file); // an interrupted compaction
+                } else if (segmentId(file) >= 0) {
+                    Segment segment = openSegment(segmentId(file), file);
+                    if (segment != null) {
+                        superseded = Math.max(superseded, segment.supersedes);
+                    }
+                }
+            }
+
+            // A compaction that died between renaming its segment into place
+            // and deleting the ones it replaced
+            for (Iterator<Segment> stale = segments.headMap(superseded, true).values().iterator(); stale.hasNext();) {
+                Segment segment = stale.next();
+                logger.info("Deleting OSRM route store segment {}, replaced by a compacted segment", segment.path);
+                closeQuietly(segment);
+                deleteQuietly(segment.path);
+                totalBytes -= segment.size;
+                stale.remove();
+            }
+
+            long now = System.currentTimeMillis();
+            for (Segment segment : segments.values()) {
+                scan(segment, now);
+            }
+            nextSegmentId = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+            logger.info("OSRM route store {}: {} routes in {} segment(s), {} KB, loaded in {} ms", directory,
+                    index.size(), segments.size(), totalBytes / 1024, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot load OSRM route store {}, starting empty: {}", directory, e.getMessage());
+            closeAll();
+            index.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+        compactor.shutdownNow();
+        synchronized (this) {
+            closeAll();
+        }
+    }
+
+    /**
+     * Stored routes for {@code key}, or null when absent or expired.
+     */
+    public List<RouteOptionDTO> get(OsrmRouteCache.RouteKey key) {
+        if (directory == null) {
+            return null;
+        }
+        // A second try when a compaction or clear() closed the segment meanwhile
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Location location;
+            synchronized (this) {
+                location = index.get(key);
+                if (location == null) {
+                    return null;
+                }
+                if (location.expiresAtMillis() <= System.currentTimeMillis()) {
+                    index.remove(key, location);
+                    return null;
+                }
+            }
+            try {
+                ByteBuffer body = readBody(location);
+                hits.increment();
+                return decodeRoutes(body);
+            } catch (ClosedChannelException e) {
+                // look the key up again
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Dropping unreadable OSRM route store record: {}", e.getMessage());
+                synchronized (this) {
+                    index.remove(key, location);
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Appends {@code routes} for {@code key} in the background.
+     */
+    public void put(OsrmRouteCache.RouteKey key, List<RouteOptionDTO> routes) {
+        if (directory == null) {
+            return;
+        }
+        long expiresAtMillis = System.currentTimeMillis() + ttlMillis;
+        byte[] body;
+        try {
+            body = encode(key, expiresAtMillis, routes);
+        } catch (ArithmeticException e) {
+            return; // a value too large for the record format; just not persisted
+        }
+        writer.execute(() -> append(key, body, expiresAtMillis));
+    }
+
+    /**
+     * Removes every key matching {@code predicate} now, and records
+     * tombstones so they do not come back after a restart.
+     */
+    public void invalidate(Predicate<OsrmRouteCache.RouteKey> predicate) {
+        if (directory == null) {
+            return;
+        }
+        List<OsrmRouteCache.RouteKey> removed = new ArrayList<>();
+        synchronized (this) {
+            removeMatching(predicate, removed);
+        }
+        // Runs after any put queued before it, so those are removed too
+        writer.execute(() -> {
+            synchronized (this) {
+                removeMatching(predicate, removed);
+            }
+            for (OsrmRouteCache.RouteKey key : removed) {
+                append(key, encode(key, Long.MAX_VALUE, null), Long.MAX_VALUE);
+            }
+        });
+    }
+
+    private void removeMatching(Predicate<OsrmRouteCache.RouteKey> predicate, List<OsrmRouteCache.RouteKey> removed) {
+        for (Iterator<OsrmRouteCache.RouteKey> keys = index.keySet().iterator(); keys.hasNext();) {
+            OsrmRouteCache.RouteKey key = keys.next();
+            if (predicate.test(key)) {
+                keys.remove();
+                removed.add(key);
+            }
+        }
+    }
+
+    /**
+     * Deletes every segment.
+     */
+    public void clear() {
+        if (directory == null) {
+            return;
+        }
+        synchronized (this) {
+            index.clear();
+        }
+        writer.execute(() -> {
+            synchronized (this) {
+                index.clear();
+                epoch++;
+                for (Segment segment : segments.values()) {
+                    closeQuietly(segment);
+                    deleteQuietly(segment.path);
+                }
+                segments.clear();
+                totalBytes = 0;
+            }
+        });
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized long sizeBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long appends() {
+        return appends.sum();
+    }
+
+    public long compactions() {
+        return compactions.sum();
+    }
+
+    private synchronized void append(OsrmRouteCache.RouteKey key, byte[] body, long expiresAtMillis) {
+        try {
+            Segment segment = segments.isEmpty() || rollOver ? null : segments.lastEntry().getValue();
+            if (segment == null || segment.size + RECORD_HEADER_BYTES + body.length > segmentBytes) {
+                segment = createSegment(nextSegmentId++);
+                rollOver = false;
+            }
+            long offset = segment.size;
+            write(segment, body);
+            appends.increment();
+            if (expiresAtMillis == Long.MAX_VALUE) {
+                index.remove(key); // tombstone
+            } else {
+                index.put(key, new Location(segment, offset, body.length, expiresAtMillis));
+            }
+            if (totalBytes > maxBytes && !compacting) {
+                startCompaction();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot append to OSRM route store {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Snapshots the live records and hands them to the compactor. Appends
+     * from here on go to a new segment, which the compaction leaves alone.
+     */
+    private void startCompaction() {
+        long now = System.currentTimeMillis();
+        List<Map.Entry<OsrmRouteCache.RouteKey, Location>> live = new ArrayList<>(index.size());
+        for (Map.Entry<OsrmRouteCache.RouteKey, Location> entry : index.entrySet()) {
+            if (entry.getValue().expiresAtMillis() > now) {
+                live.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        long supersedes = segments.lastKey();
+        long id = nextSegmentId++;
+        long startEpoch = epoch;
+        compacting = true;
+        rollOver = true;
+        compactor.execute(() -> compact(live, supersedes, id, startEpoch));
+    }
+
+    /**
+     * Rewrites {@code live}, newest expiry first and up to half of
+     * {@code maxBytes}, into segment {@code id}, which replaces every segment
+     * up to {@code supersedes}. Keys appended, invalidated or cleared since
+     * the snapshot keep their newer state.
+     */
+    private void compact(List<Map.Entry<OsrmRouteCache.RouteKey, Location>> live, long supersedes, long id,
+            long startEpoch) {
+        long started = System.nanoTime();
+        live.sort(Comparator.comparingLong(
+                (Map.Entry<OsrmRouteCache.RouteKey, Location> entry) -> entry.getValue().expiresAtMillis()).reversed());
+
+        Path temporary = directory.resolve(segmentName(id) + ".tmp");
+        Path path = directory.resolve(segmentName(id));
+        List<Segment> replaced = new ArrayList<>();
+        try {
+            Map<OsrmRouteCache.RouteKey, Moved> kept = new HashMap<>();
+            long size = SEGMENT_HEADER_BYTES;
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeFully(out, segmentHeader(supersedes), 0);
+                for (Map.Entry<OsrmRouteCache.RouteKey, Location> entry : live) {
+                    Location location = entry.getValue();
+                    int recordBytes = RECORD_HEADER_BYTES + location.length();
+                    if (size + recordBytes > Math.max(maxBytes / 2, SEGMENT_HEADER_BYTES + recordBytes)) {
+                        break;
+                    }
+                    ByteBuffer record = ByteBuffer.allocate(recordBytes);
+                    readFully(location.segment().channel, record, location.offset());
+                    record.flip();
+                    writeFully(out, record, size);
+                    kept.put(entry.getKey(), new Moved(location, size));
+                    size += recordBytes;
+                }
+                // On disk before it can replace anything
+                out.force(true);
+            }
+
+            synchronized (this) {
+                if (epoch != startEpoch) {
+                    deleteQuietly(temporary);
+                    return;
+                }
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Segment compacted = openSegment(id, path);
+                for (Iterator<Map.Entry<OsrmRouteCache.RouteKey, Location>> entries = index.entrySet().iterator();
+                        entries.hasNext();) {
+                    Map.Entry<OsrmRouteCache.RouteKey, Location> entry = entries.next();
+                    Location location = entry.getValue();
+                    if (location.segment().id > supersedes) {
+                        continue; // appended since the snapshot
+                    }
+                    Moved moved = kept.get(entry.getKey());
+                    if (moved != null && moved.from().equals(location)) {
+                        entry.setValue(new Location(compacted, moved.offset(), location.length(),
+                                location.expiresAtMillis()));
+                    } else {
+                        entries.remove(); // expired, or beyond the size cap
+                    }
+                }
+                for (Iterator<Segment> old = segments.headMap(supersedes, true).values().iterator(); old.hasNext();) {
+                    Segment segment = old.next();
+                    totalBytes -= segment.size;
+                    replaced.add(segment);
+                    old.remove();
+                }
+                compactions.increment();
+            }
+            logger.info("OSRM route store compacted: {} of {} live routes kept, {} KB, in {} ms", kept.size(),
+                    live.size(), size / 1024, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            // Includes clear() or shutdown closing the segments being copied
+            logger.warn("Cannot compact OSRM route store {}: {}", directory, e.getMessage());
+            deleteQuietly(temporary);
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+
+        // Lookups that picked up an old location retry on a closed channel
+        for (Segment old : replaced) {
+            closeQuietly(old);
+            deleteQuietly(old.path);
+        }
+    }
+
+    /**
+     * Reads every record of a freshly opened segment into the index, later
+     * records replacing earlier ones. Cuts the segment at the first torn or
+     * corrupt record.
+     */
+    private void scan(Segment segment, long now) throws IOException {
+        MappedByteBuffer mapped = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, segment.size);
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        int position = SEGMENT_HEADER_BYTES;
+        while (position + RECORD_HEADER_BYTES <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            long checksum = buffer.getInt(position + 4) & 0xFFFFFFFFL;
+            if (length < KEY_BYTES + 10 || position + RECORD_HEADER_BYTES + length > buffer.limit()
+                    || checksum(buffer.slice(position + RECORD_HEADER_BYTES, length)) != checksum) {
+                break;
+            }
+            ByteBuffer body = buffer.slice(position + RECORD_HEADER_BYTES, length).order(ByteOrder.LITTLE_ENDIAN);
+            OsrmRouteCache.RouteKey key = new OsrmRouteCache.RouteKey(body.getLong(), body.getLong(),
+                    body.getLong(), body.getLong());
+            long expiresAtMillis = body.getLong();
+            short routes = body.getShort();
+            if (routes == TOMBSTONE || expiresAtMillis <= now) {
+                index.remove(key);
+            } else {
+                index.put(key, new Location(segment, position, length, expiresAtMillis));
+            }
+            position += RECORD_HEADER_BYTES + length;
+        }
+        if (position < segment.size) {
+            logger.warn("OSRM route store segment {} has a damaged tail at byte {}, truncating", segment.path, position);
+            segment.channel.truncate(position);
+            totalBytes -= segment.size - position;
+            segment.size = position;
+        }
+    }
+
+    private Segment createSegment(long id) throws IOException {
+        Path path = directory.resolve(segmentName(id));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeFully(channel, segmentHeader(0), 0);
+        Segment segment = new Segment(id, path, channel, SEGMENT_HEADER_BYTES, 0);
+        segments.put(id, segment);
+        totalBytes += SEGMENT_HEADER_BYTES;
+        return segment;
+    }
+
+    /**
+     * Opens an existing segment, or deletes it and returns null when it is of
+     * another version or key precision.
+     */
+    private Segment openSegment(long id, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.size() >= SEGMENT_HEADER_BYTES) {
+            readFully(channel, header, 0);
+            header.flip();
+        }
+        if (channel.size() < SEGMENT_HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION
+                || header.getDouble() != precisionMeters) {
+            logger.info("Discarding OSRM route store segment {} (other format or cache precision)", path);
+            channel.close();
+            deleteQuietly(path);
+            return null;
+        }
+        Segment segment = new Segment(id, path, channel, channel.size(), header.getLong());
+        segments.put(id, segment);
+        totalBytes += segment.size;
+        return segment;
+    }
+
+    private void write(Segment segment, byte[] body) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + body.length).order(ByteOrder.LITTLE_ENDIAN);
+        record.putInt(body.length).putInt((int) checksum(ByteBuffer.wrap(body))).put(body).flip();
+        writeFully(segment.channel, record, segment.size);
+        segment.size += record.capacity();
+        totalBytes += record.capacity();
+    }
+
+    private ByteBuffer readBody(Location location) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + location.length()).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(location.segment().channel, record, location.offset());
+        ByteBuffer body = record.slice(RECORD_HEADER_BYTES, location.length()).order(ByteOrder.LITTLE_ENDIAN);
+        if ((record.getInt(4) & 0xFFFFFFFFL) != checksum(body.duplicate())) {
+            throw new IOException("Checksum mismatch at byte " + location.offset() + " of " + location.segment().path);
+        }
+        return body;
+    }
+
+    /** @param supersedes id of the last segment a compacted one replaces, else 0 */
+    private ByteBuffer segmentHeader(long supersedes) {
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putDouble(precisionMeters).putLong(supersedes).flip();
+        return header;
+    }
+
+    /**
+     * Record body: key, expiry, route count (or {@link #TOMBSTONE} when
+     * {@code routes} is null), then per route three decimals as unscaled
+     * long and scale, the best-route flag, the summary and the polyline6
+     * geometry (length -1 when absent).
+     */
+    private static byte[] encode(OsrmRouteCache.RouteKey key, long expiresAtMillis, List<RouteOptionDTO> routes) {
+        List<byte[]> summaries = new ArrayList<>();
+        List<byte[]> geometries = new ArrayList<>();
+        int size = KEY_BYTES + 8 + 2;
+        if (routes != null) {
+            for (RouteOptionDTO route : routes) {
+                byte[] summary = route.getSummary() != null ? route.getSummary().getBytes(StandardCharsets.UTF_8) : null;
+                byte[] geometry = route.getGeometry() != null
+                        ? EncodedPolyline.encode(route.getGeometry(), POLYLINE_PRECISION).getBytes(StandardCharsets.US_ASCII)
+                        : null;
+                summaries.add(summary);
+                geometries.add(geometry);
+                size += 3 * 9 + 1 + 4 + (summary != null ? summary.length : 0) + 4 + (geometry != null ? geometry.length : 0);
+            }
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        body.putLong(key.pickupLat()).putLong(key.pickupLng()).putLong(key.dropLat()).putLong(key.dropLng());
+        body.putLong(expiresAtMillis);
+        body.putShort(routes != null ? (short) routes.size() : TOMBSTONE);
+        if (routes != null) {
+            for (int i = 0; i < routes.size(); i++) {
+                RouteOptionDTO route = routes.get(i);
+                putDecimal(body, route.getDistance());
+                putDecimal(body, route.getDuration());
+                putDecimal(body, route.getScore());
+                body.put((byte) (route.isBestRoute() ? 1 : 0));
+                putBytes(body, summaries.get(i));
+                putBytes(body, geometries.get(i));
+            }
+        }
+        return body.array();
+    }
+
+    private static List<RouteOptionDTO> decodeRoutes(ByteBuffer body) {
+        body.position(KEY_BYTES + 8);
+        int count = body.getShort();
+        List<RouteOptionDTO> routes = new ArrayList<>(Math.max(count, 0));
+        for (int i = 0; i < count; i++) {
+            RouteOptionDTO route = new RouteOptionDTO();
+            route.setDistance(getDecimal(body));
+            route.setDuration(getDecimal(body));
+            route.setScore(getDecimal(body));
+            route.setBestRoute(body.get() != 0);
+            byte[] summary = getBytes(body);
+            route.setSummary(summary != null ? new String(summary, StandardCharsets.UTF_8) : null);
+            byte[] geometry = getBytes(body);
+            route.setGeometry(geometry != null
+                    ? EncodedPolyline.decode(new String(geometry, StandardCharsets.US_ASCII), POLYLINE_PRECISION)
+                    : null);
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    private static void putDecimal(ByteBuffer body, BigDecimal value) {
+        if (value == null) {
+            body.putLong(0).put(Byte.MIN_VALUE); // null marker
+            return;
+        }
+        if (value.scale() < Byte.MIN_VALUE + 1 || value.scale() > Byte.MAX_VALUE) {
+            throw new ArithmeticException("Scale out of range: " + value.scale());
+        }
+        body.putLong(value.unscaledValue().longValueExact()).put((byte) value.scale());
+    }
+
+    private static BigDecimal getDecimal(ByteBuffer body) {
+        long unscaled = body.getLong();
+        byte scale = body.get();
+        return scale == Byte.MIN_VALUE ? null : new BigDecimal(BigInteger.valueOf(unscaled), scale);
+    }
+
+    private static void putBytes(ByteBuffer body, byte[] bytes) {
+        body.putInt(bytes != null ? bytes.length : -1);
+        if (bytes != null) {
+            body.put(bytes);
+        }
+    }
+
+    private static byte[] getBytes(ByteBuffer body) {
+        int length = body.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        body.get(bytes);
+        return bytes;
+    }
+
+    private static long checksum(ByteBuffer bytes) {
+        java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of OSRM route store segment");
+            }
+            position += read;
+        }
+    }
+
+    private static String segmentName(long id) {
+        return String.format("routes-%06d.seg", id);
+    }
+
+    private static long segmentId(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith("routes-") || !name.endsWith(".seg")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring("routes-".length(), name.length() - ".seg".length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void closeAll() {
+        for (Segment segment : segments.values()) {
+            closeQuietly(segment);
+        }
+        segments.clear();
+        totalBytes = 0;
+    }
+
+    private static void closeQuietly(Segment segment) {
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            logger.debug("Cannot close {}: {}", segment.path, e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Cannot delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    /** Where a key's latest record is: its segment, offset of the record header and body length. */
+    private record Location(Segment segment, long offset, int length, long expiresAtMillis) {
+    }
+
+    /** A snapshot location and the offset its record was copied to by a compaction. */
+    private record Moved(Location from, long offset) {
+    }
+
+    private static final class Segment {
+        final long id;
+        final Path path;
+        final FileChannel channel;
+        final long supersedes;
+        long size;
+
+        Segment(long id, Path path, FileChannel channel, long size, long supersedes) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+            this.supersedes = supersedes;
+        }
+    }
+}
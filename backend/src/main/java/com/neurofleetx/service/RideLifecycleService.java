@@ -11,9 +11,11 @@ import com.neurofleetx.repository.UserRepository;
 import com.neurofleetx.repository.VehicleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -34,6 +36,9 @@ public class RideLifecycleService {
     private final DriverVerificationRepository driverVerificationRepository;
     private final VehicleRepository vehicleRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final DriverLoadTracker driverLoadTracker;
+    private final BookingClaimService bookingClaimService;
+    private final TrafficProfiles trafficProfiles;
 
     // ===================== RIDE ACCEPTANCE FLOW =====================
 
@@ -46,20 +51,6 @@ public class RideLifecycleService {
     public RideLifecycleDTO driverAcceptRide(Long bookingId, Long driverId) {
         log.info("Driver {} attempting to accept booking {}", driverId, bookingId);
 
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new RuntimeException("Booking not found: " + bookingId));
-
-        // Validation: Check status
-        if (booking.getStatus() != Booking.BookingStatus.PENDING &&
-                booking.getStatus() != Booking.BookingStatus.BROADCASTED) {
-            throw new RuntimeException("Booking not available for acceptance. Current status: " + booking.getStatus());
-        }
-
-        // Validation: Check if already has driver
-        if (booking.getDriver() != null) {
-            throw new RuntimeException("Booking already accepted by another driver");
-        }
-
         // Fetch driver
         User driver = userRepository.findById(driverId)
                 .orElseThrow(() -> new RuntimeException("Driver not found: " + driverId));
@@ -87,31 +78,25 @@ public class RideLifecycleService {
                     "Your driver verification is not approved yet. Please complete verification and wait for admin approval.");
         }
 
-        // Check vehicle availability
-        if (driver.getVehicle() == null || driver.getVehicle().getStatus() != Vehicle.VehicleStatus.AVAILABLE) {
-            throw new RuntimeException("Driver vehicle not available");
-        }
+        // Claim vehicle + booking in one step: the first driver wins, everyone
+        // else gets a 409 without waiting on an optimistic-lock failure
+        BookingClaimService.ClaimResult claim = bookingClaimService.claim(bookingId, driver,
+                List.of(Booking.BookingStatus.PENDING, Booking.BookingStatus.BROADCASTED),
+                LocalDateTime.now());
 
-        // Ensure driver has no active rides
-        List<Booking.BookingStatus> activeStatuses = List.of(
-                Booking.BookingStatus.ACCEPTED,
-                Booking.BookingStatus.ARRIVED,
-                Booking.BookingStatus.STARTED);
-        List<Booking> activeRides = bookingRepository.findByDriverIdAndStatusIn(driver.getId(), activeStatuses);
-        if (!activeRides.isEmpty()) {
-            throw new RuntimeException("Driver already has an active ride");
+        if (claim == BookingClaimService.ClaimResult.VEHICLE_UNAVAILABLE) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Driver vehicle not available");
+        }
+        if (claim == BookingClaimService.ClaimResult.BOOKING_TAKEN) {
+            if (!bookingRepository.existsById(bookingId)) {
+                throw new RuntimeException("Booking not found: " + bookingId);
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Booking already accepted by another driver or no longer available");
         }
 
-        // Update booking
-        booking.setDriver(driver);
-        booking.setStatus(Booking.BookingStatus.ACCEPTED);
-        booking.setAcceptedAt(LocalDateTime.now());
-
-        // Mark vehicle as booked
-        driver.getVehicle().setStatus(Vehicle.VehicleStatus.BOOKED);
-        vehicleRepository.save(driver.getVehicle());
-
-        booking = bookingRepository.save(booking);
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found: " + bookingId));
 
         log.info("Booking {} accepted by driver {}", bookingId, driverId);
 
@@ -182,6 +167,7 @@ public class RideLifecycleService {
         booking.setCompletedAt(LocalDateTime.now());
         booking.setStatus(Booking.BookingStatus.COMPLETED);
         booking.setPaymentStatus(Booking.PaymentStatus.PENDING); // Awaiting payment
+        driverLoadTracker.rideReleased(driverId);
 
         // Free vehicle
         if (booking.getDriver() != null && booking.getDriver().getVehicle() != null) {
@@ -190,6 +176,7 @@ public class RideLifecycleService {
         }
 
         booking = bookingRepository.save(booking);
+        trafficProfiles.recordTrip(booking);
 
         RideLifecycleDTO dto = convertToDTO(booking);
         notifyBothParties(booking, "Ride completed successfully", dto);
@@ -217,6 +204,10 @@ public class RideLifecycleService {
             throw new RuntimeException("Cannot cancel a completed ride");
         }
 
+        if (booking.getDriver() != null && DriverLoadTracker.isActive(booking.getStatus())) {
+            driverLoadTracker.rideReleased(booking.getDriver().getId());
+        }
+
         booking.setStatus(Booking.BookingStatus.CANCELLED_BY_CUSTOMER);
         booking.setCancelledAt(LocalDateTime.now());
         booking.setCancelledBy("CUSTOMER");
@@ -260,6 +251,10 @@ public class RideLifecycleService {
             throw new RuntimeException("Driver cannot cancel ride after starting");
         }
 
+        if (DriverLoadTracker.isActive(booking.getStatus())) {
+            driverLoadTracker.rideReleased(driverId);
+        }
+
         // Free vehicle before unassigning driver
         if (booking.getDriver() != null && booking.getDriver().getVehicle() != null) {
             booking.getDriver().getVehicle().setStatus(Vehicle.VehicleStatus.AVAILABLE);
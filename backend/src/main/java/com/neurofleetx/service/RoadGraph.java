@@ -0,0 +1,243 @@
+package com.neurofleetx.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Immutable city/route graph in compressed sparse row form.
+ *
+ * Cities are renumbered to dense {@code int} nodes (in ascending city id
+ * order); the edges leaving node {@code u} are
+ * {@code targets[offsets[u] .. offsets[u + 1])} with their lengths in km in
+ * {@code weights}. Routes are two-way. City names and coordinates are kept
+ * alongside (coordinates NaN when unknown) for quotes and goal-directed search.
+ *
+ * Route lengths are data, not geometry, so straight-line distance is not
+ * automatically a lower bound on them. {@link #heuristicScale()} is the largest
+ * factor that keeps it one for this graph, which makes the scaled straight-line
+ * distance an admissible and consistent A* heuristic.
+ *
+ * Instances are never modified, so any number of threads can search one
+ * while {@link RoadGraphProvider} builds its replacement.
+ */
+public final class RoadGraph {
+
+    private final long[] cityIds;
+    private final String[] names;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final double heuristicScale;
+
+    private RoadGraph(long[] cityIds, String[] names, double[] latitudes, double[] longitudes,
+            int[] offsets, int[] targets, double[] weights) {
+        this(cityIds, names, latitudes, longitudes, offsets, targets, weights, Double.NaN);
+    }
+
+    // Also used by RoadGraphFile, which stores the heuristic scale instead of recomputing it
+    RoadGraph(long[] cityIds, String[] names, double[] latitudes, double[] longitudes,
+            int[] offsets, int[] targets, double[] weights, double heuristicScale) {
+        this.cityIds = cityIds;
+        this.names = names;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.heuristicScale = Double.isNaN(heuristicScale) ? computeHeuristicScale() : heuristicScale;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int nodeCount() {
+        return cityIds.length;
+    }
+
+    /** Directed edge count (each two-way route counts twice). */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /** Node for a city id, or -1 if the city is not in the graph. */
+    public int node(long cityId) {
+        int node = Arrays.binarySearch(cityIds, cityId);
+        return node >= 0 ? node : -1;
+    }
+
+    public long cityId(int node) {
+        return cityIds[node];
+    }
+
+    public String cityName(int node) {
+        return names[node];
+    }
+
+    public double latitude(int node) {
+        return latitudes[node];
+    }
+
+    public double longitude(int node) {
+        return longitudes[node];
+    }
+
+    public int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    public int endEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    public double weight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Straight-line distance in km between two nodes, NaN if either has no
+     * coordinates.
+     */
+    public double straightLineKm(int from, int to) {
+        return DriverScoringKernel.haversine(latitudes[from], longitudes[from], latitudes[to], longitudes[to]);
+    }
+
+    /**
+     * Factor in [0, 1] such that {@code heuristicScale() * straightLineKm(u, v)}
+     * never exceeds the shortest route between u and v. Zero (no usable
+     * heuristic) when some city with routes has no coordinates.
+     */
+    public double heuristicScale() {
+        return heuristicScale;
+    }
+
+    /**
+     * Length of the direct edge between two nodes, or NaN if they are not
+     * adjacent. Linear in the degree of {@code from}.
+     */
+    public double edgeWeight(int from, int to) {
+        for (int edge = offsets[from], end = offsets[from + 1]; edge < end; edge++) {
+            if (targets[edge] == to) {
+                return weights[edge];
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Whether both graphs have the same cities, so node numbers mean the same
+     * city in each.
+     */
+    public boolean hasSameNodes(RoadGraph other) {
+        return Arrays.equals(cityIds, other.cityIds);
+    }
+
+    /**
+     * Whether both graphs have the same cities and the same routes with the
+     * same lengths, so anything derived from one is valid for the other.
+     */
+    public boolean hasSameRoutes(RoadGraph other) {
+        return hasSameNodes(other) && Arrays.equals(offsets, other.offsets)
+                && Arrays.equals(targets, other.targets) && Arrays.equals(weights, other.weights);
+    }
+
+    /** Approximate heap footprint of the arrays, in bytes. */
+    public long memoryBytes() {
+        return 16L * cityIds.length + 16L * latitudes.length
+                + 4L * offsets.length + 12L * targets.length;
+    }
+
+    private double computeHeuristicScale() {
+        double scale = 1.0;
+        for (int u = 0; u < cityIds.length; u++) {
+            for (int edge = offsets[u]; edge < offsets[u + 1]; edge++) {
+                double km = straightLineKm(u, targets[edge]);
+                if (Double.isNaN(km)) {
+                    return 0.0;
+                }
+                if (km > 0) {
+                    scale = Math.min(scale, weights[edge] / km);
+                }
+            }
+        }
+        // Margin so rounding in haversine cannot make the bound overshoot
+        return scale * (1 - 1e-9);
+    }
+
+    /**
+     * Collects cities and routes, then lays them out as CSR.
+     *
+     * When several routes connect the same pair of cities, the one added last
+     * wins, in either direction; this matches how the previous map-based graph
+     * in {@link RouteService} resolved duplicates.
+     */
+    public static final class Builder {
+
+        private final Map<Long, String> names = new HashMap<>();
+        private final Map<Long, double[]> coordinates = new HashMap<>();
+        private final Map<Long, Map<Long, Double>> adjacency = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder addCity(long cityId, String name, double latitude, double longitude) {
+            names.put(cityId, name);
+            coordinates.put(cityId, new double[] { latitude, longitude });
+            return this;
+        }
+
+        public Builder addRoute(long fromCityId, long toCityId, double distanceKm) {
+            adjacency.computeIfAbsent(fromCityId, k -> new LinkedHashMap<>()).put(toCityId, distanceKm);
+            adjacency.computeIfAbsent(toCityId, k -> new LinkedHashMap<>()).put(fromCityId, distanceKm);
+            return this;
+        }
+
+        public RoadGraph build() {
+            long[] cityIds = Stream.concat(coordinates.keySet().stream(), adjacency.keySet().stream())
+                    .mapToLong(Long::longValue)
+                    .distinct()
+                    .sorted()
+                    .toArray();
+
+            int n = cityIds.length;
+            String[] cityNames = new String[n];
+            double[] latitudes = new double[n];
+            double[] longitudes = new double[n];
+            int[] offsets = new int[n + 1];
+            for (int node = 0; node < n; node++) {
+                cityNames[node] = names.get(cityIds[node]);
+                double[] latLng = coordinates.get(cityIds[node]);
+                latitudes[node] = latLng != null ? latLng[0] : Double.NaN;
+                longitudes[node] = latLng != null ? latLng[1] : Double.NaN;
+                Map<Long, Double> edges = adjacency.get(cityIds[node]);
+                offsets[node + 1] = offsets[node] + (edges != null ? edges.size() : 0);
+            }
+
+            int[] targets = new int[offsets[n]];
+            double[] weights = new double[offsets[n]];
+            for (int node = 0; node < n; node++) {
+                Map<Long, Double> edges = adjacency.get(cityIds[node]);
+                if (edges == null) {
+                    continue;
+                }
+                int edge = offsets[node];
+                for (Map.Entry<Long, Double> entry : edges.entrySet()) {
+                    targets[edge] = Arrays.binarySearch(cityIds, entry.getKey());
+                    weights[edge] = entry.getValue();
+                    edge++;
+                }
+            }
+
+            return new RoadGraph(cityIds, cityNames, latitudes, longitudes, offsets, targets, weights);
+        }
+    }
+}
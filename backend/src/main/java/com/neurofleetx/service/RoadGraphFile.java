@@ -0,0 +1,272 @@
+package com.neurofleetx.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary file holding a {@link RoadGraph} and, optionally, its
+ * {@link ContractionHierarchy}, so startup can map one file instead of
+ * reading every city and route through JPA and contracting again.
+ *
+ * Layout (little-endian): a 48-byte header, then the graph arrays and the
+ * hierarchy arrays exactly as held in memory, city names (UTF-8) last.
+ * <pre>
+ * int    magic "NFXG", int version
+ * long   marker of the database rows the graph was built from
+ * int    nodes, int edges, int hierarchy edges (-1 when absent), int name bytes
+ * double heuristic scale
+ * long   CRC32 of everything after the header
+ * long[nodes] city ids, double[nodes] latitudes, double[nodes] longitudes
+ * int[nodes + 1] offsets, int[edges] targets, double[edges] weights
+ * int[nodes] ranks, int[nodes + 1] offsets, int[h] targets,
+ * double[h] weights, int[h] middles                      (hierarchy only)
+ * int[nodes] name lengths (-1 for none), byte[name bytes] names
+ * </pre>
+ * The file is read through {@link FileChannel#map} and copied into arrays
+ * with bulk gets, so loading costs about one memory copy of the file.
+ * Writes go to a temporary file that is then moved over the old one, so a
+ * crash never leaves a half-written graph behind.
+ */
+public final class RoadGraphFile {
+
+    private static final int MAGIC = 0x4E465847; // "NFXG"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 48;
+
+    /**
+     * @param hierarchy   null when the file holds none
+     * @param fingerprint as passed to {@link #write}
+     */
+    public record Contents(RoadGraph graph, ContractionHierarchy hierarchy, long fingerprint) {
+    }
+
+    private RoadGraphFile() {
+    }
+
+    /**
+     * Writes {@code graph} and {@code hierarchy} (null for none, otherwise
+     * built for {@code graph}) to {@code path}, replacing any previous file.
+     */
+    public static void write(Path path, RoadGraph graph, ContractionHierarchy hierarchy, long fingerprint)
+            throws IOException {
+        int n = graph.nodeCount();
+        int m = graph.edgeCount();
+        int h = hierarchy != null ? hierarchy.edgeCount() : -1;
+
+        byte[][] names = new byte[n][];
+        int nameBytes = 0;
+        for (int node = 0; node < n; node++) {
+            String name = graph.cityName(node);
+            names[node] = name != null ? name.getBytes(StandardCharsets.UTF_8) : null;
+            nameBytes += name != null ? names[node].length : 0;
+        }
+
+        long size = HEADER_BYTES + 24L * n + 4L * (n + 1) + 12L * m
+                + (hierarchy != null ? 4L * n + 4L * (n + 1) + 16L * h : 0)
+                + 4L * n + nameBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Road graph too large for one file: " + size + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(HEADER_BYTES);
+        for (int node = 0; node < n; node++) {
+            buffer.putLong(graph.cityId(node));
+        }
+        for (int node = 0; node < n; node++) {
+            buffer.putDouble(graph.latitude(node));
+        }
+        for (int node = 0; node < n; node++) {
+            buffer.putDouble(graph.longitude(node));
+        }
+        for (int node = 0; node <= n; node++) {
+            buffer.putInt(node < n ? graph.firstEdge(node) : m);
+        }
+        for (int edge = 0; edge < m; edge++) {
+            buffer.putInt(graph.target(edge));
+        }
+        for (int edge = 0; edge < m; edge++) {
+            buffer.putDouble(graph.weight(edge));
+        }
+
+        if (hierarchy != null) {
+            for (int node = 0; node < n; node++) {
+                buffer.putInt(hierarchy.rank(node));
+            }
+            for (int node = 0; node <= n; node++) {
+                buffer.putInt(node < n ? hierarchy.firstEdge(node) : h);
+            }
+            for (int edge = 0; edge < h; edge++) {
+                buffer.putInt(hierarchy.target(edge));
+            }
+            for (int edge = 0; edge < h; edge++) {
+                buffer.putDouble(hierarchy.weight(edge));
+            }
+            for (int edge = 0; edge < h; edge++) {
+                buffer.putInt(hierarchy.middle(edge));
+            }
+        }
+
+        for (int node = 0; node < n; node++) {
+            buffer.putInt(names[node] != null ? names[node].length : -1);
+        }
+        for (int node = 0; node < n; node++) {
+            if (names[node] != null) {
+                buffer.put(names[node]);
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, buffer.capacity() - HEADER_BYTES);
+        buffer.position(0);
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(fingerprint)
+                .putInt(n)
+                .putInt(m)
+                .putInt(h)
+                .putInt(nameBytes)
+                .putDouble(graph.heuristicScale())
+                .putLong(crc.getValue());
+        buffer.rewind();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Maps and reads {@code path}. Returns null without reading past the
+     * header when the file was written for another {@code fingerprint}.
+     *
+     * @throws IOException when the file is unreadable, of another version,
+     *                     truncated or fails its checksum
+     */
+    public static Contents read(Path path, long fingerprint) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a road graph file: " + channel.size() + " bytes");
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a road graph file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported road graph file version " + version);
+        }
+        long storedFingerprint = buffer.getLong();
+        if (storedFingerprint != fingerprint) {
+            return null;
+        }
+        int n = buffer.getInt();
+        int m = buffer.getInt();
+        int h = buffer.getInt();
+        int nameBytes = buffer.getInt();
+        double heuristicScale = buffer.getDouble();
+        long checksum = buffer.getLong();
+
+        long expectedSize = HEADER_BYTES + 24L * n + 4L * (n + 1) + 12L * m
+                + (h >= 0 ? 4L * n + 4L * (n + 1) + 16L * h : 0)
+                + 4L * n + nameBytes;
+        if (n < 0 || m < 0 || nameBytes < 0 || expectedSize != buffer.capacity()) {
+            throw new IOException("Truncated road graph file: " + buffer.capacity() + " bytes, expected " + expectedSize);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(HEADER_BYTES, buffer.capacity() - HEADER_BYTES));
+        if (crc.getValue() != checksum) {
+            throw new IOException("Road graph file checksum mismatch");
+        }
+
+        long[] cityIds = new long[n];
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        int position = HEADER_BYTES;
+        position = readLongs(buffer, position, cityIds);
+        position = readDoubles(buffer, position, latitudes);
+        position = readDoubles(buffer, position, longitudes);
+        position = readInts(buffer, position, offsets);
+        position = readInts(buffer, position, targets);
+        position = readDoubles(buffer, position, weights);
+
+        int[] ranks = null;
+        int[] hierarchyOffsets = null;
+        int[] hierarchyTargets = null;
+        double[] hierarchyWeights = null;
+        int[] middles = null;
+        if (h >= 0) {
+            ranks = new int[n];
+            hierarchyOffsets = new int[n + 1];
+            hierarchyTargets = new int[h];
+            hierarchyWeights = new double[h];
+            middles = new int[h];
+            position = readInts(buffer, position, ranks);
+            position = readInts(buffer, position, hierarchyOffsets);
+            position = readInts(buffer, position, hierarchyTargets);
+            position = readDoubles(buffer, position, hierarchyWeights);
+            position = readInts(buffer, position, middles);
+        }
+
+        int[] nameLengths = new int[n];
+        position = readInts(buffer, position, nameLengths);
+        String[] names = new String[n];
+        byte[] nameData = new byte[nameBytes];
+        buffer.get(position, nameData);
+        int nameOffset = 0;
+        for (int node = 0; node < n; node++) {
+            if (nameLengths[node] >= 0) {
+                names[node] = new String(nameData, nameOffset, nameLengths[node], StandardCharsets.UTF_8);
+                nameOffset += nameLengths[node];
+            }
+        }
+
+        RoadGraph graph = new RoadGraph(cityIds, names, latitudes, longitudes, offsets, targets, weights,
+                heuristicScale);
+        ContractionHierarchy hierarchy = h >= 0
+                ? new ContractionHierarchy(graph, ranks, hierarchyOffsets, hierarchyTargets, hierarchyWeights, middles)
+                : null;
+        return new Contents(graph, hierarchy, storedFingerprint);
+    }
+
+    private static int readInts(ByteBuffer buffer, int position, int[] values) {
+        buffer.slice(position, 4 * values.length).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(values);
+        return position + 4 * values.length;
+    }
+
+    private static int readLongs(ByteBuffer buffer, int position, long[] values) {
+        buffer.slice(position, 8 * values.length).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(values);
+        return position + 8 * values.length;
+    }
+
+    private static int readDoubles(ByteBuffer buffer, int position, double[] values) {
+        buffer.slice(position, 8 * values.length).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values);
+        return position + 8 * values.length;
+    }
+}
@@ -0,0 +1,33 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.model.City;
+import com.neurofleetx.model.Route;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that asks {@link RoadGraphProvider} for a rebuild when a
+ * {@link City} or {@link Route} row is written. Hibernate resolves it through
+ * Spring so the provider is injected.
+ */
+@Component
+public class RoadGraphListener {
+
+    private final RoadGraphProvider roadGraphProvider;
+
+    // Lazy: the provider's repositories are created after the entity manager
+    // that instantiates this listener
+    public RoadGraphListener(@Lazy RoadGraphProvider roadGraphProvider) {
+        this.roadGraphProvider = roadGraphProvider;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        roadGraphProvider.requestRebuild();
+    }
+}
@@ -0,0 +1,218 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.repository.CityRepository;
+import com.neurofleetx.repository.RouteRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Holds the current {@link RoadGraph} so route lookups never hit the database.
+ *
+ * The graph is built at startup from two column projections (no entities are
+ * loaded) and replaced wholesale whenever a city or route is written, as
+ * reported by {@link RoadGraphListener}. Rebuilds run after the writing
+ * transaction commits, on a single background thread, and a burst of writes
+ * collapses into one rebuild. Readers keep using the previous graph until the
+ * new one is swapped in; components that derive data from the graph register
+ * with {@link #addGraphListener} to hear about each swap. With
+ * {@code routing.graph.file} set, each graph is also saved to disk and the
+ * next startup reads it instead of the rows, skipping the build and the
+ * contraction of its hierarchy, unless {@link #databaseMarker()} has moved
+ * since.
+ */
+@Component
+public class RoadGraphProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoadGraphProvider.class);
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final char RECORD_SEPARATOR = 0x1E;
+    private static final char UNIT_SEPARATOR = 0x1F;
+
+    private final CityRepository cityRepository;
+    private final RouteRepository routeRepository;
+    private final RoadGraphStore graphStore;
+
+    private final AtomicReference<RoadGraph> graph = new AtomicReference<>();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final List<Consumer<RoadGraph>> graphListeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "road-graph-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RoadGraphProvider(CityRepository cityRepository, RouteRepository routeRepository,
+            RoadGraphStore graphStore) {
+        this.cityRepository = cityRepository;
+        this.routeRepository = routeRepository;
+        this.graphStore = graphStore;
+    }
+
+    /**
+     * The graph as of the last rebuild; built on the caller's thread if no
+     * rebuild has completed yet.
+     */
+    public RoadGraph current() {
+        RoadGraph current = graph.get();
+        return current != null ? current : rebuild();
+    }
+
+    /**
+     * Called with every newly swapped-in graph, on the thread that built it.
+     * Listeners must return quickly and do heavy work elsewhere.
+     */
+    public void addGraphListener(Consumer<RoadGraph> listener) {
+        graphListeners.add(listener);
+    }
+
+    /**
+     * Schedules a rebuild once the current transaction (if any) commits.
+     */
+    public void requestRebuild() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleRebuild();
+                }
+            });
+        } else {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * Startup: loads the graph saved by {@link RoadGraphStore} when the
+     * database marker still matches the one it was saved with, without
+     * reading any rows; otherwise builds from the rows.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long marker = 0;
+        if (graphStore.isEnabled()) {
+            long started = System.nanoTime();
+            marker = databaseMarker();
+            RoadGraphFile.Contents stored = graphStore.load(marker);
+            if (stored != null) {
+                publish(stored.graph());
+                logger.info("Road graph loaded from file: {} cities, {} directed edges{} in {} ms",
+                        stored.graph().nodeCount(), stored.graph().edgeCount(),
+                        stored.hierarchy() != null ? ", contraction hierarchy included" : "",
+                        (System.nanoTime() - started) / 1_000_000);
+                return;
+            }
+        }
+        rebuild(marker);
+    }
+
+    /**
+     * Loads cities and routes and swaps in a freshly built graph. Also run
+     * periodically to pick up rows written outside JPA (SQL scripts, bulk
+     * updates).
+     */
+    @Scheduled(fixedDelayString = "${routing.graph.resync-ms:600000}", initialDelayString = "${routing.graph.resync-ms:600000}")
+    public RoadGraph rebuild() {
+        return rebuild(graphStore.isEnabled() ? databaseMarker() : 0);
+    }
+
+    /**
+     * @param marker {@link #databaseMarker()} taken before the rows are read,
+     *               so a write in between leaves the file looking stale
+     *               rather than current
+     */
+    private RoadGraph rebuild(long marker) {
+        long started = System.nanoTime();
+        RoadGraph.Builder builder = RoadGraph.builder();
+
+        for (Object[] row : cityRepository.findAllNodes()) {
+            builder.addCity((Long) row[0], (String) row[1], toDouble(row[2]), toDouble(row[3]));
+        }
+        for (Object[] row : routeRepository.findAllEdges()) {
+            builder.addRoute((Long) row[0], (Long) row[1], toDouble(row[2]));
+        }
+
+        RoadGraph built = builder.build();
+        graphStore.save(built, marker);
+        publish(built);
+        logger.info("Road graph built: {} cities, {} directed edges, ~{} KB in {} ms",
+                built.nodeCount(), built.edgeCount(), built.memoryBytes() / 1024,
+                (System.nanoTime() - started) / 1_000_000);
+        return built;
+    }
+
+    // package-private so backend-benchmarks can install a synthetic graph
+    void publish(RoadGraph built) {
+        graph.set(built);
+        for (Consumer<RoadGraph> listener : graphListeners) {
+            listener.accept(built);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private void scheduleRebuild() {
+        if (!rebuildPending.compareAndSet(false, true)) {
+            return; // a queued rebuild will see this change too
+        }
+        rebuilder.execute(() -> {
+            rebuildPending.set(false);
+            try {
+                rebuild();
+            } catch (Exception e) {
+                logger.error("Road graph rebuild failed, keeping previous graph: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Two aggregate queries, answered from the primary key and one column
+     * instead of reading the tables: the count, highest id and latest
+     * updated_at of cities and of routes, hashed (64-bit FNV-1a) into the
+     * value the graph file is tagged with. An insert raises the count and
+     * the highest id, a delete lowers the count, and a JPA save moves the
+     * latest updated_at. SQL that edits rows without setting updated_at is
+     * not seen here, so such scripts must set it (or delete the file).
+     */
+    long databaseMarker() {
+        long hash = FNV_OFFSET_BASIS;
+        hash = hashRow(hash, cityRepository.findGraphMarker().get(0));
+        return hashRow(hash, routeRepository.findGraphMarker().get(0));
+    }
+
+    private static long hashRow(long hash, Object[] row) {
+        for (Object value : row) {
+            String text = String.valueOf(value);
+            for (int i = 0; i < text.length(); i++) {
+                hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+            }
+            // Separators, so ("ab", "c") and ("a", "bc") hash apart
+            hash = (hash ^ UNIT_SEPARATOR) * FNV_PRIME;
+        }
+        return (hash ^ RECORD_SEPARATOR) * FNV_PRIME;
+    }
+
+    private static double toDouble(Object value) {
+        return value != null ? ((BigDecimal) value).doubleValue() : Double.NaN;
+    }
+}
@@ -0,0 +1,116 @@
+package com.neurofleetx.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Keeps the latest road graph, and its contraction hierarchy once built, in
+ * the {@link RoadGraphFile} at {@code routing.graph.file} (disabled when
+ * empty).
+ *
+ * The file is tagged with {@link RoadGraphProvider#databaseMarker()}, so a
+ * file written before rows changed is ignored at startup. Everything here is
+ * best effort: a missing, stale or damaged file only means the graph is
+ * rebuilt from the database as before.
+ */
+@Component
+public class RoadGraphStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoadGraphStore.class);
+
+    private final Path path;
+
+    // What the file currently holds
+    private RoadGraph savedGraph;
+    private ContractionHierarchy savedHierarchy;
+    private long savedFingerprint;
+
+    public RoadGraphStore(@Value("${routing.graph.file:}") String file) {
+        this.path = file.isBlank() ? null : Path.of(file);
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    /**
+     * The stored graph (and hierarchy, if saved) when the file matches
+     * {@code fingerprint}, else null.
+     */
+    public synchronized RoadGraphFile.Contents load(long fingerprint) {
+        if (path == null || !Files.exists(path)) {
+            return null;
+        }
+        try {
+            RoadGraphFile.Contents contents = RoadGraphFile.read(path, fingerprint);
+            if (contents == null) {
+                logger.info("Road graph file {} is stale, rebuilding from the database", path);
+                return null;
+            }
+            savedGraph = contents.graph();
+            savedHierarchy = contents.hierarchy();
+            savedFingerprint = fingerprint;
+            return contents;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot read road graph file {}, rebuilding from the database: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Records {@code graph}, built from rows with {@code fingerprint}. The
+     * file is only rewritten when its contents change.
+     */
+    public synchronized void save(RoadGraph graph, long fingerprint) {
+        if (path == null) {
+            return;
+        }
+        boolean sameRoutes = savedGraph != null && savedGraph.hasSameRoutes(graph);
+        if (sameRoutes && fingerprint == savedFingerprint) {
+            savedGraph = graph; // periodic resync with no changes
+            savedHierarchy = savedHierarchy != null ? savedHierarchy.withGraph(graph) : null;
+            return;
+        }
+        write(graph, sameRoutes && savedHierarchy != null ? savedHierarchy.withGraph(graph) : null, fingerprint);
+    }
+
+    /**
+     * Adds {@code hierarchy} to the file if it belongs to the saved graph.
+     */
+    public synchronized void saveHierarchy(ContractionHierarchy hierarchy) {
+        if (path == null || savedGraph == null || !savedGraph.hasSameRoutes(hierarchy.graph())) {
+            return;
+        }
+        write(savedGraph, hierarchy.withGraph(savedGraph), savedFingerprint);
+    }
+
+    /**
+     * The saved hierarchy, for a graph with the same routes as the saved one,
+     * so it need not be contracted again; null otherwise.
+     */
+    public synchronized ContractionHierarchy hierarchyFor(RoadGraph graph) {
+        return savedHierarchy != null && savedHierarchy.graph().hasSameRoutes(graph)
+                ? savedHierarchy.withGraph(graph) : null;
+    }
+
+    private void write(RoadGraph graph, ContractionHierarchy hierarchy, long fingerprint) {
+        try {
+            long started = System.nanoTime();
+            RoadGraphFile.write(path, graph, hierarchy, fingerprint);
+            savedGraph = graph;
+            savedHierarchy = hierarchy;
+            savedFingerprint = fingerprint;
+            logger.info("Road graph file {} written ({} cities{}) in {} ms", path, graph.nodeCount(),
+                    hierarchy != null ? ", with contraction hierarchy" : "",
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot write road graph file {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.RouteGeometry;
+import com.neurofleetx.dto.RouteOptimizationResponse;
+import com.neurofleetx.dto.RouteOptionDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shapes route geometry for the client before it is sent.
+ *
+ * By default each route is simplified with {@link DouglasPeucker} to
+ * {@code routing.geometry.tolerance-px} pixels at the map zoom the client
+ * passes ({@code routing.geometry.default-zoom} when it passes none), which
+ * is invisible at that zoom. Clients may ask for the full-resolution geometry
+ * instead, and for {@link EncodedPolyline} text in {@code polyline} in place
+ * of the {@code geometry} coordinate arrays.
+ */
+@Component
+public class RouteGeometryFormatter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteGeometryFormatter.class);
+
+    private static final int MAX_ZOOM = 22;
+
+    private final int defaultZoom;
+    private final double tolerancePixels;
+
+    public RouteGeometryFormatter(@Value("${routing.geometry.default-zoom:16}") int defaultZoom,
+            @Value("${routing.geometry.tolerance-px:1.0}") double tolerancePixels) {
+        this.defaultZoom = defaultZoom;
+        this.tolerancePixels = tolerancePixels;
+    }
+
+    /**
+     * Formats every route of {@code response} in place.
+     *
+     * @param zoom     map zoom the routes are drawn at (clamped to 0..22),
+     *                 null for the default
+     * @param raw      keep the full-resolution geometry
+     * @param polyline send an encoded polyline instead of coordinate arrays
+     */
+    public RouteOptimizationResponse format(RouteOptimizationResponse response, Integer zoom, boolean raw,
+            boolean polyline) {
+        List<RouteOptionDTO> routes = new ArrayList<>();
+        if (response.getBestRoute() != null) {
+            routes.add(response.getBestRoute());
+        }
+        if (response.getAlternateRoutes() != null) {
+            routes.addAll(response.getAlternateRoutes());
+        }
+
+        int effectiveZoom = Math.max(0, Math.min(MAX_ZOOM, zoom != null ? zoom : defaultZoom));
+        for (RouteOptionDTO route : routes) {
+            RouteGeometry geometry = route.getGeometry();
+            if (geometry == null) {
+                continue;
+            }
+            // Two points or fewer have nothing to drop; an empty one has no latitude to scale by
+            if (!raw && geometry.size() >= 3) {
+                double tolerance = DouglasPeucker.toleranceMeters(effectiveZoom, geometry.latitude(0), tolerancePixels);
+                route.setGeometry(DouglasPeucker.simplify(geometry, tolerance));
+                logger.debug("Simplified route geometry at zoom {}: {} -> {} points", effectiveZoom,
+                        geometry.size(), route.getGeometry().size());
+            }
+            if (polyline) {
+                route.setPolyline(EncodedPolyline.encode(route.getGeometry()));
+                route.setGeometry(null);
+            }
+        }
+        return response;
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -23,16 +24,30 @@ public class RouteOptimizationService {
          * Gets optimized routes with best and alternate options
          */
         public RouteOptimizationResponse getOptimizedRoutes(RouteRequest request) {
+                return getOptimizedRoutesAsync(request).join();
+        }
+
+        /**
+         * Non-blocking {@link #getOptimizedRoutes}; completes on the OSRM
+         * client's threads, or at once on a route cache hit or open circuit
+         */
+        public CompletableFuture<RouteOptimizationResponse> getOptimizedRoutesAsync(RouteRequest request) {
                 logger.info("Getting optimized routes from ({}, {}) to ({}, {})",
                                 request.getPickupLatitude(), request.getPickupLongitude(),
                                 request.getDropLatitude(), request.getDropLongitude());
 
                 // Fetch routes from OSRM
-                List<RouteOptionDTO> routes = osrmService.getRoutes(
+                return osrmService.getRoutesAsync(
                                 request.getPickupLongitude(),
                                 request.getPickupLatitude(),
                                 request.getDropLongitude(),
-                                request.getDropLatitude());
+                                request.getDropLatitude())
+                                .thenApply(routes -> buildResponse(request, routes));
+        }
+
+        private RouteOptimizationResponse buildResponse(RouteRequest request, List<RouteOptionDTO> fetched) {
+                // Fallback routes come back as an immutable list
+                List<RouteOptionDTO> routes = new ArrayList<>(fetched);
 
                 if (routes.isEmpty()) {
                         throw new RuntimeException("Unable to find any routes");
@@ -1,97 +1,129 @@
 package com.neurofleetx.service;
 
 import com.neurofleetx.dto.FareCalculationResult;
-import com.neurofleetx.model.City;
-import com.neurofleetx.model.Route;
+import com.neurofleetx.dto.RouteSearchStatsDTO;
+import com.neurofleetx.dto.ShortestPathDTO;
 import com.neurofleetx.model.Vehicle;
-import com.neurofleetx.repository.CityRepository;
-import com.neurofleetx.repository.RouteRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 @RequiredArgsConstructor
 public class RouteService {
 
-    private final RouteRepository routeRepository;
-    private final CityRepository cityRepository;
+    private final RoadGraphProvider roadGraphProvider;
+    private final CityDistanceTable cityDistanceTable;
+    private final ContractionHierarchyProvider contractionHierarchyProvider;
+    private final TrafficProfiles trafficProfiles;
+
+    // Used when the distance table cannot answer
+    @Value("${routing.search.algorithm:CONTRACTION_HIERARCHY}")
+    private ShortestPathEngine.Algorithm defaultAlgorithm = ShortestPathEngine.Algorithm.CONTRACTION_HIERARCHY;
+
+    private final Map<ShortestPathEngine.Algorithm, SearchCounters> searchCounters = createCounters();
 
     /**
-     * Calculates the shortest path distance between two cities using Dijkstra's algorithm.
-     * Returns null if no path is found.
+     * Shortest path distance between two cities, looked up in the precomputed
+     * {@link CityDistanceTable}, or searched over the cached {@link RoadGraph}
+     * (by default through its {@link ContractionHierarchy}) when the table is
+     * being rebuilt or the graph is too large for one.
+     * No database access. Returns null if no path is found.
      */
     public BigDecimal getShortestDistance(Long sourceCityId, Long destCityId) {
         if (sourceCityId.equals(destCityId)) {
             return BigDecimal.ZERO;
         }
 
-        List<City> cities = cityRepository.findAll();
-        List<Route> routes = routeRepository.findAll();
-
-        // 1. Build Adjacency List: Map<CityId, List<Edge>>
-        // Edge maps neighborId -> distance
-        Map<Long, Map<Long, BigDecimal>> graph = new HashMap<>();
-
-        for (Route route : routes) {
-            Long u = route.getSourceCity().getId();
-            Long v = route.getDestinationCity().getId();
-            BigDecimal dist = route.getDistanceKm();
-
-            graph.computeIfAbsent(u, k -> new HashMap<>()).put(v, dist);
-            // Assuming undirected graph for roads usually, but let's see. 
-            // If data is stored one-way but implies two-way, add reverse. 
-            // Often routes are defined A->B. Safe to assume two-way for standard roads unless specified.
-            graph.computeIfAbsent(v, k -> new HashMap<>()).put(u, dist);
+        RoadGraph graph = roadGraphProvider.current();
+        int source = graph.node(sourceCityId);
+        int target = graph.node(destCityId);
+        if (source < 0 || target < 0) {
+            return null;
         }
 
-        // 2. Dijkstra's Algorithm
-        PriorityQueue<Node> pq = new PriorityQueue<>(Comparator.comparing(n -> n.distance));
-        Map<Long, BigDecimal> distances = new HashMap<>();
-        Set<Long> visited = new HashSet<>();
-
-        // Initialize
-        for (City city : cities) {
-            distances.put(city.getId(), null); // null represents infinity
+        double distance = cityDistanceTable.distance(graph, source, target);
+        if (Double.isNaN(distance)) {
+            distance = search(graph, source, target, defaultAlgorithm).distance();
         }
-        
-        // Start node
-        distances.put(sourceCityId, BigDecimal.ZERO);
-        pq.add(new Node(sourceCityId, BigDecimal.ZERO));
-
-        while (!pq.isEmpty()) {
-            Node current = pq.poll();
-            Long u = current.id;
-
-            if (visited.contains(u)) continue;
-            visited.add(u);
-
-            if (u.equals(destCityId)) {
-                return distances.get(u);
-            }
+        if (Double.isInfinite(distance)) {
+            return null; // unreachable
+        }
+        return BigDecimal.valueOf(distance).setScale(2, RoundingMode.HALF_UP);
+    }
 
-            if (graph.containsKey(u)) {
-                for (Map.Entry<Long, BigDecimal> neighbor : graph.get(u).entrySet()) {
-                    Long v = neighbor.getKey();
-                    BigDecimal weight = neighbor.getValue();
-
-                    if (!visited.contains(v)) {
-                         BigDecimal currentDist = distances.get(v);
-                         BigDecimal newDist = distances.get(u).add(weight);
-
-                         if (currentDist == null || newDist.compareTo(currentDist) < 0) {
-                             distances.put(v, newDist);
-                             pq.add(new Node(v, newDist));
-                         }
-                    }
-                }
-            }
+    /**
+     * Searches the road graph with the given algorithm, bypassing the distance
+     * table, and reports how many nodes the search settled. A contraction
+     * hierarchy search runs as A* while the hierarchy is not built.
+     * With {@code departAt}, also the fastest drive time when leaving then,
+     * with edge weights in minutes from the {@link TrafficProfiles} for that
+     * time of day (that route may differ from the shortest one).
+     */
+    public ShortestPathDTO findShortestPath(Long sourceCityId, Long destCityId,
+            ShortestPathEngine.Algorithm algorithm, LocalDateTime departAt) {
+        RoadGraph graph = roadGraphProvider.current();
+        int source = graph.node(sourceCityId);
+        int target = graph.node(destCityId);
+
+        ShortestPathEngine.Algorithm used = effectiveAlgorithm(contractionHierarchyProvider.get(graph), algorithm);
+
+        long started = System.nanoTime();
+        ShortestPathEngine.SearchResult result = source < 0 || target < 0
+                ? new ShortestPathEngine.SearchResult(Double.POSITIVE_INFINITY, 0)
+                : search(graph, source, target, used);
+
+        double searchMicros = (System.nanoTime() - started) / 1e3;
+
+        BigDecimal travelMinutes = null;
+        if (departAt != null && source >= 0 && target >= 0) {
+            TrafficProfiles.NodePaces paces = trafficProfiles.paces(graph, departAt);
+            double minutes = ShortestPathEngine.travelTime(graph, source, target,
+                    paces.minutesPerKm(), paces.fastest()).distance();
+            travelMinutes = Double.isInfinite(minutes) ? null
+                    : BigDecimal.valueOf(minutes).setScale(1, RoundingMode.HALF_UP);
         }
 
-        return null; // unreachable
+        return ShortestPathDTO.builder()
+                .sourceCityId(sourceCityId)
+                .destCityId(destCityId)
+                .algorithm(used.name())
+                .distanceKm(Double.isInfinite(result.distance()) ? null
+                        : BigDecimal.valueOf(result.distance()).setScale(2, RoundingMode.HALF_UP))
+                .settledNodes(result.settled())
+                .searchMicros(searchMicros)
+                .departAt(departAt)
+                .travelMinutes(travelMinutes)
+                .build();
+    }
+
+    /**
+     * Searches run so far per algorithm, with average nodes settled.
+     */
+    public List<RouteSearchStatsDTO> getSearchStats() {
+        int graphNodes = roadGraphProvider.current().nodeCount();
+        List<RouteSearchStatsDTO> stats = new ArrayList<>();
+        searchCounters.forEach((algorithm, counters) -> {
+            long searches = counters.searches.sum();
+            stats.add(RouteSearchStatsDTO.builder()
+                    .algorithm(algorithm.name())
+                    .searches(searches)
+                    .settledNodes(counters.settled.sum())
+                    .avgSettledNodes(searches == 0 ? 0 : counters.settled.sum() / (double) searches)
+                    .avgSearchMicros(searches == 0 ? 0 : counters.nanos.sum() / 1e3 / searches)
+                    .graphNodes(graphNodes)
+                    .build());
+        });
+        return stats;
     }
 
     public FareCalculationResult calculateFare(Long sourceCityId, Long destCityId, String vehicleTypeStr) {
@@ -123,9 +155,7 @@ public class RouteService {
         // Add Tax (10%)
         estimatedCost = estimatedCost.multiply(BigDecimal.valueOf(1.10)).setScale(2, RoundingMode.HALF_UP);
 
-        City source = cityRepository.findById(sourceCityId).orElse(new City());
-        City dest = cityRepository.findById(destCityId).orElse(new City());
-        String details = source.getName() + " -> " + dest.getName();
+        String details = cityName(sourceCityId) + " -> " + cityName(destCityId);
 
         return new FareCalculationResult(
             distance,
@@ -136,13 +166,47 @@ public class RouteService {
         );
     }
 
-    private static class Node {
-        Long id;
-        BigDecimal distance;
+    private String cityName(Long cityId) {
+        RoadGraph graph = roadGraphProvider.current();
+        int node = graph.node(cityId);
+        return node >= 0 ? graph.cityName(node) : null;
+    }
 
-        public Node(Long id, BigDecimal distance) {
-            this.id = id;
-            this.distance = distance;
+    private ShortestPathEngine.SearchResult search(RoadGraph graph, int source, int target,
+            ShortestPathEngine.Algorithm algorithm) {
+        long started = System.nanoTime();
+        ContractionHierarchy hierarchy = algorithm == ShortestPathEngine.Algorithm.CONTRACTION_HIERARCHY
+                ? contractionHierarchyProvider.get(graph) : null;
+        algorithm = effectiveAlgorithm(hierarchy, algorithm);
+        ShortestPathEngine.SearchResult result = hierarchy != null
+                ? hierarchy.search(source, target)
+                : ShortestPathEngine.search(graph, source, target, algorithm);
+
+        SearchCounters counters = searchCounters.get(algorithm);
+        counters.searches.increment();
+        counters.settled.add(result.settled());
+        counters.nanos.add(System.nanoTime() - started);
+        return result;
+    }
+
+    // A contraction hierarchy search runs as A* on graphs without a hierarchy
+    private static ShortestPathEngine.Algorithm effectiveAlgorithm(ContractionHierarchy hierarchy,
+            ShortestPathEngine.Algorithm algorithm) {
+        return hierarchy == null && algorithm == ShortestPathEngine.Algorithm.CONTRACTION_HIERARCHY
+                ? ShortestPathEngine.Algorithm.ASTAR : algorithm;
+    }
+
+    private static Map<ShortestPathEngine.Algorithm, SearchCounters> createCounters() {
+        Map<ShortestPathEngine.Algorithm, SearchCounters> counters = new EnumMap<>(ShortestPathEngine.Algorithm.class);
+        for (ShortestPathEngine.Algorithm algorithm : ShortestPathEngine.Algorithm.values()) {
+            counters.put(algorithm, new SearchCounters());
         }
+        return counters;
+    }
+
+    private static class SearchCounters {
+        final LongAdder searches = new LongAdder();
+        final LongAdder settled = new LongAdder();
+        final LongAdder nanos = new LongAdder();
     }
 }
@@ -0,0 +1,328 @@
+package com.neurofleetx.service;
+
+import java.util.Arrays;
+
+/**
+ * Point-to-point shortest paths over a {@link RoadGraph}.
+ *
+ * Three searches on primitive arrays, selectable per call:
+ * <ul>
+ * <li>{@link Algorithm#DIJKSTRA}: plain Dijkstra from the source;</li>
+ * <li>{@link Algorithm#ASTAR}: Dijkstra ordered by distance so far plus the
+ * graph's scaled straight-line distance to the target, which settles far
+ * fewer nodes when cities have coordinates;</li>
+ * <li>{@link Algorithm#BIDIRECTIONAL}: Dijkstra from both ends (routes are
+ * two-way), stopping once the two frontiers cannot improve on the best
+ * meeting point found.</li>
+ * </ul>
+ * {@link Algorithm#CONTRACTION_HIERARCHY} needs preprocessing and is answered
+ * by {@link ContractionHierarchy} instead.
+ * The frontier is an {@link IndexedMinHeap} with decrease-key and the scratch
+ * arrays are kept per thread and reused between queries. A slot is valid only
+ * when its stamp matches the current query, so a query never clears arrays
+ * sized to the whole graph; its cost depends on how much of the graph it
+ * explores, which {@link SearchResult#settled()} reports.
+ */
+public final class ShortestPathEngine {
+
+    public enum Algorithm {
+        DIJKSTRA,
+        ASTAR,
+        BIDIRECTIONAL,
+        CONTRACTION_HIERARCHY
+    }
+
+    /**
+     * @param distance shortest path length, infinite if unreachable
+     * @param settled  nodes taken off the frontier(s) to find it
+     */
+    public record SearchResult(double distance, int settled) {
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private ShortestPathEngine() {
+    }
+
+    /**
+     * Length of the shortest path between two nodes, or
+     * {@link Double#POSITIVE_INFINITY} if the target cannot be reached.
+     */
+    public static double distance(RoadGraph graph, int source, int target) {
+        return search(graph, source, target, Algorithm.DIJKSTRA).distance();
+    }
+
+    public static SearchResult search(RoadGraph graph, int source, int target, Algorithm algorithm) {
+        if (source == target) {
+            return new SearchResult(0.0, 0);
+        }
+
+        Scratch scratch = SCRATCH.get().prepare(graph.nodeCount());
+        try {
+            return switch (algorithm) {
+                case DIJKSTRA -> directed(graph, source, target, 0.0, scratch);
+                case ASTAR -> directed(graph, source, target, graph.heuristicScale(), scratch);
+                case BIDIRECTIONAL -> bidirectional(graph, source, target, scratch);
+                case CONTRACTION_HIERARCHY -> throw new IllegalArgumentException(
+                        "Contraction hierarchy queries go through ContractionHierarchy.search");
+            };
+        } finally {
+            scratch.forwardHeap.clear();
+            scratch.backwardHeap.clear();
+        }
+    }
+
+    /**
+     * Fastest path in minutes, when an edge between {@code u} and {@code v}
+     * takes its length times the mean of {@code paces[u]} and
+     * {@code paces[v]} (minutes per km), such as {@link TrafficProfiles}
+     * gives for a departure time. A* with the straight-line bound taken at
+     * the {@code fastest} pace, which keeps it consistent.
+     * {@link SearchResult#distance()} is the travel time.
+     */
+    public static SearchResult travelTime(RoadGraph graph, int source, int target, double[] paces, double fastest) {
+        if (source == target) {
+            return new SearchResult(0.0, 0);
+        }
+
+        Scratch scratch = SCRATCH.get().prepare(graph.nodeCount());
+        try {
+            return directed(graph, source, target, graph.heuristicScale() * fastest, paces, scratch);
+        } finally {
+            scratch.forwardHeap.clear();
+        }
+    }
+
+    private static SearchResult directed(RoadGraph graph, int source, int target, double scale, Scratch scratch) {
+        return directed(graph, source, target, scale, null, scratch);
+    }
+
+    /**
+     * Dijkstra, or A* when {@code scale > 0}: the frontier is keyed by distance
+     * so far plus {@code scale * straightLineKm(node, target)}. That bound is
+     * consistent (see {@link RoadGraph#heuristicScale()}), so a node is final
+     * when settled, exactly as in Dijkstra. With {@code paces}, edge lengths
+     * are converted to minutes as in {@link #travelTime}.
+     */
+    private static SearchResult directed(RoadGraph graph, int source, int target, double scale, double[] paces,
+            Scratch scratch) {
+        IndexedMinHeap heap = scratch.forwardHeap;
+        scratch.reachForward(source, 0.0);
+        heap.insertOrDecrease(source, 0.0);
+        int settled = 0;
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled++;
+            double du = scratch.forward(u);
+            if (u == target) {
+                return new SearchResult(du, settled);
+            }
+
+            for (int edge = graph.firstEdge(u), end = graph.endEdge(u); edge < end; edge++) {
+                int v = graph.target(edge);
+                double dv = du + (paces == null ? graph.weight(edge) : graph.weight(edge) * 0.5 * (paces[u] + paces[v]));
+                // Settled nodes never improve: weights are non-negative
+                if (dv < scratch.forward(v)) {
+                    scratch.reachForward(v, dv);
+                    heap.insertOrDecrease(v, scale > 0 ? dv + scratch.heuristic(graph, v, target, scale) : dv);
+                }
+            }
+        }
+        return new SearchResult(Double.POSITIVE_INFINITY, settled);
+    }
+
+    /**
+     * Dijkstra from both ends, expanding whichever frontier is closer. The
+     * best path seen through any edge joining the two searches is final once
+     * the two frontier minimums add up to at least its length.
+     */
+    private static SearchResult bidirectional(RoadGraph graph, int source, int target, Scratch scratch) {
+        IndexedMinHeap forwardHeap = scratch.forwardHeap;
+        IndexedMinHeap backwardHeap = scratch.backwardHeap;
+        scratch.reachForward(source, 0.0);
+        forwardHeap.insertOrDecrease(source, 0.0);
+        scratch.reachBackward(target, 0.0);
+        backwardHeap.insertOrDecrease(target, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int settled = 0;
+
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()
+                && forwardHeap.peekKey() + backwardHeap.peekKey() < best) {
+            boolean forward = forwardHeap.peekKey() <= backwardHeap.peekKey();
+            int u = forward ? forwardHeap.poll() : backwardHeap.poll();
+            settled++;
+            double du = forward ? scratch.forward(u) : scratch.backward(u);
+
+            for (int edge = graph.firstEdge(u), end = graph.endEdge(u); edge < end; edge++) {
+                int v = graph.target(edge);
+                double dv = du + graph.weight(edge);
+                if (forward) {
+                    if (dv < scratch.forward(v)) {
+                        scratch.reachForward(v, dv);
+                        forwardHeap.insertOrDecrease(v, dv);
+                    }
+                    best = Math.min(best, dv + scratch.backward(v));
+                } else {
+                    if (dv < scratch.backward(v)) {
+                        scratch.reachBackward(v, dv);
+                        backwardHeap.insertOrDecrease(v, dv);
+                    }
+                    best = Math.min(best, dv + scratch.forward(v));
+                }
+            }
+        }
+        return new SearchResult(best, settled);
+    }
+
+    /**
+     * Distances from {@code source} to every node, written to
+     * {@code distances[offset + node]}, and each node's predecessor on its
+     * shortest path to {@code predecessors[offset + node]} (-1 for the source
+     * and for unreachable nodes, whose distance is infinite).
+     */
+    public static void shortestPathTree(RoadGraph graph, int source,
+            double[] distances, int[] predecessors, int offset) {
+        int n = graph.nodeCount();
+        Arrays.fill(distances, offset, offset + n, Double.POSITIVE_INFINITY);
+        Arrays.fill(predecessors, offset, offset + n, -1);
+
+        IndexedMinHeap heap = SCRATCH.get().prepare(n).forwardHeap;
+        try {
+            distances[offset + source] = 0.0;
+            heap.insertOrDecrease(source, 0.0);
+
+            while (!heap.isEmpty()) {
+                double du = heap.peekKey();
+                int u = heap.poll();
+
+                for (int edge = graph.firstEdge(u), end = graph.endEdge(u); edge < end; edge++) {
+                    int v = graph.target(edge);
+                    double dv = du + graph.weight(edge);
+                    if (dv < distances[offset + v]) {
+                        distances[offset + v] = dv;
+                        predecessors[offset + v] = u;
+                        heap.insertOrDecrease(v, dv);
+                    }
+                }
+            }
+        } finally {
+            heap.clear();
+        }
+    }
+
+    /**
+     * Distances from {@code source} to each of {@code targets}, written to
+     * {@code distances[offset + j]} (infinite if unreachable). One Dijkstra
+     * search that stops as soon as every target is settled, so nearby targets
+     * cost far less than a full {@link #shortestPathTree}.
+     *
+     * @return nodes settled
+     */
+    public static int oneToMany(RoadGraph graph, int source, int[] targets, double[] distances, int offset) {
+        Scratch scratch = SCRATCH.get().prepare(graph.nodeCount());
+        IndexedMinHeap heap = scratch.forwardHeap;
+        // The backward slots are unused here; they mark the targets still to settle
+        int remaining = 0;
+        for (int target : targets) {
+            if (scratch.backward(target) == Double.POSITIVE_INFINITY) {
+                scratch.reachBackward(target, 0.0);
+                remaining++;
+            }
+        }
+
+        int settled = 0;
+        try {
+            scratch.reachForward(source, 0.0);
+            heap.insertOrDecrease(source, 0.0);
+            while (remaining > 0 && !heap.isEmpty()) {
+                int u = heap.poll();
+                settled++;
+                double du = scratch.forward(u);
+                if (scratch.backward(u) == 0.0) {
+                    scratch.reachBackward(u, Double.POSITIVE_INFINITY);
+                    remaining--;
+                }
+
+                for (int edge = graph.firstEdge(u), end = graph.endEdge(u); edge < end; edge++) {
+                    int v = graph.target(edge);
+                    double dv = du + graph.weight(edge);
+                    if (dv < scratch.forward(v)) {
+                        scratch.reachForward(v, dv);
+                        heap.insertOrDecrease(v, dv);
+                    }
+                }
+            }
+        } finally {
+            heap.clear();
+        }
+
+        for (int j = 0; j < targets.length; j++) {
+            distances[offset + j] = scratch.forward(targets[j]);
+        }
+        return settled;
+    }
+
+    /** Per-thread search state, grown to the largest graph seen. */
+    private static final class Scratch {
+
+        private double[] forward = new double[0];
+        private double[] backward = new double[0];
+        private double[] heuristics = new double[0];
+        private int[] forwardStamps = new int[0];
+        private int[] backwardStamps = new int[0];
+        private int[] heuristicStamps = new int[0];
+        private int stamp;
+        private final IndexedMinHeap forwardHeap = new IndexedMinHeap(0);
+        private final IndexedMinHeap backwardHeap = new IndexedMinHeap(0);
+
+        Scratch prepare(int nodeCount) {
+            if (forward.length < nodeCount) {
+                forward = new double[nodeCount];
+                backward = new double[nodeCount];
+                heuristics = new double[nodeCount];
+                forwardStamps = new int[nodeCount];
+                backwardStamps = new int[nodeCount];
+                heuristicStamps = new int[nodeCount];
+                stamp = 0;
+                forwardHeap.ensureCapacity(nodeCount);
+                backwardHeap.ensureCapacity(nodeCount);
+            }
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(forwardStamps, 0);
+                Arrays.fill(backwardStamps, 0);
+                Arrays.fill(heuristicStamps, 0);
+                stamp = 1;
+            }
+            return this;
+        }
+
+        double forward(int node) {
+            return forwardStamps[node] == stamp ? forward[node] : Double.POSITIVE_INFINITY;
+        }
+
+        void reachForward(int node, double distance) {
+            forward[node] = distance;
+            forwardStamps[node] = stamp;
+        }
+
+        double backward(int node) {
+            return backwardStamps[node] == stamp ? backward[node] : Double.POSITIVE_INFINITY;
+        }
+
+        void reachBackward(int node, double distance) {
+            backward[node] = distance;
+            backwardStamps[node] = stamp;
+        }
+
+        /** Scaled straight-line bound to the target, computed once per node and query. */
+        double heuristic(RoadGraph graph, int node, int target, double scale) {
+            if (heuristicStamps[node] != stamp) {
+                heuristics[node] = scale * graph.straightLineKm(node, target);
+                heuristicStamps[node] = stamp;
+            }
+            return heuristics[node];
+        }
+    }
+}
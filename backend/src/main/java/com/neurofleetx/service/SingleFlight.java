@@ -0,0 +1,87 @@
+package com.neurofleetx.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent fetches of the same key: the first caller for a key
+ * starts the fetch, and callers arriving while it is in flight get the same
+ * future instead of starting their own. Once the fetch completes the key is
+ * free again, so a later caller always starts a fresh fetch and never gets an
+ * answer older than its own request.
+ *
+ * Every caller of a key shares one result object, so callers that modify it
+ * must copy it first.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAccumulator maxFanIn = new LongAccumulator(Math::max, 0);
+
+    /**
+     * The in-flight result for {@code key}, or the result of a fetch started
+     * with {@code fetch} when none is in flight.
+     */
+    public CompletableFuture<V> run(K key, Supplier<CompletableFuture<V>> fetch) {
+        Flight<V> created = new Flight<>();
+        Flight<V> flight = flights.merge(key, created, (current, ignored) -> {
+            current.callers.incrementAndGet();
+            return current;
+        });
+        if (flight != created) {
+            coalesced.increment();
+            return flight.result;
+        }
+
+        fetches.increment();
+        CompletableFuture<V> source;
+        try {
+            source = fetch.get();
+        } catch (RuntimeException e) {
+            source = CompletableFuture.failedFuture(e);
+        }
+        source.whenComplete((value, error) -> {
+            // Free the key before completing, so no caller joins a finished flight
+            flights.remove(key, flight);
+            maxFanIn.accumulate(flight.callers.get());
+            if (error != null) {
+                flight.result.completeExceptionally(error);
+            } else {
+                flight.result.complete(value);
+            }
+        });
+        return flight.result;
+    }
+
+    /** Keys with a fetch in flight. */
+    public int inFlight() {
+        return flights.size();
+    }
+
+    /** Fetches started, one per flight. */
+    public long fetches() {
+        return fetches.sum();
+    }
+
+    /** Callers that joined a flight instead of fetching. */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    /** Most callers served by one completed fetch. */
+    public long maxFanIn() {
+        return maxFanIn.get();
+    }
+
+    private static final class Flight<V> {
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        final AtomicInteger callers = new AtomicInteger(1);
+    }
+}
@@ -0,0 +1,126 @@
+package com.neurofleetx.service;
+
+/**
+ * Keeps the {@code k} lowest-scoring candidates seen so far in a bounded
+ * max-heap over primitive arrays, so selecting winners is O(n log k) with no
+ * per-offer allocation instead of a full sort.
+ *
+ * Ties on score are broken by a secondary key (the driver id), which gives a
+ * total order that cursor pagination can resume from.
+ */
+public final class TopKSelector {
+
+    private final int capacity;
+    private final int[] indices;
+    private final double[] scores;
+    private final long[] keys;
+    private int size;
+
+    public TopKSelector(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        this.capacity = k;
+        this.indices = new int[k];
+        this.scores = new double[k];
+        this.keys = new long[k];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Offers a candidate; it is kept only if it ranks among the best k so far.
+     */
+    public void offer(int index, double score, long key) {
+        if (size < capacity) {
+            indices[size] = index;
+            scores[size] = score;
+            keys[size] = key;
+            siftUp(size++);
+        } else if (less(score, key, scores[0], keys[0])) {
+            indices[0] = index;
+            scores[0] = score;
+            keys[0] = key;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Offers everything another selector holds, e.g. a per-chunk result.
+     */
+    public void merge(TopKSelector other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.indices[i], other.scores[i], other.keys[i]);
+        }
+    }
+
+    /**
+     * Empties the selector, returning candidate indices best first.
+     */
+    public int[] drainAscending() {
+        int[] ordered = new int[size];
+        for (int i = ordered.length - 1; i >= 0; i--) {
+            ordered[i] = indices[0];
+            size--;
+            if (size > 0) {
+                indices[0] = indices[size];
+                scores[0] = scores[size];
+                keys[0] = keys[size];
+                siftDown(0);
+            }
+        }
+        return ordered;
+    }
+
+    private static boolean less(double scoreA, long keyA, double scoreB, long keyB) {
+        return scoreA < scoreB || (scoreA == scoreB && keyA < keyB);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(scores[parent], keys[parent], scores[i], keys[i])) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            int largest = left;
+            int right = left + 1;
+            if (right < size && less(scores[left], keys[left], scores[right], keys[right])) {
+                largest = right;
+            }
+            if (!less(scores[i], keys[i], scores[largest], keys[largest])) {
+                break;
+            }
+            swap(i, largest);
+            i = largest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int index = indices[a];
+        indices[a] = indices[b];
+        indices[b] = index;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+    }
+}
@@ -0,0 +1,408 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.dto.RouteGeometry;
+import com.neurofleetx.dto.TrafficProfileStatsDTO;
+import com.neurofleetx.model.Booking;
+import com.neurofleetx.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Learned time-of-day traffic: the typical driving speed in each map grid
+ * cell for each 15-minute slot of the week, so route scores and road graph
+ * searches can allow for rush hour without querying bookings.
+ *
+ * Speeds come from completed trips, as distance over the time from start to
+ * completion. A trip counts towards the cells of its pickup and drop and a
+ * city-wide row, in the slot of its midpoint. Each slot keeps a running mean
+ * that becomes an exponential moving average (weight
+ * {@code traffic.profile.min-weight}) once it has enough trips, so it follows
+ * patterns that change. A slot is trusted from
+ * {@code traffic.profile.min-samples} trips; until a cell's own slot is, the
+ * city-wide speed for that slot is scaled to the cell's typical speed, and
+ * with no data at all speeds default to {@code traffic.profile.default-kmh}.
+ *
+ * Per cell that is a float speed and an int count for each of the 672 slots,
+ * plus its all-week typical speed, in flat arrays grown a block of cells at a
+ * time up to {@code traffic.profile.max-cells}; cells beyond that use the
+ * city-wide row. Trips are learned after the completing transaction commits,
+ * and the last {@code traffic.profile.history-days} of trips are read once
+ * at startup. Lookups only read the arrays, which a single writer updates in
+ * place, so a reader may see a slot one trip behind.
+ */
+@Component
+public class TrafficProfiles {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrafficProfiles.class);
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    public static final int SLOTS = 7 * SLOTS_PER_DAY;
+
+    private static final int CITYWIDE = 0;
+    private static final int GROWTH_ROWS = 64;
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final double MIN_CONGESTION = 0.5;
+    private static final double MAX_CONGESTION = 4.0;
+    private static final int GEOMETRY_SAMPLES = 32;
+    private static final long PACE_REFRESH_NANOS = 60_000_000_000L;
+
+    private final BookingRepository bookingRepository;
+    private final double cellKm;
+    private final double cellDeg;
+    private final int maxCells;
+    private final int minSamples;
+    private final float minWeight;
+    private final double defaultKmh;
+    private final int historyDays;
+
+    private final Map<Long, Integer> cellRows = new ConcurrentHashMap<>();
+    private volatile Table table = new Table(1 + GROWTH_ROWS);
+    private volatile long version; // trips learned; written under this
+
+    private final LongAdder tripsLearned = new LongAdder();
+    private final LongAdder tripsRejected = new LongAdder();
+
+    private volatile CachedPaces cachedPaces;
+
+    /**
+     * Minutes per km at each node of a graph, for
+     * {@link ShortestPathEngine#travelTime}, and the smallest of them.
+     */
+    public record NodePaces(double[] minutesPerKm, double fastest) {
+    }
+
+    public TrafficProfiles(BookingRepository bookingRepository,
+            @Value("${traffic.profile.cell-km:2.0}") double cellKm,
+            @Value("${traffic.profile.max-cells:1024}") int maxCells,
+            @Value("${traffic.profile.min-samples:3}") int minSamples,
+            @Value("${traffic.profile.min-weight:0.05}") double minWeight,
+            @Value("${traffic.profile.default-kmh:30}") double defaultKmh,
+            @Value("${traffic.profile.history-days:56}") int historyDays) {
+        this.bookingRepository = bookingRepository;
+        this.cellKm = cellKm;
+        this.cellDeg = cellKm / KM_PER_DEGREE;
+        this.maxCells = maxCells;
+        this.minSamples = Math.max(1, minSamples);
+        this.minWeight = (float) minWeight;
+        this.defaultKmh = defaultKmh;
+        this.historyDays = historyDays;
+    }
+
+    /**
+     * Slot of the week a time falls in, from 0 (Monday 00:00) to
+     * {@code SLOTS - 1}.
+     */
+    public static int slot(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * SLOTS_PER_DAY
+                + (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    /**
+     * Expected driving speed in km/h around a point at a time.
+     */
+    public double speedKmh(double lat, double lng, LocalDateTime at) {
+        Table current = table;
+        return speed(current, row(lat, lng, current), slot(at));
+    }
+
+    /**
+     * Travel time around a point at a time relative to its typical travel
+     * time: above 1 in rush hour, below 1 when roads are quieter than usual,
+     * exactly 1 with nothing learned yet.
+     */
+    public double congestion(double lat, double lng, LocalDateTime at) {
+        Table current = table;
+        return congestion(current, row(lat, lng, current), slot(at));
+    }
+
+    /**
+     * Mean {@link #congestion} over up to 32 evenly spaced points of a route.
+     */
+    public double congestionAlong(RouteGeometry geometry, LocalDateTime at) {
+        Table current = table;
+        int slot = slot(at);
+        if (geometry == null || geometry.size() == 0) {
+            return congestion(current, CITYWIDE, slot);
+        }
+        int points = Math.min(geometry.size(), GEOMETRY_SAMPLES);
+        double sum = 0;
+        for (int i = 0; i < points; i++) {
+            int point = points == 1 ? 0 : (int) ((long) i * (geometry.size() - 1) / (points - 1));
+            sum += congestion(current, row(geometry.latitude(point), geometry.longitude(point), current), slot);
+        }
+        return sum / points;
+    }
+
+    /**
+     * Paces at every node of {@code graph} when departing at {@code departAt}.
+     * Kept until the graph or the slot changes, or for a minute once more
+     * trips were learned, so searches do not recompute them.
+     */
+    public NodePaces paces(RoadGraph graph, LocalDateTime departAt) {
+        int slot = slot(departAt);
+        CachedPaces cached = cachedPaces;
+        if (cached != null && cached.graph() == graph && cached.slot() == slot
+                && (cached.version() == version || System.nanoTime() - cached.computedAtNanos() < PACE_REFRESH_NANOS)) {
+            return cached.paces();
+        }
+
+        Table current = table;
+        long learned = version;
+        double[] minutesPerKm = new double[graph.nodeCount()];
+        double fastest = Double.POSITIVE_INFINITY;
+        for (int node = 0; node < minutesPerKm.length; node++) {
+            minutesPerKm[node] = 60.0 / speed(current, row(graph.latitude(node), graph.longitude(node), current), slot);
+            fastest = Math.min(fastest, minutesPerKm[node]);
+        }
+        NodePaces paces = new NodePaces(minutesPerKm, minutesPerKm.length > 0 ? fastest : 0.0);
+        cachedPaces = new CachedPaces(graph, slot, learned, System.nanoTime(), paces);
+        return paces;
+    }
+
+    /**
+     * Learns from a booking that just completed, once its transaction commits.
+     */
+    public void recordTrip(Booking booking) {
+        if (booking.getStartedAt() == null || booking.getCompletedAt() == null || booking.getDistanceKm() == null) {
+            return;
+        }
+        // Read now: the entity may change before the commit
+        LocalDateTime startedAt = booking.getStartedAt();
+        LocalDateTime completedAt = booking.getCompletedAt();
+        double distanceKm = booking.getDistanceKm().doubleValue();
+        double pickupLat = toDouble(booking.getPickupLatitude());
+        double pickupLng = toDouble(booking.getPickupLongitude());
+        double dropLat = toDouble(booking.getReturnLatitude());
+        double dropLng = toDouble(booking.getReturnLongitude());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    learn(startedAt, completedAt, distanceKm, pickupLat, pickupLng, dropLat, dropLng);
+                }
+            });
+        } else {
+            learn(startedAt, completedAt, distanceKm, pickupLat, pickupLng, dropLat, dropLng);
+        }
+    }
+
+    /**
+     * Startup: learns from the trips completed in the last
+     * {@code traffic.profile.history-days}, in one column query.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHistory() {
+        if (historyDays <= 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        List<Object[]> rows = bookingRepository.findCompletedTrips(LocalDateTime.now().minusDays(historyDays));
+        int learned = 0;
+        for (Object[] row : rows) {
+            if (row[2] != null && learn((LocalDateTime) row[0], (LocalDateTime) row[1], ((BigDecimal) row[2]).doubleValue(),
+                    toDouble(row[3]), toDouble(row[4]), toDouble(row[5]), toDouble(row[6]))) {
+                learned++;
+            }
+        }
+        logger.info("Traffic profiles learned from {} of {} trips in {} cells in {} ms", learned, rows.size(),
+                cellRows.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public TrafficProfileStatsDTO getStats() {
+        Table current = table;
+        double typical = typical(current, CITYWIDE);
+        LocalDateTime now = LocalDateTime.now();
+        return TrafficProfileStatsDTO.builder()
+                .cellKm(cellKm)
+                .cells(cellRows.size())
+                .maxCells(maxCells)
+                .slotMinutes(SLOT_MINUTES)
+                .tripsLearned(tripsLearned.sum())
+                .tripsRejected(tripsRejected.sum())
+                .citywideTypicalKmh(Double.isNaN(typical) ? defaultKmh : typical)
+                .citywideKmhNow(speed(current, CITYWIDE, slot(now)))
+                .citywideCongestionNow(congestion(current, CITYWIDE, slot(now)))
+                .memoryBytes(current.memoryBytes())
+                .build();
+    }
+
+    /**
+     * Adds one trip, or rejects it when its duration or average speed is
+     * implausible (clock errors, trips left open).
+     */
+    boolean learn(LocalDateTime startedAt, LocalDateTime completedAt, double distanceKm,
+            double pickupLat, double pickupLng, double dropLat, double dropLng) {
+        double minutes = Duration.between(startedAt, completedAt).toMillis() / 60_000.0;
+        double kmh = distanceKm / (minutes / 60.0);
+        if (minutes < 1 || minutes > 360 || !(kmh >= 2 && kmh <= 150)) {
+            tripsRejected.increment();
+            return false;
+        }
+        int slot = slot(startedAt.plus(Duration.between(startedAt, completedAt).dividedBy(2)));
+
+        synchronized (this) {
+            int pickup = rowForUpdate(pickupLat, pickupLng);
+            int drop = rowForUpdate(dropLat, dropLng);
+            Table current = table;
+            current.add(CITYWIDE, slot, (float) kmh, minWeight);
+            if (pickup != CITYWIDE) {
+                current.add(pickup, slot, (float) kmh, minWeight);
+            }
+            if (drop != CITYWIDE && drop != pickup) {
+                current.add(drop, slot, (float) kmh, minWeight);
+            }
+            version++;
+        }
+        tripsLearned.increment();
+        return true;
+    }
+
+    private double speed(Table current, int row, int slot) {
+        if (row != CITYWIDE) {
+            double own = current.slotSpeed(row, slot, minSamples);
+            if (!Double.isNaN(own)) {
+                return own;
+            }
+            double cellTypical = typical(current, row);
+            if (!Double.isNaN(cellTypical)) {
+                double shape = current.slotSpeed(CITYWIDE, slot, minSamples) / typical(current, CITYWIDE);
+                return Double.isNaN(shape) ? cellTypical : cellTypical * shape;
+            }
+        }
+        double citywide = current.slotSpeed(CITYWIDE, slot, minSamples);
+        if (!Double.isNaN(citywide)) {
+            return citywide;
+        }
+        double typical = typical(current, CITYWIDE);
+        return Double.isNaN(typical) ? defaultKmh : typical;
+    }
+
+    private double congestion(Table current, int row, int slot) {
+        double reference = row != CITYWIDE ? typical(current, row) : Double.NaN;
+        if (Double.isNaN(reference)) {
+            reference = typical(current, CITYWIDE);
+        }
+        if (Double.isNaN(reference)) {
+            return 1.0;
+        }
+        return Math.max(MIN_CONGESTION, Math.min(MAX_CONGESTION, reference / speed(current, row, slot)));
+    }
+
+    private double typical(Table current, int row) {
+        return current.typicalSamples[row] >= minSamples ? current.typical[row] : Double.NaN;
+    }
+
+    /** Row of a point's cell, or the city-wide row when unknown. */
+    private int row(double lat, double lng, Table current) {
+        if (Double.isNaN(lat) || Double.isNaN(lng)) {
+            return CITYWIDE;
+        }
+        Integer row = cellRows.get(cellKey(lat, lng));
+        // A row is published after the table grew to hold it, but check anyway
+        return row != null && row < current.rows ? row : CITYWIDE;
+    }
+
+    // Guarded by this
+    private int rowForUpdate(double lat, double lng) {
+        if (Double.isNaN(lat) || Double.isNaN(lng)) {
+            return CITYWIDE;
+        }
+        long key = cellKey(lat, lng);
+        Integer row = cellRows.get(key);
+        if (row != null) {
+            return row;
+        }
+        if (cellRows.size() >= maxCells) {
+            return CITYWIDE;
+        }
+        int next = cellRows.size() + 1;
+        if (next >= table.rows) {
+            table = table.grow(Math.min(table.rows + GROWTH_ROWS, maxCells + 1));
+        }
+        cellRows.put(key, next);
+        return next;
+    }
+
+    private long cellKey(double lat, double lng) {
+        long latCell = Math.round(lat / cellDeg);
+        long lngCell = Math.round(lng / cellDeg);
+        return (latCell << 32) | (lngCell & 0xFFFFFFFFL);
+    }
+
+    private static double toDouble(Object value) {
+        return value != null ? ((BigDecimal) value).doubleValue() : Double.NaN;
+    }
+
+    private record CachedPaces(RoadGraph graph, int slot, long version, long computedAtNanos, NodePaces paces) {
+    }
+
+    /** Slot speeds and counts of {@code rows} rows, row 0 being city-wide. */
+    private static final class Table {
+        final int rows;
+        final float[] speeds;
+        final int[] samples;
+        final float[] typical;
+        final int[] typicalSamples;
+
+        Table(int rows) {
+            this(rows, new float[rows * SLOTS], new int[rows * SLOTS], new float[rows], new int[rows]);
+        }
+
+        private Table(int rows, float[] speeds, int[] samples, float[] typical, int[] typicalSamples) {
+            this.rows = rows;
+            this.speeds = speeds;
+            this.samples = samples;
+            this.typical = typical;
+            this.typicalSamples = typicalSamples;
+        }
+
+        Table grow(int newRows) {
+            return new Table(newRows, Arrays.copyOf(speeds, newRows * SLOTS), Arrays.copyOf(samples, newRows * SLOTS),
+                    Arrays.copyOf(typical, newRows), Arrays.copyOf(typicalSamples, newRows));
+        }
+
+        double slotSpeed(int row, int slot, int minSamples) {
+            int i = row * SLOTS + slot;
+            return samples[i] >= minSamples ? speeds[i] : Double.NaN;
+        }
+
+        void add(int row, int slot, float kmh, float minWeight) {
+            int i = row * SLOTS + slot;
+            speeds[i] = average(speeds[i], samples[i], kmh, minWeight);
+            samples[i] = saturatedIncrement(samples[i]);
+            typical[row] = average(typical[row], typicalSamples[row], kmh, minWeight);
+            typicalSamples[row] = saturatedIncrement(typicalSamples[row]);
+        }
+
+        long memoryBytes() {
+            return (long) rows * SLOTS * (Float.BYTES + Integer.BYTES) + (long) rows * (Float.BYTES + Integer.BYTES);
+        }
+
+        // Running mean for the first 1 / minWeight samples, then an exponential moving average
+        private static float average(float mean, int count, float value, float minWeight) {
+            float weight = Math.max(1f / (count + 1), minWeight);
+            return mean + weight * (value - mean);
+        }
+
+        private static int saturatedIncrement(int count) {
+            return count < Integer.MAX_VALUE ? count + 1 : count;
+        }
+    }
+}
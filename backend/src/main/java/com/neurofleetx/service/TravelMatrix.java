@@ -0,0 +1,22 @@
+package com.neurofleetx.service;
+
+/**
+ * Travel times and road distances from every source to every destination,
+ * packed row-major into {@code float[]}: the cell for source {@code i} and
+ * destination {@code j} is at {@code i * destinations + j}. Unreachable
+ * pairs are NaN.
+ *
+ * @param durations seconds
+ * @param distances kilometres
+ * @param provider  {@code osrm} or {@code local}
+ */
+public record TravelMatrix(int sources, int destinations, float[] durations, float[] distances, String provider) {
+
+    public float duration(int source, int destination) {
+        return durations[source * destinations + destination];
+    }
+
+    public float distance(int source, int destination) {
+        return distances[source * destinations + destination];
+    }
+}
@@ -0,0 +1,224 @@
+package com.neurofleetx.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neurofleetx.dto.TravelMatrixStatsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Many-to-many travel time matrices, e.g. vehicles to bookings or depots to
+ * zones.
+ *
+ * From OSRM, the matrix is cut into blocks that each fit one
+ * {@code table} request of at most {@code osrm.table.max-coordinates}
+ * points (the server's {@code --max-table-size}), and blocks are requested
+ * {@code routing.matrix.max-parallel-chunks} at a time through
+ * {@link OsrmClient}. If any block fails, the whole matrix comes from
+ * {@link LocalRoutingService#getMatrix} instead, so a matrix never mixes the
+ * two sources. {@code routing.matrix.provider=local} skips OSRM.
+ */
+@Service
+public class TravelMatrixService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TravelMatrixService.class);
+
+    private final OsrmClient osrmClient;
+    private final ObjectMapper objectMapper;
+    private final LocalRoutingService localRoutingService;
+    private final String osrmApiUrl;
+    private final boolean osrmFirst;
+    private final int maxCoordinates;
+    private final int maxParallelChunks;
+
+    private final LongAdder osrmMatrices = new LongAdder();
+    private final LongAdder localMatrices = new LongAdder();
+    private final LongAdder osrmFallbacks = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder cells = new LongAdder();
+
+    public TravelMatrixService(OsrmClient osrmClient, ObjectMapper objectMapper,
+            LocalRoutingService localRoutingService,
+            @Value("${osrm.api.url:http://router.project-osrm.org}") String osrmApiUrl,
+            @Value("${routing.matrix.provider:osrm}") String provider,
+            @Value("${osrm.table.max-coordinates:100}") int maxCoordinates,
+            @Value("${routing.matrix.max-parallel-chunks:4}") int maxParallelChunks) {
+        this.osrmClient = osrmClient;
+        this.objectMapper = objectMapper;
+        this.localRoutingService = localRoutingService;
+        this.osrmApiUrl = osrmApiUrl;
+        this.osrmFirst = !"local".equalsIgnoreCase(provider);
+        this.maxCoordinates = Math.max(2, maxCoordinates);
+        this.maxParallelChunks = Math.max(1, maxParallelChunks);
+    }
+
+    /**
+     * Matrix from every source to every destination, both lists of
+     * {lng, lat} pairs. Completes exceptionally only when neither OSRM nor
+     * the local graph can answer.
+     */
+    public CompletableFuture<TravelMatrix> getMatrixAsync(List<double[]> sources, List<double[]> destinations) {
+        cells.add((long) sources.size() * destinations.size());
+        if (!osrmFirst) {
+            return CompletableFuture.supplyAsync(() -> local(sources, destinations),
+                    localRoutingService.matrixExecutor());
+        }
+        return fromOsrm(sources, destinations)
+                .thenApply(matrix -> {
+                    osrmMatrices.increment();
+                    return matrix;
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    logger.warn("OSRM matrix {}x{} failed, using the local road graph: {}",
+                            sources.size(), destinations.size(), cause.getMessage());
+                    osrmFallbacks.increment();
+                    return null;
+                })
+                .thenCompose(matrix -> matrix != null
+                        ? CompletableFuture.completedFuture(matrix)
+                        // Searches are CPU-bound; keep them off the HTTP client's threads
+                        : CompletableFuture.supplyAsync(() -> local(sources, destinations),
+                                localRoutingService.matrixExecutor()));
+    }
+
+    public TravelMatrixStatsDTO getStats() {
+        return TravelMatrixStatsDTO.builder()
+                .provider(osrmFirst ? "osrm" : "local")
+                .maxCoordinatesPerRequest(maxCoordinates)
+                .osrmMatrices(osrmMatrices.sum())
+                .localMatrices(localMatrices.sum())
+                .osrmFallbacks(osrmFallbacks.sum())
+                .osrmChunks(chunks.sum())
+                .cells(cells.sum())
+                .build();
+    }
+
+    private TravelMatrix local(List<double[]> sources, List<double[]> destinations) {
+        TravelMatrix matrix = localRoutingService.getMatrix(sources, destinations);
+        if (matrix == null) {
+            throw new IllegalStateException("No travel times available: OSRM failed and the road graph is empty");
+        }
+        localMatrices.increment();
+        return matrix;
+    }
+
+    private CompletableFuture<TravelMatrix> fromOsrm(List<double[]> sources, List<double[]> destinations) {
+        int rows = sources.size();
+        int cols = destinations.size();
+        float[] durations = new float[rows * cols];
+        float[] distances = new float[rows * cols];
+
+        // Block sizes: the smaller side whole when it leaves room, else half each
+        int sourceBlock;
+        int destinationBlock;
+        if (rows + cols <= maxCoordinates) {
+            sourceBlock = rows;
+            destinationBlock = cols;
+        } else if (rows <= maxCoordinates / 2) {
+            sourceBlock = rows;
+            destinationBlock = maxCoordinates - rows;
+        } else if (cols <= maxCoordinates / 2) {
+            sourceBlock = maxCoordinates - cols;
+            destinationBlock = cols;
+        } else {
+            sourceBlock = maxCoordinates / 2;
+            destinationBlock = maxCoordinates - sourceBlock;
+        }
+
+        List<int[]> blocks = new ArrayList<>();
+        for (int i = 0; i < rows; i += sourceBlock) {
+            for (int j = 0; j < cols; j += destinationBlock) {
+                blocks.add(new int[] { i, Math.min(rows, i + sourceBlock), j, Math.min(cols, j + destinationBlock) });
+            }
+        }
+
+        // Each lane requests its blocks one after another, so at most
+        // maxParallelChunks requests are in flight for one matrix
+        int lanes = Math.min(maxParallelChunks, blocks.size());
+        CompletableFuture<?>[] laneFutures = new CompletableFuture<?>[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (int b = lane; b < blocks.size(); b += lanes) {
+                int[] block = blocks.get(b);
+                chain = chain.thenCompose(ignored -> fetchBlock(sources, destinations, block, durations, distances));
+            }
+            laneFutures[lane] = chain;
+        }
+        return CompletableFuture.allOf(laneFutures)
+                .thenApply(ignored -> new TravelMatrix(rows, cols, durations, distances, "osrm"));
+    }
+
+    /**
+     * One table request for sources {@code [block[0], block[1])} and
+     * destinations {@code [block[2], block[3])}, written into the matrix.
+     */
+    private CompletableFuture<Void> fetchBlock(List<double[]> sources, List<double[]> destinations, int[] block,
+            float[] durations, float[] distances) {
+        int blockRows = block[1] - block[0];
+        int blockCols = block[3] - block[2];
+
+        StringBuilder coordinates = new StringBuilder();
+        StringBuilder sourceIndexes = new StringBuilder();
+        StringBuilder destinationIndexes = new StringBuilder();
+        for (int i = block[0]; i < block[1]; i++) {
+            appendCoordinate(coordinates, sources.get(i));
+            sourceIndexes.append(i > block[0] ? ";" : "").append(i - block[0]);
+        }
+        for (int j = block[2]; j < block[3]; j++) {
+            appendCoordinate(coordinates, destinations.get(j));
+            destinationIndexes.append(j > block[2] ? ";" : "").append(blockRows + j - block[2]);
+        }
+        String url = String.format("%s/table/v1/driving/%s?sources=%s&destinations=%s&annotations=duration,distance",
+                osrmApiUrl, coordinates, sourceIndexes, destinationIndexes);
+
+        chunks.increment();
+        return osrmClient.get(url).thenAccept(response -> {
+            int cols = destinations.size();
+            try {
+                JsonNode root = objectMapper.readTree(response);
+                JsonNode blockDurations = root.get("durations");
+                JsonNode blockDistances = root.get("distances");
+                if (!"Ok".equals(root.path("code").asText()) || blockDurations == null
+                        || blockDurations.size() != blockRows) {
+                    throw new IllegalStateException("Unexpected OSRM table response: " + root.path("code").asText());
+                }
+                for (int r = 0; r < blockRows; r++) {
+                    int offset = (block[0] + r) * cols + block[2];
+                    readRow(blockDurations.get(r), blockCols, 1.0, durations, offset);
+                    if (blockDistances != null) {
+                        readRow(blockDistances.get(r), blockCols, 0.001, distances, offset); // metres to km
+                    } else {
+                        Arrays.fill(distances, offset, offset + blockCols, Float.NaN);
+                    }
+                }
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private static void readRow(JsonNode row, int cols, double scale, float[] out, int offset) {
+        for (int c = 0; c < cols; c++) {
+            JsonNode cell = row.get(c);
+            out[offset + c] = cell == null || cell.isNull() ? Float.NaN : (float) (cell.asDouble() * scale);
+        }
+    }
+
+    private static void appendCoordinate(StringBuilder coordinates, double[] point) {
+        if (!coordinates.isEmpty()) {
+            coordinates.append(';');
+        }
+        coordinates.append(String.format(Locale.ROOT, "%.6f,%.6f", point[0], point[1]));
+    }
+}
@@ -0,0 +1,259 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.model.Booking;
+import com.neurofleetx.model.User;
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.repository.BookingRepository;
+import com.neurofleetx.repository.UserRepository;
+import com.neurofleetx.repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many drivers accepting one booking at the same instant, each in its own
+ * transaction against a real database (in-memory H2), so the conditional
+ * UPDATEs in {@link BookingRepository#claimForDriver} and
+ * {@link VehicleRepository#claimIfAvailable} are what decides the winner.
+ *
+ * Latencies are whole claim transactions against H2, commit and the wait for
+ * one of the pool's connections included; they show contention on the
+ * booking row, not MySQL round trips.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:claims;MODE=MySQL;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=" + BookingClaimConcurrencyTest.CONNECTIONS,
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "routing.table.enabled=false"
+})
+class BookingClaimConcurrencyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingClaimConcurrencyTest.class);
+
+    static final int CONNECTIONS = 32;
+    private static final int ACCEPTORS = 100;
+    private static final int ROUNDS = 10;
+    private static final List<Booking.BookingStatus> CLAIMABLE =
+            List.of(Booking.BookingStatus.PENDING, Booking.BookingStatus.BROADCASTED);
+
+    @Autowired
+    private BookingClaimService bookingClaimService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DriverLoadTracker driverLoadTracker;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private User customer;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        customer = userRepository.save(user(User.Role.CUSTOMER, null));
+    }
+
+    @Test
+    void concurrentAcceptorsHaveExactlyOneWinner() throws Exception {
+        List<Long> driverIds = new ArrayList<>(ACCEPTORS);
+        for (int i = 0; i < ACCEPTORS; i++) {
+            driverIds.add(userRepository.save(user(User.Role.DRIVER, vehicle())).getId());
+        }
+
+        long[] latencies = new long[ACCEPTORS * ROUNDS];
+        ExecutorService pool = Executors.newFixedThreadPool(ACCEPTORS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Long bookingId = bookingRepository.save(booking()).getId();
+                // Fresh detached drivers, as each request loads its own
+                List<User> drivers = userRepository.findByIdInWithVehicle(driverIds);
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<BookingClaimService.ClaimResult>> futures = new ArrayList<>(ACCEPTORS);
+                for (int i = 0; i < ACCEPTORS; i++) {
+                    User driver = drivers.get(i);
+                    int slot = round * ACCEPTORS + i;
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        long began = System.nanoTime();
+                        BookingClaimService.ClaimResult result = transaction.execute(status ->
+                                bookingClaimService.claim(bookingId, driver, CLAIMABLE, LocalDateTime.now()));
+                        latencies[slot] = System.nanoTime() - began;
+                        return result;
+                    }));
+                }
+                start.countDown();
+
+                Map<BookingClaimService.ClaimResult, Integer> results =
+                        new EnumMap<>(BookingClaimService.ClaimResult.class);
+                User winner = null;
+                for (int i = 0; i < ACCEPTORS; i++) {
+                    BookingClaimService.ClaimResult result = futures.get(i).get(60, TimeUnit.SECONDS);
+                    results.merge(result, 1, Integer::sum);
+                    if (result == BookingClaimService.ClaimResult.CLAIMED) {
+                        winner = drivers.get(i);
+                    }
+                }
+
+                assertThat(results.get(BookingClaimService.ClaimResult.CLAIMED)).isEqualTo(1);
+                assertThat(results.get(BookingClaimService.ClaimResult.BOOKING_TAKEN)).isEqualTo(ACCEPTORS - 1);
+                assertThat(results).doesNotContainKey(BookingClaimService.ClaimResult.VEHICLE_UNAVAILABLE);
+
+                // The committed row names the winner and was updated once
+                Long winnerId = winner.getId();
+                Long winnerVehicleId = winner.getVehicle().getId();
+                transaction.executeWithoutResult(status -> {
+                    Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+                    assertThat(booking.getStatus()).isEqualTo(Booking.BookingStatus.ACCEPTED);
+                    assertThat(booking.getDriver().getId()).isEqualTo(winnerId);
+                    assertThat(booking.getVehicle().getId()).isEqualTo(winnerVehicleId);
+                    assertThat(booking.getAcceptedAt()).isNotNull();
+                    assertThat(booking.getVersion()).isEqualTo(1L);
+                });
+
+                // Only the winner's vehicle stays booked; every loser's was released
+                for (User driver : drivers) {
+                    Vehicle vehicle = vehicleRepository.findById(driver.getVehicle().getId()).orElseThrow();
+                    assertThat(vehicle.getStatus()).as("vehicle of driver %d", driver.getId())
+                            .isEqualTo(driver.getId().equals(winnerId)
+                                    ? Vehicle.VehicleStatus.BOOKED : Vehicle.VehicleStatus.AVAILABLE);
+                }
+                assertThat(driverLoadTracker.getActiveRides(winnerId)).isEqualTo(1);
+
+                // Free the winner for the next round
+                transaction.executeWithoutResult(status ->
+                        vehicleRepository.releaseIfBooked(winnerVehicleId, LocalDateTime.now()));
+                driverLoadTracker.rideReleased(winnerId);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Arrays.sort(latencies);
+        logger.info("Accept latency over {} claims ({} acceptors x {} bookings, {} connections): "
+                        + "p50 {} us, p99 {} us, max {} us",
+                latencies.length, ACCEPTORS, ROUNDS, CONNECTIONS,
+                percentile(latencies, 0.50) / 1_000, percentile(latencies, 0.99) / 1_000,
+                latencies[latencies.length - 1] / 1_000);
+    }
+
+    @Test
+    void driverCannotTakeTwoBookingsAtOnce() throws Exception {
+        Long driverId = userRepository.save(user(User.Role.DRIVER, vehicle())).getId();
+        int contested = 20;
+        List<Long> bookingIds = new ArrayList<>(contested);
+        for (int i = 0; i < contested; i++) {
+            bookingIds.add(bookingRepository.save(booking()).getId());
+        }
+        User driver = userRepository.findByIdInWithVehicle(List.of(driverId)).get(0);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(contested);
+        List<Future<BookingClaimService.ClaimResult>> futures = new ArrayList<>(contested);
+        try {
+            for (Long bookingId : bookingIds) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return transaction.execute(status ->
+                            bookingClaimService.claim(bookingId, driver, CLAIMABLE, LocalDateTime.now()));
+                }));
+            }
+            start.countDown();
+
+            int claimed = 0;
+            for (Future<BookingClaimService.ClaimResult> future : futures) {
+                BookingClaimService.ClaimResult result = future.get(60, TimeUnit.SECONDS);
+                if (result == BookingClaimService.ClaimResult.CLAIMED) {
+                    claimed++;
+                } else {
+                    assertThat(result).isEqualTo(BookingClaimService.ClaimResult.VEHICLE_UNAVAILABLE);
+                }
+            }
+            assertThat(claimed).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<Booking> taken = bookingRepository.findAllById(bookingIds).stream()
+                .filter(b -> b.getStatus() == Booking.BookingStatus.ACCEPTED)
+                .toList();
+        assertThat(taken).hasSize(1);
+        assertThat(vehicleRepository.findById(driver.getVehicle().getId()).orElseThrow().getStatus())
+                .isEqualTo(Vehicle.VehicleStatus.BOOKED);
+    }
+
+    private Booking booking() {
+        Booking booking = new Booking();
+        booking.setBookingCode("CT-" + UUID.randomUUID().toString().substring(0, 12));
+        booking.setUser(customer);
+        booking.setPickupTime(LocalDateTime.now());
+        booking.setHourlyRate(BigDecimal.TEN);
+        booking.setEstimatedHours(BigDecimal.ONE);
+        booking.setEstimatedCost(BigDecimal.TEN);
+        booking.setTotalCost(BigDecimal.TEN);
+        booking.setStatus(Booking.BookingStatus.BROADCASTED);
+        return booking;
+    }
+
+    private static Vehicle vehicle() {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setVehicleCode("CT-" + UUID.randomUUID().toString().substring(0, 12));
+        vehicle.setName("Claim test car");
+        vehicle.setType(Vehicle.VehicleType.SEDAN);
+        vehicle.setSeats(4);
+        vehicle.setFuelType(Vehicle.FuelType.PETROL);
+        vehicle.setPricePerHour(BigDecimal.TEN);
+        return vehicle;
+    }
+
+    private static User user(User.Role role, Vehicle vehicle) {
+        User user = new User();
+        user.setName(role + " " + UUID.randomUUID());
+        user.setEmail(UUID.randomUUID() + "@claims.test");
+        user.setPassword("unused");
+        user.setRole(role);
+        user.setApprovalStatus(User.ApprovalStatus.APPROVED);
+        user.setDetailsSubmitted(true);
+        user.setVehicle(vehicle);
+        return user;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
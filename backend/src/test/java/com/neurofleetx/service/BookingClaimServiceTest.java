@@ -0,0 +1,95 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.model.Booking;
+import com.neurofleetx.model.User;
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.repository.BookingRepository;
+import com.neurofleetx.repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * What {@link BookingClaimService} does with each outcome of its two
+ * conditional UPDATEs, in particular giving the vehicle back when the booking
+ * is lost. Concurrent claims against a real database are in
+ * {@link BookingClaimConcurrencyTest}.
+ */
+class BookingClaimServiceTest {
+
+    private static final List<Booking.BookingStatus> CLAIMABLE = List.of(Booking.BookingStatus.BROADCASTED);
+
+    private BookingRepository bookingRepository;
+    private VehicleRepository vehicleRepository;
+    private DriverLoadTracker tracker;
+    private BookingClaimService service;
+    private User driver;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        vehicleRepository = mock(VehicleRepository.class);
+        tracker = new DriverLoadTracker(bookingRepository);
+        service = new BookingClaimService(bookingRepository, vehicleRepository, tracker);
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(7L);
+        vehicle.setStatus(Vehicle.VehicleStatus.AVAILABLE);
+        driver = new User();
+        driver.setId(3L);
+        driver.setVehicle(vehicle);
+    }
+
+    @Test
+    void lostBookingReleasesTheVehicle() {
+        when(vehicleRepository.claimIfAvailable(eq(7L), any())).thenReturn(1);
+        when(bookingRepository.claimForDriver(anyLong(), any(), any(), any(), anyList())).thenReturn(0);
+
+        assertThat(service.claim(1L, driver, CLAIMABLE, LocalDateTime.now()))
+                .isEqualTo(BookingClaimService.ClaimResult.BOOKING_TAKEN);
+
+        verify(vehicleRepository).releaseIfBooked(eq(7L), any());
+        verify(vehicleRepository, never()).save(any());
+        assertThat(driver.getVehicle().getStatus()).isEqualTo(Vehicle.VehicleStatus.AVAILABLE);
+        assertThat(tracker.getActiveRides(3L)).isZero();
+    }
+
+    @Test
+    void busyVehicleLeavesTheBookingAlone() {
+        when(vehicleRepository.claimIfAvailable(eq(7L), any())).thenReturn(0);
+
+        assertThat(service.claim(1L, driver, CLAIMABLE, LocalDateTime.now()))
+                .isEqualTo(BookingClaimService.ClaimResult.VEHICLE_UNAVAILABLE);
+
+        verify(bookingRepository, never()).claimForDriver(anyLong(), any(), any(), any(), anyList());
+        verify(vehicleRepository, never()).releaseIfBooked(anyLong(), any());
+        assertThat(tracker.getActiveRides(3L)).isZero();
+    }
+
+    @Test
+    void claimKeepsTheVehicleBooked() {
+        when(vehicleRepository.claimIfAvailable(eq(7L), any())).thenReturn(1);
+        when(bookingRepository.claimForDriver(eq(1L), eq(driver), eq(driver.getVehicle()), any(), eq(CLAIMABLE)))
+                .thenReturn(1);
+
+        assertThat(service.claim(1L, driver, CLAIMABLE, LocalDateTime.now()))
+                .isEqualTo(BookingClaimService.ClaimResult.CLAIMED);
+
+        verify(vehicleRepository, never()).releaseIfBooked(anyLong(), any());
+        verify(vehicleRepository).save(driver.getVehicle());
+        assertThat(driver.getVehicle().getStatus()).isEqualTo(Vehicle.VehicleStatus.BOOKED);
+        assertThat(tracker.getActiveRides(3L)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,64 @@
+package com.neurofleetx.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.neurofleetx.service.RandomRoadGraph.assertDistance;
+
+/**
+ * {@link ContractionHierarchy} queries against the legacy Dijkstra on
+ * {@link RandomRoadGraph}s.
+ */
+class ContractionHierarchyTest {
+
+    private static final int GRAPHS = 200;
+    private static final int QUERIES = 40;
+
+    @Test
+    void searchMatchesLegacyOnRandomGraphs() {
+        Random random = new Random(15);
+
+        for (int g = 0; g < GRAPHS; g++) {
+            RandomRoadGraph randomGraph = RandomRoadGraph.generate(random);
+            RoadGraph graph = randomGraph.build();
+            ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+            int n = graph.nodeCount();
+
+            for (int q = 0; q < QUERIES; q++) {
+                int source = random.nextInt(n);
+                int target = q % 10 == 0 ? source : random.nextInt(n);
+                String query = "graph " + g + ", " + graph.cityId(source) + " -> " + graph.cityId(target);
+                double expectedKm = randomGraph.legacyDistance(graph.cityId(source), graph.cityId(target));
+
+                assertDistance(query + " search", hierarchy.search(source, target).distance(), expectedKm);
+                assertDistance(query + " distance", hierarchy.distance(source, target), expectedKm);
+            }
+        }
+    }
+
+    @Test
+    void manyToManyMatchesLegacyOnRandomGraphs() {
+        Random random = new Random(150);
+
+        for (int g = 0; g < GRAPHS / 4; g++) {
+            RandomRoadGraph randomGraph = RandomRoadGraph.generate(random);
+            RoadGraph graph = randomGraph.build();
+            ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+            int n = graph.nodeCount();
+
+            int[] sources = random.ints(1 + random.nextInt(6), 0, n).toArray();
+            int[] targets = random.ints(1 + random.nextInt(6), 0, n).toArray();
+            double[][] matrix = hierarchy.manyToMany(sources, targets);
+
+            for (int i = 0; i < sources.length; i++) {
+                for (int j = 0; j < targets.length; j++) {
+                    long sourceId = graph.cityId(sources[i]);
+                    long targetId = graph.cityId(targets[j]);
+                    assertDistance("graph " + g + ", " + sourceId + " -> " + targetId, matrix[i][j],
+                            randomGraph.legacyDistance(sourceId, targetId));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.neurofleetx.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static com.neurofleetx.service.RandomRoadGraph.EPSILON;
+import static com.neurofleetx.service.RandomRoadGraph.assertDistance;
+import static com.neurofleetx.service.RandomRoadGraph.pathLength;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * {@link KShortestPaths} on {@link RandomRoadGraph}s: the first path against
+ * the legacy Dijkstra, and on graphs small enough to list every loopless
+ * path, all K lengths against that list.
+ */
+class KShortestPathsTest {
+
+    private static final int GRAPHS = 300;
+    private static final int QUERIES = 20;
+    private static final double MAX_STRETCH = 2.0;
+    // Largest graph whose loopless paths are enumerated
+    private static final int EXHAUSTIVE_NODES = 12;
+
+    @Test
+    void matchesLegacyAndExhaustiveSearchOnRandomGraphs() {
+        Random random = new Random(25);
+        int exhaustive = 0;
+
+        for (int g = 0; g < GRAPHS; g++) {
+            RandomRoadGraph randomGraph = RandomRoadGraph.generate(random);
+            RoadGraph graph = randomGraph.build();
+            int n = graph.nodeCount();
+
+            for (int q = 0; q < QUERIES; q++) {
+                int source = random.nextInt(n);
+                int target = q % 10 == 0 ? source : random.nextInt(n);
+                String query = "graph " + g + ", " + graph.cityId(source) + " -> " + graph.cityId(target);
+                double expectedKm = randomGraph.legacyDistance(graph.cityId(source), graph.cityId(target));
+
+                // k = 1 is a plain A*, k > 1 grows a tree from the target first
+                for (int k : new int[] { 1, 3, 6 }) {
+                    String description = query + " k=" + k;
+                    List<KShortestPaths.Path> paths = KShortestPaths.find(graph, source, target, k, MAX_STRETCH);
+                    if (Double.isInfinite(expectedKm) || source == target) {
+                        assertThat(paths).as(description).isEmpty();
+                        continue;
+                    }
+
+                    assertThat(paths).as(description).isNotEmpty().hasSizeLessThanOrEqualTo(k);
+                    assertDistance(description + " first", paths.get(0).length(), expectedKm);
+                    for (int i = 0; i < paths.size(); i++) {
+                        assertPath(description + " path " + i, graph, paths.get(i), source, target);
+                        if (i > 0) {
+                            assertThat(paths.get(i).length()).as(description)
+                                    .isGreaterThanOrEqualTo(paths.get(i - 1).length() - EPSILON);
+                        }
+                        assertThat(paths.get(i).length()).as(description)
+                                .isLessThanOrEqualTo(expectedKm * MAX_STRETCH + EPSILON);
+                    }
+                    assertThat(new HashSet<>(paths.stream().map(path -> toList(path.nodes())).toList()))
+                            .as(description + " distinct").hasSize(paths.size());
+
+                    if (n <= EXHAUSTIVE_NODES) {
+                        exhaustive++;
+                        List<Double> expected = looplessLengths(graph, source, target, expectedKm * MAX_STRETCH);
+                        expected.sort(null);
+                        assertThat(paths).as(description).hasSize(Math.min(k, expected.size()));
+                        for (int i = 0; i < paths.size(); i++) {
+                            assertThat(paths.get(i).length()).as(description + " path " + i)
+                                    .isCloseTo(expected.get(i), within(EPSILON));
+                        }
+                    }
+                }
+            }
+        }
+
+        assertThat(exhaustive).isGreaterThan(0);
+    }
+
+    /** Starts at source, ends at target, visits no node twice, follows real edges with the reported distances. */
+    private static void assertPath(String description, RoadGraph graph, KShortestPaths.Path path, int source, int target) {
+        int[] nodes = path.nodes();
+        assertThat(nodes[0]).as(description).isEqualTo(source);
+        assertThat(nodes[nodes.length - 1]).as(description).isEqualTo(target);
+        assertThat(new HashSet<>(toList(nodes))).as(description + " loopless").hasSize(nodes.length);
+        assertThat(path.distances()).as(description).hasSize(nodes.length);
+        for (int i = 1; i < nodes.length; i++) {
+            assertDistance(description + " prefix " + i, path.distances()[i],
+                    pathLength(graph, toList(nodes).subList(0, i + 1)));
+        }
+    }
+
+    /** Length of every loopless path from source to target no longer than {@code limit}. */
+    private static List<Double> looplessLengths(RoadGraph graph, int source, int target, double limit) {
+        List<Double> lengths = new ArrayList<>();
+        boolean[] onPath = new boolean[graph.nodeCount()];
+        onPath[source] = true;
+        extend(graph, source, target, 0.0, limit, onPath, lengths);
+        return lengths;
+    }
+
+    private static void extend(RoadGraph graph, int node, int target, double length, double limit,
+            boolean[] onPath, List<Double> lengths) {
+        if (node == target) {
+            lengths.add(length);
+            return;
+        }
+        for (int next = 0; next < graph.nodeCount(); next++) {
+            double weight = graph.edgeWeight(node, next);
+            if (onPath[next] || Double.isNaN(weight) || length + weight > limit + EPSILON) {
+                continue;
+            }
+            onPath[next] = true;
+            extend(graph, next, target, length + weight, limit, onPath, lengths);
+            onPath[next] = false;
+        }
+    }
+
+    private static List<Integer> toList(int[] nodes) {
+        List<Integer> list = new ArrayList<>(nodes.length);
+        for (int node : nodes) {
+            list.add(node);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,108 @@
+package com.neurofleetx.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * {@link MinCostAssignment} against trying every assignment, on small random
+ * square and rectangular matrices, some with forbidden (infinite) pairs.
+ */
+class MinCostAssignmentTest {
+
+    private static final double EPSILON = 1e-6;
+
+    @Test
+    void matchesExhaustiveSearch() {
+        Random random = new Random(5);
+        int partial = 0;
+
+        for (int trial = 0; trial < 3_000; trial++) {
+            int rows = 1 + random.nextInt(5);
+            int cols = rows + random.nextInt(3);
+            double forbiddenShare = trial % 3 == 0 ? 0.0 : random.nextDouble() * 0.8;
+            double[][] cost = new double[rows][cols];
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    cost[r][c] = random.nextDouble() < forbiddenShare ? Double.POSITIVE_INFINITY
+                            : random.nextInt(4) == 0 ? random.nextInt(10) // ties
+                            : (random.nextDouble() - 0.2) * 100;
+                }
+            }
+
+            Best expected = new Best();
+            exhaustive(cost, 0, new boolean[cols], 0, 0.0, expected);
+            int[] assignment = MinCostAssignment.solve(cost);
+            String matrix = Arrays.deepToString(cost);
+
+            assertThat(assignment).as(matrix).hasSize(rows);
+            boolean[] taken = new boolean[cols];
+            int assigned = 0;
+            double total = 0.0;
+            for (int r = 0; r < rows; r++) {
+                int c = assignment[r];
+                if (c == -1) {
+                    continue;
+                }
+                assertThat(c).as(matrix).isBetween(0, cols - 1);
+                assertThat(taken[c]).as("column %d assigned twice in %s", c, matrix).isFalse();
+                assertThat(cost[r][c]).as(matrix).isFinite();
+                taken[c] = true;
+                assigned++;
+                total += cost[r][c];
+            }
+
+            assertThat(assigned).as(matrix).isEqualTo(expected.assigned);
+            assertThat(total).as(matrix).isCloseTo(expected.cost, within(EPSILON));
+            if (assigned < rows) {
+                partial++;
+            }
+        }
+
+        // The generator must produce matrices where not every row can be served
+        assertThat(partial).isGreaterThan(0);
+    }
+
+    @Test
+    void everyPairForbidden() {
+        double inf = Double.POSITIVE_INFINITY;
+        assertThat(MinCostAssignment.solve(new double[][] { { inf, inf }, { inf, inf } })).containsExactly(-1, -1);
+    }
+
+    @Test
+    void emptyAndTooManyRows() {
+        assertThat(MinCostAssignment.solve(new double[0][0])).isEmpty();
+        assertThatThrownBy(() -> MinCostAssignment.solve(new double[][] { { 1 }, { 2 } }))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** Most rows on allowed pairs, then least cost. */
+    private static final class Best {
+        int assigned = -1;
+        double cost = Double.POSITIVE_INFINITY;
+    }
+
+    private static void exhaustive(double[][] cost, int row, boolean[] taken, int assigned, double total, Best best) {
+        if (row == cost.length) {
+            if (assigned > best.assigned || (assigned == best.assigned && total < best.cost)) {
+                best.assigned = assigned;
+                best.cost = total;
+            }
+            return;
+        }
+        for (int c = 0; c < taken.length; c++) {
+            if (taken[c]) {
+                continue;
+            }
+            taken[c] = true;
+            boolean allowed = cost[row][c] != Double.POSITIVE_INFINITY;
+            exhaustive(cost, row + 1, taken, assigned + (allowed ? 1 : 0), total + (allowed ? cost[row][c] : 0.0), best);
+            taken[c] = false;
+        }
+    }
+}
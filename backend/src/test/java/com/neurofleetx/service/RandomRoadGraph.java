@@ -0,0 +1,163 @@
+package com.neurofleetx.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Cities and routes as the database would hold them, with the BigDecimal
+ * Dijkstra {@link RouteService} used before {@link ShortestPathEngine} as the
+ * reference for the road graph searches.
+ *
+ * Graphs include disconnected pieces, cities without coordinates and
+ * duplicate routes. Route lengths have two decimals, so the reference sums are
+ * exact; equal length paths may differ, so paths are checked for being real
+ * routes of the reference length rather than for being the same nodes.
+ */
+record RandomRoadGraph(Map<Long, double[]> cities, List<Object[]> routes) {
+
+    static final double EPSILON = 1e-6;
+
+    static RandomRoadGraph generate(Random random) {
+        int count = 2 + random.nextInt(40);
+        Map<Long, double[]> cities = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        long id = 100 + random.nextInt(50);
+        for (int i = 0; i < count; i++) {
+            id += 1 + random.nextInt(5);
+            ids.add(id);
+            // A few cities have no coordinates, which turns off the A* bound
+            cities.put(id, random.nextInt(25) == 0 ? null
+                    : new double[] { 10 + random.nextDouble() * 5, 70 + random.nextDouble() * 5 });
+        }
+
+        // Sparse, so many graphs fall apart into several components
+        List<Object[]> routes = new ArrayList<>();
+        int routeCount = random.nextInt(count * 2);
+        for (int i = 0; i < routeCount; i++) {
+            long from = ids.get(random.nextInt(count));
+            long to = ids.get(random.nextInt(count));
+            if (from == to) {
+                continue;
+            }
+            BigDecimal km = BigDecimal.valueOf(100 + random.nextInt(30_000), 2);
+            routes.add(new Object[] { from, to, km });
+        }
+        return new RandomRoadGraph(cities, routes);
+    }
+
+    RoadGraph build() {
+        RoadGraph.Builder builder = RoadGraph.builder();
+        cities.forEach((id, latLng) -> {
+            if (latLng != null) {
+                builder.addCity(id, "City " + id, latLng[0], latLng[1]);
+            } else {
+                builder.addCity(id, "City " + id, Double.NaN, Double.NaN);
+            }
+        });
+        for (Object[] route : routes) {
+            builder.addRoute((Long) route[0], (Long) route[1], ((BigDecimal) route[2]).doubleValue());
+        }
+        return builder.build();
+    }
+
+    /** Reference length in km, infinite if unreachable. */
+    double legacyDistance(Long sourceCityId, Long destCityId) {
+        LegacyResult result = legacyShortestPath(sourceCityId, destCityId);
+        return result == null ? Double.POSITIVE_INFINITY : result.distance().doubleValue();
+    }
+
+    /** The pre-engine search: boxed ids, BigDecimal sums, stale queue entries; null if unreachable. */
+    LegacyResult legacyShortestPath(Long sourceCityId, Long destCityId) {
+        if (sourceCityId.equals(destCityId)) {
+            return new LegacyResult(BigDecimal.ZERO, List.of(sourceCityId));
+        }
+
+        // Later routes between the same pair win, in either direction
+        Map<Long, Map<Long, BigDecimal>> graph = new HashMap<>();
+        for (Object[] route : routes) {
+            Long u = (Long) route[0];
+            Long v = (Long) route[1];
+            BigDecimal dist = (BigDecimal) route[2];
+            graph.computeIfAbsent(u, k -> new HashMap<>()).put(v, dist);
+            graph.computeIfAbsent(v, k -> new HashMap<>()).put(u, dist);
+        }
+
+        PriorityQueue<Map.Entry<Long, BigDecimal>> pq =
+                new PriorityQueue<>(Comparator.comparing(Map.Entry::getValue));
+        Map<Long, BigDecimal> distances = new HashMap<>();
+        Map<Long, Long> previous = new HashMap<>();
+        Set<Long> visited = new HashSet<>();
+
+        distances.put(sourceCityId, BigDecimal.ZERO);
+        pq.add(Map.entry(sourceCityId, BigDecimal.ZERO));
+
+        while (!pq.isEmpty()) {
+            Long u = pq.poll().getKey();
+            if (!visited.add(u)) {
+                continue;
+            }
+
+            if (u.equals(destCityId)) {
+                List<Long> path = new ArrayList<>();
+                for (Long node = u; node != null; node = previous.get(node)) {
+                    path.add(node);
+                }
+                Collections.reverse(path);
+                return new LegacyResult(distances.get(u), path);
+            }
+
+            for (Map.Entry<Long, BigDecimal> neighbor : graph.getOrDefault(u, Map.of()).entrySet()) {
+                Long v = neighbor.getKey();
+                if (visited.contains(v)) {
+                    continue;
+                }
+                BigDecimal currentDist = distances.get(v);
+                BigDecimal newDist = distances.get(u).add(neighbor.getValue());
+                if (currentDist == null || newDist.compareTo(currentDist) < 0) {
+                    distances.put(v, newDist);
+                    previous.put(v, u);
+                    pq.add(Map.entry(v, newDist));
+                }
+            }
+        }
+        return null;
+    }
+
+    record LegacyResult(BigDecimal distance, List<Long> cityIds) {
+
+        List<Integer> nodes(RoadGraph graph) {
+            return cityIds.stream().map(graph::node).toList();
+        }
+    }
+
+    static void assertDistance(String description, double actual, double expected) {
+        if (Double.isInfinite(expected)) {
+            assertThat(actual).as(description).isEqualTo(Double.POSITIVE_INFINITY);
+        } else {
+            assertThat(actual).as(description).isCloseTo(expected, within(EPSILON));
+        }
+    }
+
+    /** Sum of the graph's edges along {@code nodes}; fails if two neighbours are not joined. */
+    static double pathLength(RoadGraph graph, List<Integer> nodes) {
+        double length = 0.0;
+        for (int i = 1; i < nodes.size(); i++) {
+            double weight = graph.edgeWeight(nodes.get(i - 1), nodes.get(i));
+            assertThat(weight).as("edge %d -> %d", nodes.get(i - 1), nodes.get(i)).isFinite();
+            length += weight;
+        }
+        return length;
+    }
+}
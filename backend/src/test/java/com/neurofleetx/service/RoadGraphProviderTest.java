@@ -0,0 +1,109 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.repository.CityRepository;
+import com.neurofleetx.repository.RouteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Startup with a road graph file: the rows are only read when the database
+ * marker differs from the one the file was saved with.
+ */
+class RoadGraphProviderTest {
+
+    private static final LocalDateTime EDITED = LocalDateTime.of(2026, 1, 5, 9, 30);
+
+    @TempDir
+    Path directory;
+
+    private CityRepository cityRepository;
+    private RouteRepository routeRepository;
+
+    @BeforeEach
+    void setUp() {
+        cityRepository = mock(CityRepository.class);
+        routeRepository = mock(RouteRepository.class);
+        when(cityRepository.findAllNodes()).thenReturn(List.of(
+                new Object[] { 1L, "A", new BigDecimal("12.9"), new BigDecimal("77.5") },
+                new Object[] { 2L, "B", new BigDecimal("13.0"), new BigDecimal("77.6") },
+                new Object[] { 3L, "C", new BigDecimal("13.1"), new BigDecimal("77.7") }));
+        when(routeRepository.findAllEdges()).thenReturn(List.of(
+                new Object[] { 1L, 2L, new BigDecimal("15.20") },
+                new Object[] { 2L, 3L, new BigDecimal("14.05") }));
+        when(cityRepository.findGraphMarker()).thenReturn(marker(3L, 3L, EDITED));
+        when(routeRepository.findGraphMarker()).thenReturn(marker(2L, 2L, EDITED));
+    }
+
+    @Test
+    void unchangedMarkerSkipsTheRows() {
+        RoadGraph built = start();
+        verify(cityRepository, times(1)).findAllNodes();
+
+        RoadGraphProvider restarted = provider();
+        restarted.load();
+
+        verify(cityRepository, times(1)).findAllNodes();
+        verify(routeRepository, times(1)).findAllEdges();
+        assertThat(restarted.current().hasSameRoutes(built)).isTrue();
+        assertThat(restarted.current().cityName(restarted.current().node(3L))).isEqualTo("C");
+    }
+
+    @Test
+    void editedRowRebuildsFromTheRows() {
+        start();
+        when(cityRepository.findGraphMarker()).thenReturn(marker(3L, 3L, EDITED.plusNanos(1_000)));
+
+        provider().load();
+
+        verify(cityRepository, times(2)).findAllNodes();
+    }
+
+    @Test
+    void deletedRouteRebuildsFromTheRows() {
+        start();
+        when(routeRepository.findGraphMarker()).thenReturn(marker(1L, 2L, EDITED));
+
+        provider().load();
+
+        verify(routeRepository, times(2)).findAllEdges();
+    }
+
+    @Test
+    void withoutFileNoMarkerIsRead() {
+        RoadGraphProvider provider = new RoadGraphProvider(cityRepository, routeRepository, new RoadGraphStore(""));
+        provider.load();
+
+        verify(cityRepository, never()).findGraphMarker();
+        verify(routeRepository, never()).findGraphMarker();
+        assertThat(provider.current().nodeCount()).isEqualTo(3);
+    }
+
+    /** First start: nothing saved yet, so the graph is built and written. */
+    private RoadGraph start() {
+        RoadGraphProvider provider = provider();
+        provider.load();
+        return provider.current();
+    }
+
+    private RoadGraphProvider provider() {
+        return new RoadGraphProvider(cityRepository, routeRepository,
+                new RoadGraphStore(directory.resolve("road-graph.bin").toString()));
+    }
+
+    private static List<Object[]> marker(long count, long maxId, LocalDateTime lastUpdated) {
+        return List.<Object[]>of(new Object[] { count, maxId, lastUpdated });
+    }
+}
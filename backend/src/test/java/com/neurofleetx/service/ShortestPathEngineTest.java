@@ -0,0 +1,194 @@
+package com.neurofleetx.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static com.neurofleetx.service.RandomRoadGraph.assertDistance;
+import static com.neurofleetx.service.RandomRoadGraph.pathLength;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link ShortestPathEngine} against the legacy Dijkstra on
+ * {@link RandomRoadGraph}s, including source == target queries.
+ */
+class ShortestPathEngineTest {
+
+    private static final int GRAPHS = 200;
+    private static final int QUERIES = 40;
+
+    @Test
+    void dijkstraMatchesLegacyOnRandomGraphs() {
+        Random random = new Random(12);
+        int unreachable = 0;
+        int sameNode = 0;
+
+        for (int g = 0; g < GRAPHS; g++) {
+            RandomRoadGraph randomGraph = RandomRoadGraph.generate(random);
+            RoadGraph graph = randomGraph.build();
+            int n = graph.nodeCount();
+
+            for (int q = 0; q < QUERIES; q++) {
+                int source = random.nextInt(n);
+                int target = q % 10 == 0 ? source : random.nextInt(n);
+                long sourceId = graph.cityId(source);
+                long targetId = graph.cityId(target);
+                String query = "graph " + g + ", " + sourceId + " -> " + targetId;
+
+                RandomRoadGraph.LegacyResult expected = randomGraph.legacyShortestPath(sourceId, targetId);
+                double expectedKm = expected == null ? Double.POSITIVE_INFINITY : expected.distance().doubleValue();
+                if (expected == null) {
+                    unreachable++;
+                } else {
+                    // The reference path is a real route in the graph
+                    assertDistance(query + " legacy path", pathLength(graph, expected.nodes(graph)), expectedKm);
+                }
+                if (source == target) {
+                    sameNode++;
+                }
+
+                assertDistance(query + " DIJKSTRA",
+                        ShortestPathEngine.search(graph, source, target, ShortestPathEngine.Algorithm.DIJKSTRA)
+                                .distance(),
+                        expectedKm);
+                assertDistance(query + " distance()", ShortestPathEngine.distance(graph, source, target), expectedKm);
+            }
+        }
+
+        // The generator must actually exercise both edge cases
+        assertThat(unreachable).isGreaterThan(0);
+        assertThat(sameNode).isGreaterThan(0);
+    }
+
+    @Test
+    void shortestPathTreeMatchesLegacy() {
+        Random random = new Random(13);
+
+        for (int g = 0; g < GRAPHS; g++) {
+            RandomRoadGraph randomGraph = RandomRoadGraph.generate(random);
+            RoadGraph graph = randomGraph.build();
+            int n = graph.nodeCount();
+            // Written at an offset, as the distance table stores rows
+            int offset = random.nextInt(3) * n;
+            double[] distances = new double[offset + n];
+            int[] predecessors = new int[offset + n];
+
+            for (int q = 0; q < QUERIES / 4; q++) {
+                int source = random.nextInt(n);
+                ShortestPathEngine.shortestPathTree(graph, source, distances, predecessors, offset);
+
+                for (int target = 0; target < n; target++) {
+                    String query = "graph " + g + ", " + graph.cityId(source) + " -> " + graph.cityId(target);
+                    double expectedKm = randomGraph.legacyDistance(graph.cityId(source), graph.cityId(target));
+                    assertDistance(query + " tree", distances[offset + target], expectedKm);
+
+                    if (Double.isInfinite(expectedKm)) {
+                        assertThat(predecessors[offset + target]).as(query).isEqualTo(-1);
+                        continue;
+                    }
+                    List<Integer> path = new ArrayList<>();
+                    for (int node = target; node != -1; node = predecessors[offset + node]) {
+                        path.add(node);
+                    }
+                    Collections.reverse(path);
+                    assertThat(path.get(0)).as(query).isEqualTo(source);
+                    assertDistance(query + " tree path", pathLength(graph, path), expectedKm);
+                }
+            }
+        }
+    }
+
+    @Test
+    void astarAndBidirectionalMatchLegacy() {
+        Random random = new Random(14);
+
+        for (int g = 0; g < GRAPHS; g++) {
+            RandomRoadGraph randomGraph = RandomRoadGraph.generate(random);
+            RoadGraph graph = randomGraph.build();
+            int n = graph.nodeCount();
+
+            for (int q = 0; q < QUERIES; q++) {
+                int source = random.nextInt(n);
+                int target = q % 10 == 0 ? source : random.nextInt(n);
+                String query = "graph " + g + ", " + graph.cityId(source) + " -> " + graph.cityId(target);
+                double expectedKm = randomGraph.legacyDistance(graph.cityId(source), graph.cityId(target));
+
+                for (ShortestPathEngine.Algorithm algorithm : new ShortestPathEngine.Algorithm[] {
+                        ShortestPathEngine.Algorithm.ASTAR, ShortestPathEngine.Algorithm.BIDIRECTIONAL }) {
+                    assertDistance(query + " " + algorithm,
+                            ShortestPathEngine.search(graph, source, target, algorithm).distance(), expectedKm);
+                }
+            }
+        }
+    }
+
+    @Test
+    void oneToManyMatchesLegacy() {
+        Random random = new Random(22);
+
+        for (int g = 0; g < GRAPHS; g++) {
+            RandomRoadGraph randomGraph = RandomRoadGraph.generate(random);
+            RoadGraph graph = randomGraph.build();
+            int n = graph.nodeCount();
+
+            for (int q = 0; q < QUERIES / 4; q++) {
+                int source = random.nextInt(n);
+                // May repeat a target or include the source
+                int[] targets = random.ints(1 + random.nextInt(8), 0, n).toArray();
+                // Written at an offset, as the travel matrix stores rows
+                int offset = random.nextInt(3) * targets.length;
+                double[] distances = new double[offset + targets.length];
+                ShortestPathEngine.oneToMany(graph, source, targets, distances, offset);
+
+                for (int j = 0; j < targets.length; j++) {
+                    long sourceId = graph.cityId(source);
+                    long targetId = graph.cityId(targets[j]);
+                    assertDistance("graph " + g + ", " + sourceId + " -> " + targetId, distances[offset + j],
+                            randomGraph.legacyDistance(sourceId, targetId));
+                }
+            }
+        }
+    }
+
+    @Test
+    void travelTimeMatchesLegacyOnRescaledRoutes() {
+        Random random = new Random(24);
+
+        for (int g = 0; g < GRAPHS; g++) {
+            RandomRoadGraph randomGraph = RandomRoadGraph.generate(random);
+            RoadGraph graph = randomGraph.build();
+            int n = graph.nodeCount();
+
+            // Minutes per km by node, as TrafficProfiles gives them
+            double[] paces = new double[n];
+            double fastest = Double.POSITIVE_INFINITY;
+            for (int node = 0; node < n; node++) {
+                paces[node] = 0.8 + random.nextDouble() * 2.5;
+                fastest = Math.min(fastest, paces[node]);
+            }
+
+            // The same routes with each length replaced by its travel time
+            List<Object[]> timedRoutes = new ArrayList<>();
+            for (Object[] route : randomGraph.routes()) {
+                double pace = (paces[graph.node((Long) route[0])] + paces[graph.node((Long) route[1])]) / 2;
+                double minutes = ((BigDecimal) route[2]).doubleValue() * pace;
+                timedRoutes.add(new Object[] { route[0], route[1], BigDecimal.valueOf(minutes) });
+            }
+            RandomRoadGraph timed = new RandomRoadGraph(randomGraph.cities(), timedRoutes);
+
+            for (int q = 0; q < QUERIES; q++) {
+                int source = random.nextInt(n);
+                int target = q % 10 == 0 ? source : random.nextInt(n);
+                long sourceId = graph.cityId(source);
+                long targetId = graph.cityId(target);
+                assertDistance("graph " + g + ", " + sourceId + " -> " + targetId,
+                        ShortestPathEngine.travelTime(graph, source, target, paces, fastest).distance(),
+                        timed.legacyDistance(sourceId, targetId));
+            }
+        }
+    }
+}